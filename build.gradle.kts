@@ -5,6 +5,8 @@ plugins {
     id("org.jetbrains.compose")
     id("org.jetbrains.kotlin.plugin.compose")
     id("java")
+    id("me.champeau.jmh")
+    id("org.graalvm.buildtools.native")
 }
 
 group = "com.jowney"
@@ -37,18 +39,80 @@ dependencies {
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.9.3")
 }
 
+// BoardEvaluator uses the incubating Vector API and PositionStore the foreign memory API, which is still a preview
+// in Java 21. Both have to be enabled on every compile and launch.
+val jdkFeatureArgs = listOf("--add-modules", "jdk.incubator.vector", "--enable-preview")
+
+// BoardGeometry's winning lines are generated at build time
+apply(from = "gradle/line-tables.gradle.kts")
+
+tasks.withType<JavaCompile>().configureEach {
+    options.release = 21
+    options.compilerArgs.addAll(jdkFeatureArgs)
+}
+
+kotlin {
+    compilerOptions {
+        freeCompilerArgs.add("-Xadd-modules=jdk.incubator.vector")
+    }
+}
+
 tasks.test {
     useJUnitPlatform()
+    jvmArgs(jdkFeatureArgs)
+}
+
+// Benchmarks live in src/jmh/java, run them with ./gradlew jmh
+jmh {
+    includes = listOf(providers.gradleProperty("jmhIncludes").getOrElse(".*"))
+    jvmArgsAppend.addAll(jdkFeatureArgs)
 }
 
 compose.desktop {
     application {
         mainClass = "MainKt"
+        jvmArgs += jdkFeatureArgs
 
         nativeDistributions {
             targetFormats(TargetFormat.Dmg, TargetFormat.Msi, TargetFormat.Deb)
             packageName = "TicTacToeCompose"
             packageVersion = "1.0.0"
+            modules("jdk.incubator.vector")
         }
     }
-}
\ No newline at end of file
+}
+
+// The headless CLI, on the JVM with ./gradlew runCli and as a native executable with ./gradlew nativeCompile.
+// ./gradlew compareCliStartup runs the same simulation both ways; each prints its startup time and peak RSS.
+val cliArgs = listOf("simulate", providers.gradleProperty("cliGames").getOrElse("1000"))
+
+graalvmNative {
+    binaries {
+        named("main") {
+            imageName = "tictactoe-cli"
+            mainClass = "repository.Cli"
+            buildArgs.addAll("--no-fallback", "--enable-preview", "--add-modules=jdk.incubator.vector")
+        }
+    }
+}
+
+val runCli by tasks.registering(JavaExec::class) {
+    group = "application"
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass = "repository.Cli"
+    jvmArgs(jdkFeatureArgs)
+    args(cliArgs)
+}
+
+val runNativeCli by tasks.registering(Exec::class) {
+    group = "application"
+    dependsOn(tasks.named("nativeCompile"))
+    mustRunAfter(runCli)
+    executable = layout.buildDirectory.file("native/nativeCompile/tictactoe-cli").get().asFile.path
+    args(cliArgs)
+}
+
+tasks.register("compareCliStartup") {
+    group = "application"
+    dependsOn(runCli, runNativeCli)
+}
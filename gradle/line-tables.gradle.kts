@@ -0,0 +1,59 @@
+// Generates repository.LineTables, the winning lines of every board geometry BoardGeometry supports, so no line is
+// enumerated at run time. Applied from build.gradle.kts after the java plugin.
+
+val maxSize = 8
+val lineTablesDir = layout.buildDirectory.dir("generated/sources/lineTables/java/main")
+
+val generateLineTables by tasks.registering {
+    description = "Generates the winning line tables of every board size up to $maxSize."
+    inputs.property("maxSize", maxSize)
+    outputs.dir(lineTablesDir)
+
+    doLast {
+        val source = StringBuilder()
+        source.append("package repository;\n\n")
+        source.append("// Generated by the generateLineTables task of gradle/line-tables.gradle.kts, do not edit.\n")
+        source.append("final class LineTables {\n")
+        source.append("    static final int MAX_SIZE = $maxSize;\n\n")
+        source.append("    // CELLS[size][winLength] holds the cell indexes of every winning line, winLength chars per line:\n")
+        source.append("    // the runs going right, down, down-right and down-left, each listed from its starting cell\n")
+        source.append("    static final String[][] CELLS = {\n")
+        source.append("            null,\n")
+
+        for (size in 1..maxSize) {
+            source.append("            {null")
+            for (winLength in 1..size) {
+                source.append(",\n                    \"")
+                for ((rowStep, colStep) in listOf(0 to 1, 1 to 0, 1 to 1, 1 to -1)) {
+                    for (row in 0 until size) {
+                        for (col in 0 until size) {
+                            val endRow = row + rowStep * (winLength - 1)
+                            val endCol = col + colStep * (winLength - 1)
+                            if (endRow >= size || endCol < 0 || endCol >= size) {
+                                continue
+                            }
+                            for (i in 0 until winLength) {
+                                val cell = (row + rowStep * i) * size + col + colStep * i
+                                // Octal escapes: unicode escapes of \n or " would be translated before lexing
+                                source.append("\\%o".format(cell))
+                            }
+                        }
+                    }
+                }
+                source.append("\"")
+            }
+            source.append("},\n")
+        }
+
+        source.append("    };\n\n")
+        source.append("    private LineTables() {\n    }\n}\n")
+
+        val file = lineTablesDir.get().file("repository/LineTables.java").asFile
+        file.parentFile.mkdirs()
+        file.writeText(source.toString())
+    }
+}
+
+extensions.getByType<SourceSetContainer>().named("main") {
+    java.srcDir(generateLineTables)
+}
@@ -10,6 +10,8 @@ pluginManagement {
         kotlin("jvm").version(extra["kotlin.version"] as String)
         id("org.jetbrains.compose").version(extra["compose.version"] as String)
         id("org.jetbrains.kotlin.plugin.compose").version(extra["kotlin.version"] as String)
+        id("me.champeau.jmh").version(extra["jmh.plugin.version"] as String)
+        id("org.graalvm.buildtools.native").version(extra["graalvm.buildtools.version"] as String)
     }
 }
 
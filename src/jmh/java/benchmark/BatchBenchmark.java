@@ -0,0 +1,66 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.GameBatch;
+import repository.Repository;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Repository#playBatch(byte[], int[])} with feeding the same games to
+ * {@link Repository#addPlayerMove(int, int)} one move at a time. Both run {@value #GAMES} random games per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBenchmark {
+    private static final int GAMES = 10_000;
+
+    @Param({"heuristic", "random"})
+    public String strategy;
+
+    private final byte[] moves = new byte[GAMES * 9];
+    private final int[] offsets = new int[GAMES + 1];
+    private Repository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int game = 0; game < GAMES; game++) {
+            offsets[game] = game * 9;
+            for (int i = 0; i < 9; i++) {
+                int j = random.nextInt(i + 1);
+                moves[game * 9 + i] = moves[game * 9 + j];
+                moves[game * 9 + j] = (byte) i;
+            }
+        }
+        offsets[GAMES] = GAMES * 9;
+
+        repository = new Repository(42);
+        repository.setStrategy(strategy);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public GameBatch.Result batch() {
+        return repository.playBatch(moves, offsets);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public int addPlayerMoveLoop() {
+        int ended = 0;
+        for (int game = 0; game < GAMES; game++) {
+            repository.resetBoard();
+            for (int i = offsets[game]; i < offsets[game + 1] && !repository.isGameOver(); i++) {
+                repository.addPlayerMove(moves[i] / 3, moves[i] % 3);
+            }
+            ended += repository.getWinner().ordinal();
+        }
+        return ended;
+    }
+}
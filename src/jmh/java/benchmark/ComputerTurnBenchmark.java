@@ -0,0 +1,50 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.ECharToken;
+import repository.Repository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole turn against the computer through {@link Repository#addPlayerMove(int, int)}: validating the move,
+ * playing it, letting the strategy answer, checking the winner and counting finished games. Run it with
+ * {@code -prof gc}: {@code gc.alloc.rate.norm} should be 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComputerTurnBenchmark {
+    @Param({"heuristic", "random"})
+    public String strategy;
+
+    private Repository repository;
+    private int nextCell;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new Repository(42);
+        repository.setStrategy(strategy);
+    }
+
+    @Benchmark
+    public ECharToken playerTurn() {
+        if (repository.isGameOver()) {
+            repository.resetBoard();
+        }
+
+        // The first free cell from a rotating start, so games differ
+        for (int i = 0; i < 9; i++) {
+            int cell = (nextCell + i) % 9;
+            if (repository.isValidMove(cell / 3, cell % 3)) {
+                repository.addPlayerMove(cell / 3, cell % 3);
+                nextCell = (cell + 4) % 9;
+                break;
+            }
+        }
+        return repository.getSideToMove();
+    }
+}
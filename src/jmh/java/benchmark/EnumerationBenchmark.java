@@ -0,0 +1,43 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.BoardGeometry;
+import repository.GameTreeEnumerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GameTreeEnumerator} walking the full 3x3 game tree, single-threaded and in parallel.
+ * <p>
+ * The {@code nodes} counter is reported as a rate, the nodes per second including the distinct-position
+ * bookkeeping. Thread counts beyond the available cores are capped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnumerationBenchmark {
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3, 3);
+
+    @Param({"1", "4"})
+    public int threads;
+
+    /**
+     * Nodes visited, which JMH reports as a rate next to the walks per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long nodes;
+    }
+
+    @Benchmark
+    public long enumerate(Counters counters) {
+        GameTreeEnumerator.Result result = GameTreeEnumerator.enumerate(GEOMETRY, GEOMETRY.cells(),
+                Math.min(threads, Runtime.getRuntime().availableProcessors()));
+        counters.nodes += result.nodes();
+        return result.games();
+    }
+}
@@ -0,0 +1,150 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.BoardGeometry;
+import repository.ECharToken;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Winner checks on random boards: the hand-written row, column and diagonal loops over a
+ * {@code List<List<Character>>} board the repository used to run, against loops over the generated
+ * {@link BoardGeometry} line table, by cell and by mask. {@link #threat()} finds a winning move with the same
+ * mask table. In boards per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineTableBenchmark {
+    private static final int BOARDS = 1 << 12;
+
+    @Param({"3", "4"})
+    public int size;
+
+    private BoardGeometry geometry;
+    private final List<List<List<Character>>> lists = new ArrayList<>();
+    private char[][] cells;
+    private long[] masks;
+    private long[] others;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        geometry = BoardGeometry.of(size, size);
+        cells = new char[BOARDS][size * size];
+        masks = new long[BOARDS];
+        others = new long[BOARDS];
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int board = 0; board < BOARDS; board++) {
+            List<List<Character>> rows = new ArrayList<>();
+            for (int row = 0; row < size; row++) {
+                List<Character> tokens = new ArrayList<>();
+                for (int col = 0; col < size; col++) {
+                    char token = switch (random.nextInt(3)) {
+                        case 0 -> ECharToken.PLAYER.token();
+                        case 1 -> ECharToken.COMPUTER.token();
+                        default -> ECharToken.EMPTY.token();
+                    };
+                    tokens.add(token);
+                    cells[board][row * size + col] = token;
+                    if (token == ECharToken.PLAYER.token()) {
+                        masks[board] |= 1L << (row * size + col);
+                    } else if (token == ECharToken.COMPUTER.token()) {
+                        others[board] |= 1L << (row * size + col);
+                    }
+                }
+                rows.add(tokens);
+            }
+            lists.add(rows);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public int handWritten() {
+        int wins = 0;
+        for (List<List<Character>> board : lists) {
+            if (handWrittenWin(board, ECharToken.PLAYER.token())) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public int cellTable() {
+        int wins = 0;
+        char token = ECharToken.PLAYER.token();
+        for (char[] board : cells) {
+            for (int line = 0; line < geometry.lineCount(); line++) {
+                int i = 0;
+                while (i < size && board[geometry.lineCell(line, i)] == token) {
+                    i++;
+                }
+                if (i == size) {
+                    wins++;
+                    break;
+                }
+            }
+        }
+        return wins;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public int maskTable() {
+        int wins = 0;
+        for (long mask : masks) {
+            if (geometry.isWin(mask)) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public int threat() {
+        int cells = 0;
+        for (int board = 0; board < BOARDS; board++) {
+            cells += geometry.threat(masks[board], others[board]);
+        }
+        return cells;
+    }
+
+    private boolean handWrittenWin(List<List<Character>> board, Character token) {
+        for (int row = 0; row < size; row++) {
+            boolean line = true;
+            for (int col = 0; col < size; col++) {
+                line &= board.get(row).get(col).equals(token);
+            }
+            if (line) {
+                return true;
+            }
+        }
+        for (int col = 0; col < size; col++) {
+            boolean line = true;
+            for (int row = 0; row < size; row++) {
+                line &= board.get(row).get(col).equals(token);
+            }
+            if (line) {
+                return true;
+            }
+        }
+
+        boolean diagonal = true;
+        boolean antiDiagonal = true;
+        for (int i = 0; i < size; i++) {
+            diagonal &= board.get(i).get(i).equals(token);
+            antiDiagonal &= board.get(i).get(size - 1 - i).equals(token);
+        }
+        return diagonal || antiDiagonal;
+    }
+}
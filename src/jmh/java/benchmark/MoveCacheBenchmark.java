@@ -0,0 +1,135 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.BoardGeometry;
+import repository.ECharToken;
+import repository.EWinner;
+import repository.MoveCache;
+import repository.MoveStrategy;
+import repository.Position;
+import repository.SearchStrategy;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MoveCache} hit rate and throughput per eviction policy.
+ * <p>
+ * {@code selfPlay} plays 4x4 games between two time-limited searches behind the cache, each from a random
+ * four-ply opening skewed towards one corner, so popular lines repeat among many more positions than fit the
+ * cache.
+ * {@code NONE} runs the searches without a cache as the baseline. {@code zipf} hammers the cache alone from four
+ * threads with log-uniformly distributed keys over a million positions, where every miss is followed by an
+ * insert. Both count the cache's {@code hits} and {@code misses}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class MoveCacheBenchmark {
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(4, 4);
+    private static final int ZIPF_KEYS = 1 << 20;
+    private static final int ZIPF_SAMPLES = 1 << 22;
+    private static final int OPENING_PLIES = 4;
+
+    @Param({"NONE", "LRU", "LFU", "TINY_LFU"})
+    public String policy;
+
+    @Param({"1024", "16384"})
+    public int capacity;
+
+    private MoveCache cache;
+    private MoveStrategy search;
+    private long[] zipfKeys;
+
+    /**
+     * Cache lookups, which JMH reports as rates; the hit rate is {@code hits / (hits + misses)}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long hits;
+        public long misses;
+    }
+
+    @State(Scope.Thread)
+    public static class Player {
+        final Position position = new Position(GEOMETRY);
+        final SplittableRandom random = new SplittableRandom(Thread.currentThread().threadId());
+        int next = (int) Thread.currentThread().threadId() * 7919;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = policy.equals("NONE") ? null : new MoveCache(capacity, MoveCache.Policy.valueOf(policy));
+        search = new SearchStrategy(1, Duration.ofMillis(1), 1 << 16);
+
+        SplittableRandom random = new SplittableRandom(42);
+        zipfKeys = new long[ZIPF_SAMPLES];
+        for (int i = 0; i < ZIPF_SAMPLES; i++) {
+            zipfKeys[i] = (long) Math.exp(random.nextDouble() * Math.log(ZIPF_KEYS));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    @Benchmark
+    public EWinner selfPlay(Player player, Counters counters) {
+        Position position = player.position;
+        position.clear();
+
+        // One of 16 * 15 * 14 * 13 openings, the first plies drawn from the corner quadrant more often
+        for (int ply = 0; ply < OPENING_PLIES; ply++) {
+            long empty = position.mask(ECharToken.EMPTY);
+            long preferred = empty & 0b0000_0000_0011_0011L;
+            long from = preferred != 0 && player.random.nextBoolean() ? preferred : empty;
+            for (int skip = player.random.nextInt(Long.bitCount(from)); skip > 0; skip--) {
+                from &= from - 1;
+            }
+            position.makeMove(Long.numberOfTrailingZeros(from), position.sideToMove());
+        }
+
+        long hits = cache == null ? 0 : cache.hits();
+        long misses = cache == null ? 0 : cache.misses();
+        while (position.winner() == EWinner.NONE) {
+            ECharToken side = position.sideToMove();
+            int move = cache == null
+                    ? search.selectMove(position, side, player.random)
+                    : cache.selectMove(search, position, side, player.random);
+            position.makeMove(move, side);
+        }
+
+        if (cache != null) {
+            counters.hits += cache.hits() - hits;
+            counters.misses += cache.misses() - misses;
+        }
+        return position.winner();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int zipf(Player player, Counters counters) {
+        if (cache == null) {
+            return 0;
+        }
+
+        long key = zipfKeys[player.next++ & (ZIPF_SAMPLES - 1)];
+        int move = cache.get(key);
+        if (move == MoveCache.MISS) {
+            counters.misses++;
+            move = (int) (key % 16);
+            cache.put(key, move);
+        } else {
+            counters.hits++;
+        }
+        return move;
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.BoardGeometry;
+import repository.ECharToken;
+import repository.EWinner;
+import repository.Position;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Position#makeMove(int, ECharToken)} and {@link Position#unmakeMove(int)} by walking the whole
+ * game tree of a board, visiting every node reachable before a win or a full board.
+ * <p>
+ * The {@code nodes} counter is reported as a rate, the make/unmake pairs per second. The 4x4 board with three in a
+ * row is cut off at {@code depth} plies to keep an invocation short.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+    @Param({"3x3-3", "4x4-3"})
+    public String board;
+
+    @Param({"6"})
+    public int depth;
+
+    private Position position;
+    private int plies;
+
+    /**
+     * Nodes visited, which JMH reports as a rate next to the walks per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long nodes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] parts = board.split("[x-]");
+        BoardGeometry geometry = BoardGeometry.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[2]));
+        position = new Position(geometry);
+        plies = geometry.size() == 3 ? geometry.cells() : depth;
+    }
+
+    @Benchmark
+    public long perft(Counters counters) {
+        long nodes = walk(plies);
+        counters.nodes += nodes;
+        return nodes;
+    }
+
+    private long walk(int depth) {
+        if (depth == 0 || position.winner() != EWinner.NONE) {
+            return 1;
+        }
+
+        long nodes = 1;
+        ECharToken side = position.sideToMove();
+        for (long empty = position.mask(ECharToken.EMPTY); empty != 0; empty &= empty - 1) {
+            int cell = Long.numberOfTrailingZeros(empty);
+            position.makeMove(cell, side);
+            nodes += walk(depth - 1);
+            position.unmakeMove(cell);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,66 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.ProfileStore;
+import repository.Statistics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups and in-place updates of random profiles in a store of a million profiles.
+ * <p>
+ * The store is filled once per trial in a temporary file; every operation is a positional read or write of one
+ * record through the page cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfileStoreBenchmark {
+    @Param({"1000000"})
+    public int profiles;
+
+    private Path file;
+    private ProfileStore store;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("profiles", ".bin");
+        Files.delete(file);
+        store = ProfileStore.open(file, profiles);
+        for (int i = 0; i < profiles; i++) {
+            store.put("user" + i, new Statistics(i, 0, 0, 0, 0));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Statistics lookup() throws IOException {
+        return store.get("user" + random.nextInt(profiles));
+    }
+
+    @Benchmark
+    public void update() throws IOException {
+        String profile = "user" + random.nextInt(profiles);
+        Statistics stats = store.get(profile);
+        stats.wins++;
+        store.put(profile, stats);
+    }
+
+    @Benchmark
+    public boolean miss() throws IOException {
+        return store.contains("guest" + random.nextInt(profiles));
+    }
+}
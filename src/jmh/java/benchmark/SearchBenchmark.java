@@ -0,0 +1,58 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.BoardView;
+import repository.ECharToken;
+import repository.PackedBoard;
+import repository.SearchStrategy;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link SearchStrategy}'s nodes per second scale with the number of search threads.
+ * <p>
+ * Every invocation starts from an empty transposition table and searches the empty 5x5 board for a fixed time
+ * budget, so the {@code nodes} counter is the search's throughput. Pass {@code -p threads=...} to JMH to go
+ * beyond 8.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private SearchStrategy strategy;
+    private final BoardView board = new PackedBoard(5, 0, 0);
+
+    /**
+     * Nodes visited, which JMH reports as a rate next to the searches per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long nodes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        strategy = new SearchStrategy(Math.min(threads, Runtime.getRuntime().availableProcessors()),
+                Duration.ofMillis(100), 1 << 22);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        strategy.clearTable();
+    }
+
+    @Benchmark
+    public int search(Counters counters) {
+        SearchStrategy.Result result = strategy.analyse(board, ECharToken.COMPUTER);
+        counters.nodes += result.nodes();
+        return result.move();
+    }
+}
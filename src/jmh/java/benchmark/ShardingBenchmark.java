@@ -0,0 +1,65 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.EWinner;
+import repository.GameSnapshot;
+import repository.SessionCluster;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole games per second through a {@link SessionCluster} of 1 to 8 in-process nodes, with 8 client threads each
+ * playing its own games. Every move reads the game's snapshot and plays its first empty cell, as a thin client
+ * would. A node serves one request at a time, so throughput grows with the node count up to the number of cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ShardingBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int nodes;
+
+    private SessionCluster cluster;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cluster = new SessionCluster(42);
+        for (int node = 0; node < nodes; node++) {
+            cluster.addNode("node-" + node);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private static int clients;
+
+        private final String prefix;
+        private long game;
+
+        public Client() {
+            synchronized (Client.class) {
+                prefix = "client-" + clients++ + "-";
+            }
+        }
+    }
+
+    @Benchmark
+    public EWinner game(Client client) {
+        String gameId = client.prefix + client.game++;
+        EWinner winner = EWinner.NONE;
+        while (winner == EWinner.NONE) {
+            GameSnapshot snapshot = cluster.snapshot(gameId);
+            long taken = 0;
+            for (int ply = 0; snapshot != null && ply < snapshot.pliesOnBoard(); ply++) {
+                taken |= 1L << snapshot.cell(ply);
+            }
+            int cell = Long.numberOfTrailingZeros(~taken);
+            winner = cluster.play(gameId, cell / 3, cell % 3);
+        }
+        return winner;
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.BoardGeometry;
+import repository.ECharToken;
+import repository.EWinner;
+import repository.MoveStrategies;
+import repository.MoveStrategy;
+import repository.PackedBoard;
+import repository.Position;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The average time a strategy takes to select a move, over every reachable 3x3 position where the game is still
+ * running. Each strategy is expected to stay well under a microsecond per move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StrategyMoveBenchmark {
+    @Param({"heuristic", "random", "search", "tablebase"})
+    public String strategy;
+
+    private MoveStrategy selected;
+    private PackedBoard[] boards;
+    private ECharToken[] sides;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        selected = MoveStrategies.get(strategy);
+
+        List<PackedBoard> positions = new ArrayList<>();
+        List<ECharToken> toMove = new ArrayList<>();
+        collect(new Position(BoardGeometry.of(3, 3)), new HashSet<>(), positions, toMove);
+        boards = positions.toArray(new PackedBoard[0]);
+        sides = toMove.toArray(new ECharToken[0]);
+    }
+
+    @Benchmark
+    public int selectMove() {
+        int i = next;
+        next = i + 1 == boards.length ? 0 : i + 1;
+        return selected.selectMove(boards[i], sides[i], random);
+    }
+
+    /**
+     * Walks the game tree from {@code position} in place, keeping each running position once.
+     */
+    private static void collect(Position position, Set<Long> seen, List<PackedBoard> positions,
+                                List<ECharToken> sides) {
+        if (!seen.add(position.hash()) || position.winner() != EWinner.NONE) {
+            return;
+        }
+
+        long player = position.mask(ECharToken.PLAYER);
+        long computer = position.mask(ECharToken.COMPUTER);
+        ECharToken toMove = position.sideToMove();
+        positions.add(new PackedBoard(3, player, computer));
+        sides.add(toMove);
+
+        for (long empty = position.geometry().fullMask() & ~(player | computer); empty != 0; empty &= empty - 1) {
+            int cell = Long.numberOfTrailingZeros(empty);
+            position.makeMove(cell, toMove);
+            collect(position, seen, positions, sides);
+            position.unmakeMove(cell);
+        }
+    }
+}
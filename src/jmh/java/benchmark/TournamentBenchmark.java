@@ -0,0 +1,53 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.MoveStrategies;
+import repository.MoveStrategy;
+import repository.Tournament;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time of a million-game round robin between every discovered strategy.
+ * <p>
+ * The games are spread evenly over the pairings; {@code games} reports the games per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class TournamentBenchmark {
+    @Param({"1000000"})
+    public int games;
+
+    private List<MoveStrategy> entrants;
+    private int gamesPerPairing;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long games;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entrants = new ArrayList<>();
+        for (String name : MoveStrategies.names()) {
+            entrants.add(MoveStrategies.get(name));
+        }
+        int pairings = entrants.size() * (entrants.size() - 1) / 2;
+        gamesPerPairing = (games + pairings - 1) / pairings;
+    }
+
+    @Benchmark
+    public Tournament.Result tournament(Counters counters) {
+        Tournament.Result result = Tournament.play(entrants, gamesPerPairing,
+                Runtime.getRuntime().availableProcessors(), 42);
+        counters.games += result.games();
+        return result;
+    }
+}
@@ -0,0 +1,56 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import repository.BoardEvaluator;
+import repository.BoardGeometry;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar against Vector API throughput of {@link BoardEvaluator}, in boards per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WinnerBenchmark {
+    private static final int BOARDS = 1 << 16;
+
+    @Param({"3", "4"})
+    public int size;
+
+    private BoardGeometry geometry;
+    private final long[] player = new long[BOARDS];
+    private final long[] computer = new long[BOARDS];
+    private final byte[] winners = new byte[BOARDS];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        geometry = BoardGeometry.of(size, size);
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int i = 0; i < BOARDS; i++) {
+            long occupied = random.nextLong() & geometry.fullMask();
+            long split = random.nextLong();
+            player[i] = occupied & split;
+            computer[i] = occupied & ~split;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public byte[] scalar() {
+        BoardEvaluator.winnersScalar(geometry, player, computer, winners, BOARDS);
+        return winners;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public byte[] vector() {
+        BoardEvaluator.winners(geometry, player, computer, winners, BOARDS);
+        return winners;
+    }
+}
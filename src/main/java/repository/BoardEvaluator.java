@@ -0,0 +1,93 @@
+package repository;
+
+/**
+ * Computes the {@link Repository#getWinner() getWinner} result of a whole array of boards per call.
+ * <p>
+ * Boards are given as struct-of-arrays masks, one {@code long} per side per board. When the
+ * {@code jdk.incubator.vector} module is available (the build adds it with {@code --add-modules}), boards are
+ * checked a full SIMD register at a time by {@link VectorBoardEvaluator}; otherwise, or when the hardware has no
+ * wide enough vectors, the scalar loop is used.
+ */
+public final class BoardEvaluator {
+    private static final boolean VECTORIZED = vectorAvailable();
+
+    private BoardEvaluator() {
+    }
+
+    /**
+     * @return {@code true} if {@link #winners} runs on the Vector API
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Writes the {@link EWinner} ordinal of boards {@code 0..count - 1} into {@code winners}, using the Vector API
+     * when it is available.
+     *
+     * @param geometry the board geometry the masks are laid out for
+     * @param player   the {@link ECharToken#PLAYER player} mask of every board
+     * @param computer the {@link ECharToken#COMPUTER computer} mask of every board
+     * @param winners  receives the result of every board
+     * @param count    the number of boards to evaluate
+     */
+    public static void winners(BoardGeometry geometry, long[] player, long[] computer, byte[] winners, int count) {
+        if (VECTORIZED) {
+            VectorBoardEvaluator.winners(geometry, player, computer, winners, count);
+        } else {
+            winnersScalar(geometry, player, computer, winners, count);
+        }
+    }
+
+    /**
+     * Scalar form of {@link #winners}, also used for the tail the vector loop leaves over.
+     */
+    public static void winnersScalar(BoardGeometry geometry, long[] player, long[] computer, byte[] winners,
+                                     int count) {
+        winnersScalar(geometry, player, computer, winners, 0, count);
+    }
+
+    static void winnersScalar(BoardGeometry geometry, long[] player, long[] computer, byte[] winners,
+                              int from, int to) {
+        checkBounds(player, computer, winners, to);
+        long full = geometry.fullMask();
+        int lines = geometry.lineCount();
+
+        for (int i = from; i < to; i++) {
+            long p = player[i];
+            long c = computer[i];
+
+            boolean playerWon = false;
+            boolean computerWon = false;
+            for (int line = 0; line < lines; line++) {
+                long mask = geometry.line(line);
+                playerWon |= (p & mask) == mask;
+                computerWon |= (c & mask) == mask;
+            }
+
+            EWinner winner = playerWon ? EWinner.PLAYER
+                    : computerWon ? EWinner.COMPUTER
+                    : (p | c) == full ? EWinner.TIE
+                    : EWinner.NONE;
+            winners[i] = (byte) winner.ordinal();
+        }
+    }
+
+    static void checkBounds(long[] player, long[] computer, byte[] winners, int count) {
+        if (count < 0 || count > player.length || count > computer.length || count > winners.length) {
+            throw new IllegalArgumentException("count " + count + " exceeds the arrays");
+        }
+    }
+
+    private static boolean vectorAvailable() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+
+        try {
+            return VectorBoardEvaluator.lanes() > 1;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
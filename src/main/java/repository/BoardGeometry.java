@@ -0,0 +1,222 @@
+package repository;
+
+import java.util.Objects;
+
+/**
+ * The winning lines of a {@code size x size} board where {@code winLength} tokens in a row win, as bitmasks over
+ * the cell indexes ({@code row * size + col}).
+ * <p>
+ * The lines are not enumerated at run time: the {@code generateLineTables} Gradle task writes the cells of every
+ * line of every supported geometry into {@code LineTables} at build time, and a geometry only turns its table into
+ * masks. Instances are immutable and cached, so {@link #of(int, int)} can be called on the hot path.
+ */
+public final class BoardGeometry {
+    /**
+     * Largest supported side length, so that every cell fits in a {@code long} mask.
+     */
+    public static final int MAX_SIZE = LineTables.MAX_SIZE;
+
+    private static final BoardGeometry[][] CACHE = new BoardGeometry[MAX_SIZE + 1][MAX_SIZE + 1];
+
+    private final int size;
+    private final int winLength;
+    private final long full;
+    private final long[] lines;
+    private final byte[] lineCells;
+    private final long[][] linesThrough;
+    private final int[][] lineIndexesThrough;
+    private final int[] cellOrder;
+
+    private BoardGeometry(int size, int winLength) {
+        this.size = size;
+        this.winLength = winLength;
+        this.full = PackedBoard.fullMask(size);
+
+        // The lines come from the table generated at build time, winLength cells each
+        String cells = LineTables.CELLS[size][winLength];
+        this.lineCells = new byte[cells.length()];
+        this.lines = new long[cells.length() / winLength];
+        for (int i = 0; i < lineCells.length; i++) {
+            lineCells[i] = (byte) cells.charAt(i);
+            lines[i / winLength] |= 1L << lineCells[i];
+        }
+        this.linesThrough = new long[size * size][];
+        this.lineIndexesThrough = new int[size * size][];
+
+        int[] weights = new int[size * size];
+        for (int cell = 0; cell < size * size; cell++) {
+            int through = 0;
+            for (long line : lines) {
+                if ((line & (1L << cell)) != 0) {
+                    through++;
+                }
+            }
+
+            linesThrough[cell] = new long[through];
+            lineIndexesThrough[cell] = new int[through];
+            weights[cell] = through;
+            int i = 0;
+            for (int index = 0; index < lines.length; index++) {
+                if ((lines[index] & (1L << cell)) != 0) {
+                    linesThrough[cell][i] = lines[index];
+                    lineIndexesThrough[cell][i++] = index;
+                }
+            }
+        }
+
+        // Cells on the most lines first, ties broken by index
+        this.cellOrder = new int[size * size];
+        for (int cell = 0; cell < cellOrder.length; cell++) {
+            int i = cell;
+            while (i > 0 && weights[cellOrder[i - 1]] < weights[cell]) {
+                cellOrder[i] = cellOrder[i - 1];
+                i--;
+            }
+            cellOrder[i] = cell;
+        }
+    }
+
+    /**
+     * @return the geometry of a {@code size x size} board won with {@code winLength} in a row
+     * @throws IllegalArgumentException if the size is not between 1 and {@link #MAX_SIZE} or the win length does
+     *                                  not fit on the board
+     */
+    public static BoardGeometry of(int size, int winLength) {
+        if (size < 1 || size > MAX_SIZE || winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException("Unsupported geometry " + size + "x" + size + ", " + winLength + " in a row");
+        }
+
+        BoardGeometry geometry = CACHE[size][winLength];
+        if (geometry == null) {
+            // Racing threads build equal instances, and final fields make publishing them safe
+            geometry = new BoardGeometry(size, winLength);
+            CACHE[size][winLength] = geometry;
+        }
+        return geometry;
+    }
+
+    /**
+     * @return the geometry matching the given board
+     */
+    public static BoardGeometry of(BoardView board) {
+        return of(board.size(), board.winLength());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int winLength() {
+        return winLength;
+    }
+
+    /**
+     * @return the number of cells on the board
+     */
+    public int cells() {
+        return size * size;
+    }
+
+    /**
+     * @return a mask with every cell of the board set
+     */
+    public long fullMask() {
+        return full;
+    }
+
+    /**
+     * @return the number of winning lines
+     */
+    public int lineCount() {
+        return lines.length;
+    }
+
+    /**
+     * @return the mask of the {@code index}-th winning line
+     */
+    public long line(int index) {
+        return lines[index];
+    }
+
+    /**
+     * @return the {@code i}-th cell of the {@code index}-th winning line, counted from its top end, or its left end
+     * for a row
+     */
+    public int lineCell(int index, int i) {
+        Objects.checkIndex(i, winLength);
+        return lineCells[index * winLength + i];
+    }
+
+    /**
+     * @return the masks of every winning line, the array itself so callers must not modify it
+     */
+    long[] lines() {
+        return lines;
+    }
+
+    /**
+     * @return the indexes of the winning lines through {@code cell}, the array itself so callers must not modify it
+     */
+    int[] lineIndexesThrough(int cell) {
+        return lineIndexesThrough[cell];
+    }
+
+    /**
+     * @return the cell visited {@code index}-th when ordering moves, cells on the most lines come first
+     */
+    public int orderedCell(int index) {
+        return cellOrder[index];
+    }
+
+    /**
+     * @return {@code true} if {@code mask} contains a complete line
+     */
+    public boolean isWin(long mask) {
+        for (long line : lines) {
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return a mask of the empty cells that complete a line of {@code own} tokens, i.e. lines holding one token
+     * short of a win and none of {@code theirs}
+     */
+    public long threats(long own, long theirs) {
+        long out = 0;
+        for (long line : lines) {
+            long open = line & ~own;
+            if ((line & theirs) == 0 && Long.bitCount(open) == 1) {
+                out |= open;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Allocation-free threat detection for callers that want one move.
+     *
+     * @return the lowest cell ({@code row * size + col}) among the {@link #threats(long, long) threats} of
+     * {@code own}, or {@code -1} if there is none
+     */
+    public int threat(long own, long theirs) {
+        long threats = threats(own, theirs);
+        return threats == 0 ? -1 : Long.numberOfTrailingZeros(threats);
+    }
+
+    /**
+     * Cheaper form of {@link #isWin(long)} that only looks at the lines through the cell that was just played.
+     *
+     * @return {@code true} if {@code mask} contains a complete line through {@code cell}
+     */
+    public boolean isWinThrough(long mask, int cell) {
+        for (long line : linesThrough[cell]) {
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
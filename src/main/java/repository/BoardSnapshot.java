@@ -0,0 +1,17 @@
+package repository;
+
+/**
+ * An immutable {@link BoardView} of a board as it was at one {@link #version() version}, for readers such as the
+ * UI that hold on to a board between moves.
+ * <p>
+ * A snapshot is the two token masks of the board and reads every cell from them, so taking one copies no cells
+ * or rows, and {@link Repository} hands out the same snapshot until its board changes. Two snapshots are equal
+ * when they hold the same tokens at the same version.
+ */
+public interface BoardSnapshot extends BoardView {
+    /**
+     * @return the number of changes made to the board before this snapshot was taken; a newer snapshot of the same
+     * board has a higher version
+     */
+    long version();
+}
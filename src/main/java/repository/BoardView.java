@@ -0,0 +1,51 @@
+package repository;
+
+import java.util.Objects;
+
+/**
+ * A read-only, primitive view of a Tic-Tac-Toe board handed to a {@link MoveStrategy}.
+ * <p>
+ * Cells are addressed by index, {@code row * size() + col}, and each token is exposed as a bitmask where
+ * bit {@code i} is set when cell {@code i} holds that token. Implementations must not change while a strategy
+ * is looking at them and none of the methods may allocate.
+ */
+public interface BoardView {
+    /**
+     * @return the number of rows (and columns) of the board
+     */
+    int size();
+
+    /**
+     * @return the number of tokens in a row needed to win, the full side length unless overridden
+     */
+    default int winLength() {
+        return size();
+    }
+
+    /**
+     * @return the {@link ECharToken token} held by the given cell
+     */
+    ECharToken get(int cell);
+
+    /**
+     * @return the {@link ECharToken token} held by the cell at {@code row} and {@code col}
+     * @throws IndexOutOfBoundsException if the cell is off the board
+     */
+    default ECharToken get(int row, int col) {
+        Objects.checkIndex(row, size());
+        Objects.checkIndex(col, size());
+        return get(row * size() + col);
+    }
+
+    /**
+     * @return a bitmask of the cells holding the given {@link ECharToken token}
+     */
+    long mask(ECharToken token);
+
+    /**
+     * @return a bitmask of the cells that are still {@link ECharToken#EMPTY empty}
+     */
+    default long emptyMask() {
+        return mask(ECharToken.EMPTY);
+    }
+}
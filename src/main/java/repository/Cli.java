@@ -0,0 +1,269 @@
+package repository;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Headless entry point for simulators and scripts, independent of the Compose UI in {@code Main.kt}.
+ * <p>
+ * Nothing on this path uses reflection: statistics are kept in {@link StatsStorage#binary(Path) binary storage}
+ * (by default {@value #STATS_FILE_NAME}) instead of the UI's JAXB file, and strategies come from
+ * {@link java.util.ServiceLoader}, which native-image registers at build time. {@code ./gradlew nativeCompile}
+ * therefore builds it into a native executable without reflection metadata, and
+ * {@code ./gradlew compareCliStartup} runs the same simulation on the JVM and natively.
+ * <p>
+ * Run {@code main} with {@code simulate <games> [strategy] [statsFile]} to play AI-versus-AI games and print the
+ * results, the time from process start to {@code main} and the peak resident set size.
+ * <p>
+ * Run it with {@code play [commandFile] [statsFile]} to play against a {@link Repository} with the line protocol
+ * of {@link #serve(BufferedReader, Writer, Repository)}, from standard input or, with a file, as one pipelined
+ * batch. The number of commands and the throughput are reported on standard error at exit.
+ */
+public final class Cli {
+    static final String STATS_FILE_NAME = "cli-stats.bin";
+
+    private Cli() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 1 && args[0].equals("play")) {
+            play(args);
+        } else if (args.length >= 2 && args[0].equals("simulate")) {
+            simulate(args);
+        } else {
+            System.err.println("Usage: Cli simulate <games> [strategy] [statsFile]");
+            System.err.println("       Cli play [commandFile|-] [statsFile]");
+            System.exit(1);
+        }
+    }
+
+    private static void simulate(String[] args) {
+        Duration startup = sinceProcessStart();
+        int games = Integer.parseInt(args[1]);
+        MoveStrategy strategy = args.length > 2 ? MoveStrategies.get(args[2]) : MoveStrategies.defaultStrategy();
+        Path statsFile = Path.of(args.length > 3 ? args[3] : STATS_FILE_NAME);
+
+        long start = System.nanoTime();
+        Statistics stats = simulate(games, strategy, statsFile, start);
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("Games: %d (player %d, computer %d, tie %d) in %.1f ms%n",
+                games, stats.wins, stats.loses, stats.ties, nanos / 1e6);
+        System.out.printf("Startup: %s, peak RSS: %s%n",
+                startup == null ? "n/a" : startup.toMillis() + " ms", peakRss());
+    }
+
+    private static void play(String[] args) throws IOException {
+        boolean fromFile = args.length > 1 && !args[1].equals("-");
+        Path statsFile = Path.of(args.length > 2 ? args[2] : STATS_FILE_NAME);
+        Repository repository = new Repository(System.nanoTime(), StatsStorage.binary(statsFile));
+
+        BufferedReader in = fromFile
+                ? Files.newBufferedReader(Path.of(args[1]), StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+
+        long start = System.nanoTime();
+        long commands;
+        try (in) {
+            commands = serve(in, out, repository);
+        }
+        long nanos = System.nanoTime() - start;
+        repository.saveStats();
+
+        System.err.printf("Commands: %d in %.1f ms (%.0f/s)%n", commands, nanos / 1e6,
+                nanos == 0 ? 0 : commands * 1e9 / nanos);
+    }
+
+    /**
+     * Answers the commands read from {@code in} with one line each on {@code out}, until {@code q} or the end of
+     * the input. Blank lines and lines starting with {@code #} are skipped without an answer.
+     * <ul>
+     * <li>{@code m <cell>} plays the cell, {@code row * 3 + col}, and lets the AI answer</li>
+     * <li>{@code n} starts a new game, with the AI's move if it opens</li>
+     * <li>{@code u} and {@code r} undo and redo a turn</li>
+     * <li>{@code b} shows the board</li>
+     * <li>{@code s <strategy>} selects the computer's strategy</li>
+     * <li>{@code t} shows the statistics as {@code t <wins> <loses> <ties>}</li>
+     * <li>{@code q} quits</li>
+     * </ul>
+     * Commands that leave a board answer with the nine cells, {@code .} for empty, and the state: {@code X} or
+     * {@code O} for the winner, {@code T} for a tie and {@code -} while the game goes on, e.g. {@code X...O.... -}.
+     * Rejected commands answer with {@code ? <reason>} and change nothing.
+     * <p>
+     * Answers are flushed only when no more input is ready, so a batch of commands is answered in bulk while an
+     * interactive session still sees every answer right away.
+     *
+     * @return the number of commands answered
+     * @throws IOException if reading or writing fails
+     */
+    public static long serve(BufferedReader in, Writer out, Repository repository) throws IOException {
+        char[] answer = new char[11];
+        long commands = 0;
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.strip();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            if (line.equals("q")) {
+                break;
+            }
+
+            commands++;
+            String error = execute(line, repository);
+            if (error != null) {
+                out.write("? ");
+                out.write(error);
+            } else if (line.charAt(0) == 't') {
+                Statistics stats = repository.getStats();
+                out.write("t " + stats.wins + " " + stats.loses + " " + stats.ties);
+            } else {
+                out.write(answer, 0, board(repository, answer));
+            }
+            out.write('\n');
+
+            if (!in.ready()) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return commands;
+    }
+
+    /**
+     * @return {@code null} once the command is carried out, else why it was rejected
+     */
+    private static String execute(String line, Repository repository) {
+        String argument = line.length() > 2 && line.charAt(1) == ' ' ? line.substring(2).strip() : null;
+        if (line.length() > 1 && argument == null) {
+            return "unknown command " + line;
+        }
+
+        switch (line.charAt(0)) {
+            case 'm' -> {
+                int cell = argument == null || argument.length() != 1 ? -1 : argument.charAt(0) - '0';
+                if (cell < 0 || cell > 8) {
+                    return "usage: m <cell 0-8>";
+                }
+                if (!repository.isValidMove(cell / 3, cell % 3) || !repository.isHuman(repository.getSideToMove())) {
+                    return "illegal move " + cell;
+                }
+                repository.addPlayerMove(cell / 3, cell % 3);
+            }
+            case 'n' -> {
+                repository.resetBoard();
+                repository.playAiMoves();
+            }
+            case 'u' -> {
+                if (!repository.undo()) {
+                    return "nothing to undo";
+                }
+            }
+            case 'r' -> {
+                if (!repository.redo()) {
+                    return "nothing to redo";
+                }
+            }
+            case 's' -> {
+                if (argument == null || !MoveStrategies.names().contains(argument)) {
+                    return "strategies: " + String.join(" ", MoveStrategies.names());
+                }
+                repository.setStrategy(argument);
+            }
+            case 'b', 't' -> {
+                if (argument != null) {
+                    return "unknown command " + line;
+                }
+            }
+            default -> {
+                return "unknown command " + line;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the board and its state into {@code answer}.
+     *
+     * @return the number of chars written
+     */
+    private static int board(Repository repository, char[] answer) {
+        int i = 0;
+        for (List<Character> row : repository.getBoard()) {
+            for (Character token : row) {
+                answer[i++] = token.equals(ECharToken.EMPTY.token()) ? '.' : token;
+            }
+        }
+        answer[i++] = ' ';
+        answer[i++] = switch (repository.getWinner()) {
+            case PLAYER -> ECharToken.PLAYER.token();
+            case COMPUTER -> ECharToken.COMPUTER.token();
+            case TIE -> 'T';
+            case NONE -> '-';
+        };
+        return i;
+    }
+
+    /**
+     * Plays {@code games} games of {@code strategy} against itself through a {@link Repository} keeping its
+     * statistics in {@code statsFile}, and saves them.
+     *
+     * @return the results of these games only
+     */
+    static Statistics simulate(int games, MoveStrategy strategy, Path statsFile, long seed) {
+        Repository repository = new Repository(seed, StatsStorage.binary(statsFile));
+        repository.setStrategy(ECharToken.PLAYER, strategy);
+        repository.setStrategy(ECharToken.COMPUTER, strategy);
+        repository.setHuman(ECharToken.PLAYER, false);
+
+        Statistics before = repository.getStats();
+        for (int i = 0; i < games; i++) {
+            repository.resetBoard();
+            repository.playAiMoves();
+        }
+        repository.saveStats();
+
+        Statistics after = repository.getStats();
+        return new Statistics(after.wins - before.wins, after.loses - before.loses, after.ties - before.ties,
+                after.openerWins - before.openerWins, after.responderWins - before.responderWins);
+    }
+
+    /**
+     * @return the time from the start of this process to now, or {@code null} if the platform doesn't tell
+     */
+    static Duration sinceProcessStart() {
+        return ProcessHandle.current().info().startInstant()
+                .map(started -> Duration.between(started, Instant.now()))
+                .orElse(null);
+    }
+
+    /**
+     * @return the peak resident set size from {@code /proc/self/status}, or {@code "n/a"} off Linux
+     */
+    static String peakRss() {
+        try {
+            List<String> status = Files.readAllLines(Path.of("/proc/self/status"));
+            for (String line : status) {
+                if (line.startsWith("VmHWM:")) {
+                    long kib = Long.parseLong(line.substring(6).trim().split("\\s+")[0]);
+                    return String.format("%.1f MiB", kib / 1024.0);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not on Linux
+        }
+        return "n/a";
+    }
+}
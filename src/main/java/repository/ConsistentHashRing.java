@@ -0,0 +1,86 @@
+package repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A consistent-hash ring mapping keys, such as game ids, to node names.
+ * <p>
+ * Each node is placed on the ring at {@code virtualNodes} points hashed from its name, and a key belongs to the
+ * first point at or after its own hash. Adding or removing a node therefore only moves the keys between its points
+ * and their predecessors, about {@code 1 / nodes} of them, and the many points per node keep the shares even.
+ * Hashes are 64-bit FNV-1a of the UTF-8 bytes with a final mix, so every process computes the same ring.
+ * <p>
+ * It is not thread-safe.
+ */
+public final class ConsistentHashRing {
+    private final int virtualNodes;
+    private final TreeMap<Long, String> points = new TreeMap<>();
+    private final Set<String> nodes = new LinkedHashSet<>();
+
+    /**
+     * @param virtualNodes the number of points per node
+     * @throws IllegalArgumentException if {@code virtualNodes} is not positive
+     */
+    public ConsistentHashRing(int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Invalid number of virtual nodes " + virtualNodes);
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * @return {@code false} if the node was already on the ring
+     */
+    public boolean add(String node) {
+        if (!nodes.add(node)) {
+            return false;
+        }
+        for (int i = 0; i < virtualNodes; i++) {
+            // On the rare collision the point stays with the node that took it first
+            points.putIfAbsent(hash(node + "#" + i), node);
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code false} if the node wasn't on the ring
+     */
+    public boolean remove(String node) {
+        if (!nodes.remove(node)) {
+            return false;
+        }
+        for (int i = 0; i < virtualNodes; i++) {
+            points.remove(hash(node + "#" + i), node);
+        }
+        return true;
+    }
+
+    /**
+     * @return the node owning {@code key}
+     * @throws IllegalStateException if the ring is empty
+     */
+    public String nodeFor(String key) {
+        if (points.isEmpty()) {
+            throw new IllegalStateException("No nodes on the ring");
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    /**
+     * @return the nodes on the ring, in the order they were added
+     */
+    public Set<String> nodes() {
+        return Collections.unmodifiableSet(nodes);
+    }
+
+    static long hash(String key) {
+        // FNV alone leaves similar keys close together on the ring
+        return Hashing.mix(Hashing.fnv1a(key.getBytes(StandardCharsets.UTF_8)));
+    }
+}
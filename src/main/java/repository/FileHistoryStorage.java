@@ -0,0 +1,36 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The part of the file-backed {@link StatsStorage}s that keeps the {@link StatsHistory} in a file of its own, in
+ * its {@link StatsHistory#toBytes() binary encoding}.
+ */
+abstract class FileHistoryStorage implements StatsStorage {
+    private final Path historyFile;
+
+    FileHistoryStorage(Path historyFile) {
+        this.historyFile = historyFile;
+    }
+
+    @Override
+    public StatsHistory loadHistory() {
+        try {
+            return StatsHistory.readFrom(historyFile);
+        } catch (IOException | IllegalArgumentException e) {
+            return new StatsHistory();
+        }
+    }
+
+    @Override
+    public void saveHistory(StatsHistory history) throws IOException {
+        history.writeTo(historyFile);
+    }
+
+    @Override
+    public void deleteHistory() throws IOException {
+        Files.deleteIfExists(historyFile);
+    }
+}
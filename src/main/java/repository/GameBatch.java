@@ -0,0 +1,211 @@
+package repository;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays many games of player moves against a {@link MoveStrategy} in one pass, for bulk analysis.
+ * <p>
+ * Each game is a precomputed sequence of player moves, replayed with the same rules as calling
+ * {@link Repository#addPlayerMove(int, int)} in a loop: a move on an occupied cell is skipped, every valid move is
+ * answered by the strategy, and a game stops at the first win or tie. Games whose moves run out first stay
+ * {@link EWinner#NONE NONE}.
+ * <p>
+ * The boards are kept as a struct of arrays, one {@code long} mask per side per game, and the games still running
+ * are compacted to the front every ply, so the move and win-check loops run over dense primitive arrays without
+ * branches on game state.
+ */
+public final class GameBatch {
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3, 3);
+    private static final EWinner[] WINNERS = EWinner.values();
+
+    private GameBatch() {
+    }
+
+    /**
+     * The outcome of a batch.
+     *
+     * @param winners the {@link EWinner} ordinal of every game, in input order
+     * @param moves   the number of tokens on each game's final board
+     * @param counts  the number of games per {@link EWinner} ordinal
+     */
+    public record Result(byte[] winners, byte[] moves, long[] counts) {
+        /**
+         * @return the number of games that ended with {@code winner}
+         */
+        public long count(EWinner winner) {
+            return counts[winner.ordinal()];
+        }
+
+        /**
+         * @return the outcome of game {@code game}
+         */
+        public EWinner winner(int game) {
+            return WINNERS[winners[game]];
+        }
+    }
+
+    /**
+     * Plays every game of the batch.
+     *
+     * @param moves    the player's moves as cell indexes ({@code row * 3 + col}), game after game
+     * @param offsets  where each game starts in {@code moves}, with a final entry marking the end of the last game
+     * @param strategy the computer's strategy
+     * @param random   the random source handed to the strategy
+     * @throws IllegalArgumentException if a cell index or the offsets are out of range, or the offsets decrease
+     */
+    public static Result play(byte[] moves, int[] offsets, MoveStrategy strategy, RandomGenerator random) {
+        int games = offsets.length - 1;
+        if (games < 0 || offsets[0] < 0 || offsets[games] > moves.length) {
+            throw new IllegalArgumentException("Offsets do not describe the moves array");
+        }
+        for (int i = 0; i < games; i++) {
+            if (offsets[i] > offsets[i + 1]) {
+                throw new IllegalArgumentException("Offset " + (i + 1) + " is before the start of game " + i);
+            }
+        }
+
+        // Slot i holds a running game; slots are swapped as games finish so that 0..active - 1 stay dense
+        long[] player = new long[games];
+        long[] computer = new long[games];
+        int[] cursor = new int[games];
+        int[] game = new int[games];
+        boolean[] over = new boolean[games];
+
+        byte[] winners = new byte[games];
+        byte[] plies = new byte[games];
+        long[] counts = new long[WINNERS.length];
+
+        for (int i = 0; i < games; i++) {
+            game[i] = i;
+            cursor[i] = offsets[i];
+        }
+
+        long[] lines = new long[GEOMETRY.lineCount()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = GEOMETRY.line(i);
+        }
+        long full = GEOMETRY.fullMask();
+        BatchView view = new BatchView();
+
+        int active = games;
+        while (active > 0) {
+            // Player moves: take the next move that lands on an empty cell
+            for (int i = 0; i < active; i++) {
+                int end = offsets[game[i] + 1];
+                long occupied = player[i] | computer[i];
+                int at = cursor[i];
+                while (at < end && (occupied & bit(moves[at])) != 0) {
+                    at++;
+                }
+
+                if (at == end) {
+                    // Out of moves, the game stays unfinished
+                    over[i] = true;
+                    cursor[i] = at;
+                } else {
+                    player[i] |= bit(moves[at]);
+                    cursor[i] = at + 1;
+                }
+            }
+            active = finish(player, computer, cursor, game, over, winners, plies, counts, lines, full, active);
+
+            // Computer replies
+            for (int i = 0; i < active; i++) {
+                view.player = player[i];
+                view.computer = computer[i];
+                int cell = strategy.selectMove(view, ECharToken.COMPUTER, random);
+                if (cell < 0 || cell >= 9 || ((player[i] | computer[i]) & 1L << cell) != 0) {
+                    throw new UnsupportedOperationException("Strategy '" + strategy.name()
+                            + "' could not find a valid move, got " + cell);
+                }
+                computer[i] |= 1L << cell;
+            }
+            active = finish(player, computer, cursor, game, over, winners, plies, counts, lines, full, active);
+        }
+
+        return new Result(winners, plies, counts);
+    }
+
+    /**
+     * Scores every running game, records the ones that ended and compacts the rest to the front.
+     *
+     * @return the number of games still running
+     */
+    private static int finish(long[] player, long[] computer, int[] cursor, int[] game, boolean[] over,
+                              byte[] winners, byte[] plies, long[] counts, long[] lines, long full, int active) {
+        int kept = 0;
+
+        for (int i = 0; i < active; i++) {
+            long p = player[i];
+            long c = computer[i];
+
+            boolean playerWon = false;
+            boolean computerWon = false;
+            for (long line : lines) {
+                playerWon |= (p & line) == line;
+                computerWon |= (c & line) == line;
+            }
+
+            EWinner winner = playerWon ? EWinner.PLAYER
+                    : computerWon ? EWinner.COMPUTER
+                    : (p | c) == full ? EWinner.TIE
+                    : EWinner.NONE;
+
+            if (winner != EWinner.NONE || over[i]) {
+                winners[game[i]] = (byte) winner.ordinal();
+                plies[game[i]] = (byte) Long.bitCount(p | c);
+                counts[winner.ordinal()]++;
+                continue;
+            }
+
+            player[kept] = p;
+            computer[kept] = c;
+            cursor[kept] = cursor[i];
+            game[kept] = game[i];
+            over[kept] = false;
+            kept++;
+        }
+
+        return kept;
+    }
+
+    private static long bit(byte cell) {
+        if (cell < 0 || cell >= 9) {
+            throw new IllegalArgumentException("Cell index out of range: " + cell);
+        }
+        return 1L << cell;
+    }
+
+    /**
+     * The {@link BoardView} of the game the strategy is answering, repointed for every game.
+     */
+    private static final class BatchView implements BoardView {
+        private long player;
+        private long computer;
+
+        @Override
+        public int size() {
+            return 3;
+        }
+
+        @Override
+        public ECharToken get(int cell) {
+            long bit = 1L << cell;
+            if ((player & bit) != 0) {
+                return ECharToken.PLAYER;
+            } else if ((computer & bit) != 0) {
+                return ECharToken.COMPUTER;
+            }
+            return ECharToken.EMPTY;
+        }
+
+        @Override
+        public long mask(ECharToken token) {
+            return switch (token) {
+                case PLAYER -> player;
+                case COMPUTER -> computer;
+                case EMPTY -> GEOMETRY.fullMask() & ~(player | computer);
+            };
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package repository;
+
+/**
+ * What a {@link Repository} publishes through its {@link GameEventPublisher}. Events are immutable values, so
+ * subscribers on any thread can keep them without copying.
+ */
+public sealed interface GameEvent {
+    /**
+     * A token was placed, by either side, including plies played again by {@link Repository#redo()}.
+     *
+     * @param cell    the cell, {@code row * 3 + col}
+     * @param side    the side that placed the token
+     * @param version the {@link BoardSnapshot#version() version} of the board after the move
+     */
+    record MoveMade(int cell, ECharToken side, long version) implements GameEvent {
+    }
+
+    /**
+     * The board changed other than by a move: a new game was started, a turn was taken back or a game was
+     * restored. Moves, including the ones {@link Repository#redo()} plays again, come as {@link MoveMade} instead.
+     *
+     * @param board the board after the change
+     */
+    record BoardChanged(BoardSnapshot board) implements GameEvent {
+    }
+
+    /**
+     * A turn ended the game.
+     *
+     * @param winner the result, never {@link EWinner#NONE NONE}
+     */
+    record GameOver(EWinner winner) implements GameEvent {
+    }
+
+    /**
+     * The statistics of the current profile changed: a game was counted or uncounted, they were reset, or another
+     * profile was selected. Only the latest is delivered to a subscriber that is behind.
+     *
+     * @param recent the recent form of the profile at the time
+     */
+    record StatsChanged(int wins, int loses, int ties, int openerWins, int responderWins, RecentForm recent)
+            implements GameEvent {
+        /**
+         * @return the values of {@code stats} and the recent form of {@code history}
+         */
+        public static StatsChanged of(Statistics stats, StatsHistory history) {
+            return new StatsChanged(stats.wins, stats.loses, stats.ties, stats.openerWins, stats.responderWins,
+                    history.recentForm());
+        }
+    }
+}
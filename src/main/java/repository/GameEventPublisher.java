@@ -0,0 +1,217 @@
+package repository;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link Flow.Publisher} of a {@link Repository}'s {@link GameEvent}s, for the UI, persistence, metrics and
+ * anything else that wants to follow the game without polling it.
+ * <p>
+ * Publishing never blocks the game. Each subscription buffers up to its buffer size of events and hands them to
+ * its subscriber on its executor, at most as many as the subscriber {@link Flow.Subscription#request(long)
+ * requested}. {@link GameEvent.StatsChanged} is conflated: a subscriber that is behind only gets the latest, in
+ * the place of the last one published. When a subscriber falls a whole buffer behind, its oldest events are
+ * dropped and counted in {@link #dropped()}.
+ * <p>
+ * With no subscribers, {@link Repository} doesn't even create its events, so the game stays allocation-free.
+ * Events are published from the thread playing the game; subscribing and cancelling are thread-safe.
+ */
+public final class GameEventPublisher implements Flow.Publisher<GameEvent> {
+    private final CopyOnWriteArrayList<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Subscribes with delivery on the common pool and the default buffer of {@link Flow#defaultBufferSize()}.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber) {
+        subscribe(subscriber, ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    /**
+     * @param executor   runs every signal to the subscriber, one at a time, e.g. the UI thread
+     * @param bufferSize the number of events kept for the subscriber before the oldest are dropped
+     * @throws IllegalArgumentException if {@code bufferSize} is not positive
+     */
+    public void subscribe(Flow.Subscriber<? super GameEvent> subscriber, Executor executor, int bufferSize) {
+        Objects.requireNonNull(subscriber);
+        Objects.requireNonNull(executor);
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Invalid buffer size " + bufferSize);
+        }
+
+        EventSubscription subscription = new EventSubscription(subscriber, executor, bufferSize);
+        subscriptions.add(subscription);
+        subscription.signal();
+    }
+
+    /**
+     * @return {@code true} if anyone is listening, so creating an event is worth it
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * @return the number of subscribers
+     */
+    public int subscribers() {
+        return subscriptions.size();
+    }
+
+    /**
+     * @return the number of events dropped because a subscriber was a whole buffer behind
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    void publish(GameEvent event) {
+        for (EventSubscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    private final class EventSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super GameEvent> subscriber;
+        private final Executor executor;
+        private final int bufferSize;
+
+        // Guarded by this
+        private final ArrayDeque<GameEvent> queue = new ArrayDeque<>();
+        // Events ever queued, and ever taken off the queue by delivery or dropping
+        private long tail;
+        private long head;
+        // The conflated stats, due once the events queued before it are gone
+        private GameEvent.StatsChanged stats;
+        private long statsPosition;
+        private long demand;
+        private boolean subscribed;
+        private boolean cancelled;
+        private Throwable error;
+
+        // Number of signals since the last drain started; the drain owning it runs until it is back to 0
+        private final AtomicInteger pending = new AtomicInteger();
+
+        EventSubscription(Flow.Subscriber<? super GameEvent> subscriber, Executor executor, int bufferSize) {
+            this.subscriber = subscriber;
+            this.executor = executor;
+            this.bufferSize = bufferSize;
+        }
+
+        void offer(GameEvent event) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (event instanceof GameEvent.StatsChanged changed) {
+                    stats = changed;
+                    statsPosition = tail;
+                } else {
+                    if (queue.size() == bufferSize) {
+                        queue.poll();
+                        head++;
+                        dropped.incrementAndGet();
+                    }
+                    queue.add(event);
+                    tail++;
+                }
+            }
+            signal();
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (n <= 0) {
+                    error = new IllegalArgumentException("Requested " + n + " events, must be positive");
+                } else {
+                    // Capped at Long.MAX_VALUE, which means unbounded
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                queue.clear();
+                stats = null;
+            }
+            subscriptions.remove(this);
+        }
+
+        void signal() {
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    cancel();
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                try {
+                    deliver();
+                } catch (Throwable t) {
+                    // A subscriber that throws breaks the protocol and is dropped
+                    cancel();
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver() {
+            if (!subscribed) {
+                subscribed = true;
+                subscriber.onSubscribe(this);
+            }
+
+            while (true) {
+                GameEvent next;
+                Throwable failure = null;
+                synchronized (this) {
+                    if (cancelled) {
+                        return;
+                    }
+                    if (error != null) {
+                        failure = error;
+                        next = null;
+                    } else if (demand == 0) {
+                        return;
+                    } else if (stats != null && head >= statsPosition) {
+                        next = stats;
+                        stats = null;
+                    } else if (!queue.isEmpty()) {
+                        next = queue.poll();
+                        head++;
+                    } else {
+                        return;
+                    }
+                    if (next != null && demand != Long.MAX_VALUE) {
+                        demand--;
+                    }
+                }
+
+                if (failure != null) {
+                    cancel();
+                    subscriber.onError(failure);
+                    return;
+                }
+                subscriber.onNext(next);
+            }
+        }
+    }
+}
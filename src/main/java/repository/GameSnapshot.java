@@ -0,0 +1,197 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A game as {@link Repository#snapshotGame()} saw it: who opened, every ply in order, including turns that were
+ * taken back and can still be redone, where each turn ends and how many turns are on the board. The tokens and
+ * the side to move follow from these, since the sides alternate from the opener.
+ * <p>
+ * {@link #toBytes()} packs a snapshot into at most {@value #MAX_ENCODED_SIZE} bytes: a version and the opener,
+ * the ply and turn counts, the turn ends as a 9-bit mask and the cells two to a byte. It is what
+ * {@link Repository#saveGame()} writes on exit, and is meant as the wire format for moving a game between
+ * processes as well. Snapshots are immutable and always describe a game that can be played: decoding rejects
+ * anything else.
+ */
+public final class GameSnapshot {
+    /**
+     * Size of the encoding of a snapshot with all nine cells played.
+     */
+    public static final int MAX_ENCODED_SIZE = 9;
+
+    static final int VERSION = 1;
+    private static final int CELLS = 9;
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3, 3);
+
+    private final ECharToken opener;
+    private final byte[] cells;
+    // Bit i is set when ply i ends a turn
+    private final int turnEnds;
+    private final int turn;
+
+    /**
+     * @throws IllegalArgumentException if the plies don't make a legal game or the turns don't cover them
+     */
+    GameSnapshot(ECharToken opener, byte[] cells, int turnEnds, int turn) {
+        if (opener == ECharToken.EMPTY) {
+            throw new IllegalArgumentException("EMPTY can't open");
+        }
+        if (cells.length > CELLS) {
+            throw new IllegalArgumentException("Too many plies " + cells.length);
+        }
+        if ((turnEnds & ~((1 << cells.length) - 1)) != 0
+                || cells.length > 0 && (turnEnds & 1 << cells.length - 1) == 0) {
+            throw new IllegalArgumentException("Turns don't end within the plies");
+        }
+        if (turn < 0 || turn > Integer.bitCount(turnEnds)) {
+            throw new IllegalArgumentException("Invalid turn " + turn);
+        }
+
+        Position position = new Position(GEOMETRY);
+        position.load(0, 0, opener);
+        for (byte cell : cells) {
+            if (position.winner() != EWinner.NONE) {
+                throw new IllegalArgumentException("Plies after the end of the game");
+            }
+            if (cell < 0 || cell >= CELLS || position.get(cell) != ECharToken.EMPTY) {
+                throw new IllegalArgumentException("Invalid ply " + cell);
+            }
+            position.makeMove(cell, position.sideToMove());
+        }
+
+        this.opener = opener;
+        this.cells = cells.clone();
+        this.turnEnds = turnEnds;
+        this.turn = turn;
+    }
+
+    /**
+     * @return the side that made the first ply
+     */
+    public ECharToken opener() {
+        return opener;
+    }
+
+    /**
+     * @return the number of plies, including those of turns that were taken back
+     */
+    public int plies() {
+        return cells.length;
+    }
+
+    /**
+     * @return the cell ({@code row * 3 + col}) of the {@code ply}-th ply
+     */
+    public int cell(int ply) {
+        return cells[ply];
+    }
+
+    /**
+     * @return the side that made the {@code ply}-th ply
+     */
+    public ECharToken side(int ply) {
+        return (ply % 2 == 0) == (opener == ECharToken.PLAYER) ? ECharToken.PLAYER : ECharToken.COMPUTER;
+    }
+
+    /**
+     * @return the number of turns, including those that were taken back
+     */
+    public int turns() {
+        return Integer.bitCount(turnEnds);
+    }
+
+    /**
+     * @return {@code true} if the {@code ply}-th ply ends its turn
+     */
+    public boolean endsTurn(int ply) {
+        return (turnEnds & 1 << ply) != 0;
+    }
+
+    /**
+     * @return the number of turns on the board; the turns after it were taken back
+     */
+    public int turn() {
+        return turn;
+    }
+
+    /**
+     * @return the number of plies of the turns on the board
+     */
+    public int pliesOnBoard() {
+        int plies = 0;
+        for (int turns = 0; turns < turn; plies++) {
+            if (endsTurn(plies)) {
+                turns++;
+            }
+        }
+        return plies;
+    }
+
+    /**
+     * @return the snapshot in {@value #MAX_ENCODED_SIZE} bytes or fewer, read back by {@link #fromBytes(byte[])}
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[4 + (cells.length + 1) / 2];
+        bytes[0] = (byte) (VERSION << 4 | (opener == ECharToken.COMPUTER ? 1 : 0));
+        bytes[1] = (byte) (cells.length << 4 | turn);
+        bytes[2] = (byte) turnEnds;
+        bytes[3] = (byte) (turnEnds >>> 8);
+        for (int ply = 0; ply < cells.length; ply++) {
+            bytes[4 + ply / 2] |= (byte) (cells[ply] << (ply % 2) * 4);
+        }
+        return bytes;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code bytes} don't hold a snapshot of a legal game
+     */
+    public static GameSnapshot fromBytes(byte[] bytes) {
+        if (bytes.length < 4 || (bytes[0] & 0xF0) != VERSION << 4 || (bytes[0] & 0x0E) != 0) {
+            throw new IllegalArgumentException("Not a version " + VERSION + " game snapshot");
+        }
+
+        int plies = (bytes[1] & 0xF0) >>> 4;
+        if (bytes.length != 4 + (plies + 1) / 2) {
+            throw new IllegalArgumentException("Game snapshot of " + plies + " plies has " + bytes.length + " bytes");
+        }
+
+        byte[] cells = new byte[plies];
+        for (int ply = 0; ply < plies; ply++) {
+            cells[ply] = (byte) (bytes[4 + ply / 2] >>> (ply % 2) * 4 & 0x0F);
+        }
+        int turnEnds = (bytes[2] & 0xFF) | (bytes[3] & 0xFF) << 8;
+        ECharToken opener = (bytes[0] & 1) != 0 ? ECharToken.COMPUTER : ECharToken.PLAYER;
+        return new GameSnapshot(opener, cells, turnEnds, bytes[1] & 0x0F);
+    }
+
+    /**
+     * Replaces {@code file} with the encoded snapshot {@link AtomicFiles#write(Path, byte[]) atomically}.
+     *
+     * @throws IOException if the file can't be written
+     */
+    public void writeTo(Path file) throws IOException {
+        AtomicFiles.write(file, toBytes());
+    }
+
+    /**
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if it doesn't hold a snapshot
+     */
+    public static GameSnapshot readFrom(Path file) throws IOException {
+        return fromBytes(Files.readAllBytes(file));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GameSnapshot other && opener == other.opener && turnEnds == other.turnEnds
+                && turn == other.turn && Arrays.equals(cells, other.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * opener.hashCode() + Arrays.hashCode(cells)) + turnEnds) + turn;
+    }
+}
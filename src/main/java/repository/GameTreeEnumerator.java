@@ -0,0 +1,219 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Walks the whole game tree of a {@link BoardGeometry geometry} from the empty board, as ground truth for the
+ * engine's rules and as a benchmark of its move primitives.
+ * <p>
+ * The rules are {@link Repository}'s: the {@link ECharToken#PLAYER player} moves first, sides alternate and a game
+ * ends at the first completed line or a full board. Every path through the tree is visited with
+ * {@link Position#makeMove(int, ECharToken)} and {@link Position#unmakeMove(int)}, counting the finished games by
+ * outcome, and the distinct positions are collected in an off-heap {@link PositionStore}. On 3x3 this finds the
+ * well known 549,946 nodes, 255,168 games and 5,478 positions.
+ * <p>
+ * In parallel mode the tree is cut {@value #SPLIT_PLIES} plies below the root and every subtree is walked by its
+ * own fork-join task, with its own position and store, merged at the end.
+ * <p>
+ * Run {@code main} with {@code size winLength [depth] [threads]} to print the counts and nodes per second.
+ */
+public final class GameTreeEnumerator {
+    // Depth at which the parallel walk hands subtrees to tasks, 72 of them on 3x3
+    private static final int SPLIT_PLIES = 2;
+
+    private GameTreeEnumerator() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: GameTreeEnumerator <size> <winLength> [depth] [threads]");
+            System.exit(1);
+        }
+
+        BoardGeometry geometry = BoardGeometry.of(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : geometry.cells();
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        Result result = enumerate(geometry, depth, threads);
+        System.out.printf("Nodes: %d%nGames: %d (player %d, computer %d, tie %d, unfinished %d)%nPositions: %d%n",
+                result.nodes(), result.games(), result.games(EWinner.PLAYER), result.games(EWinner.COMPUTER),
+                result.games(EWinner.TIE), result.games(EWinner.NONE), result.positions());
+        System.out.printf("%.1f ms on %d thread(s), %.0f nodes/s%n",
+                result.nanos() / 1e6, Math.max(1, threads), result.nodesPerSecond());
+    }
+
+    /**
+     * The counts of a walk.
+     *
+     * @param nodes     the number of positions visited along every path, the root included
+     * @param outcomes  the number of leaves per {@link EWinner} ordinal; leaves cut off by the depth limit count as
+     *                  {@link EWinner#NONE NONE}
+     * @param positions the number of distinct positions visited
+     * @param nanos     the wall-clock time of the walk
+     */
+    public record Result(long nodes, long[] outcomes, long positions, long nanos) {
+        /**
+         * @return the number of leaves that ended with {@code winner}
+         */
+        public long games(EWinner winner) {
+            return outcomes[winner.ordinal()];
+        }
+
+        /**
+         * @return the number of finished games, leaves cut off by the depth limit excluded
+         */
+        public long games() {
+            return games(EWinner.PLAYER) + games(EWinner.COMPUTER) + games(EWinner.TIE);
+        }
+
+        public double nodesPerSecond() {
+            return nodes * 1e9 / Math.max(1, nanos);
+        }
+    }
+
+    /**
+     * Walks the full tree of {@code geometry} on the calling thread.
+     */
+    public static Result enumerate(BoardGeometry geometry) {
+        return enumerate(geometry, geometry.cells(), 1);
+    }
+
+    /**
+     * Walks the tree of {@code geometry} down to {@code depth} plies.
+     *
+     * @param threads 1 to walk on the calling thread, more to walk the subtrees on a fork-join pool
+     * @throws IllegalArgumentException if the board has more cells than {@link PositionStore#encode(long, long)}
+     *                                  supports
+     */
+    public static Result enumerate(BoardGeometry geometry, int depth, int threads) {
+        // Fails before walking if the positions can't be keyed
+        PositionStore.encode(geometry.fullMask(), 0);
+
+        long start = System.nanoTime();
+        Walk root = new Walk(geometry);
+        try {
+            if (threads <= 1 || depth <= SPLIT_PLIES) {
+                root.walk(depth);
+            } else {
+                List<Walk> tasks = new ArrayList<>();
+                root.split(depth, SPLIT_PLIES, tasks);
+                walkParallel(tasks, depth - SPLIT_PLIES, threads);
+
+                for (Walk task : tasks) {
+                    root.merge(task);
+                }
+            }
+
+            return new Result(root.nodes, root.outcomes, root.seen.size(), System.nanoTime() - start);
+        } finally {
+            root.seen.close();
+        }
+    }
+
+    private static void walkParallel(List<Walk> tasks, int depth, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks.stream().map(walk -> new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            walk.walk(depth);
+                        }
+                    }).toList());
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The state of one walk: a position played in place and the counts of everything below it.
+     */
+    private static final class Walk {
+        private final Position position;
+        private final PositionStore seen = new PositionStore(1 << 12);
+        private final long[] outcomes = new long[EWinner.values().length];
+        private long nodes;
+
+        Walk(BoardGeometry geometry) {
+            this.position = new Position(geometry);
+        }
+
+        /**
+         * Counts the current position and everything up to {@code depth} plies below it.
+         */
+        void walk(int depth) {
+            if (visitLeaf(depth)) {
+                return;
+            }
+
+            ECharToken side = position.sideToMove();
+            for (long empty = position.mask(ECharToken.EMPTY); empty != 0; empty &= empty - 1) {
+                int cell = Long.numberOfTrailingZeros(empty);
+                position.makeMove(cell, side);
+                walk(depth - 1);
+                position.unmakeMove(cell);
+            }
+        }
+
+        /**
+         * Counts the positions above {@code split} plies like {@link #walk(int)}, but hands every position at
+         * {@code split} plies to a new walk added to {@code tasks} instead of visiting it.
+         */
+        void split(int depth, int split, List<Walk> tasks) {
+            if (split == 0) {
+                Walk task = new Walk(position.geometry());
+                task.position.load(position.mask(ECharToken.PLAYER), position.mask(ECharToken.COMPUTER),
+                        position.sideToMove());
+                tasks.add(task);
+                return;
+            }
+            if (visitLeaf(depth)) {
+                return;
+            }
+
+            ECharToken side = position.sideToMove();
+            for (long empty = position.mask(ECharToken.EMPTY); empty != 0; empty &= empty - 1) {
+                int cell = Long.numberOfTrailingZeros(empty);
+                position.makeMove(cell, side);
+                split(depth - 1, split - 1, tasks);
+                position.unmakeMove(cell);
+            }
+        }
+
+        /**
+         * Adds the counts of {@code other} to this walk and frees its store.
+         */
+        void merge(Walk other) {
+            nodes += other.nodes;
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] += other.outcomes[i];
+            }
+            seen.putAll(other.seen);
+            other.seen.close();
+        }
+
+        /**
+         * Counts the current position.
+         *
+         * @return {@code true} if it is a leaf, a finished game or {@code depth} plies below where the walk began
+         */
+        private boolean visitLeaf(int depth) {
+            nodes++;
+            seen.put(PositionStore.encode(position.mask(ECharToken.PLAYER), position.mask(ECharToken.COMPUTER)), 0);
+
+            EWinner winner = position.winner();
+            if (winner != EWinner.NONE || depth == 0) {
+                outcomes[winner.ordinal()]++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package repository;
+
+/**
+ * The stable 64-bit hashes shared by the on-disk and cross-process structures, which must hash the same in every
+ * process and every release, unlike {@link Object#hashCode()}.
+ */
+final class Hashing {
+    private Hashing() {
+    }
+
+    /**
+     * @return the 64-bit FNV-1a hash of {@code bytes}
+     */
+    static long fnv1a(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Spreads the bits of {@code hash}, the finalizer of MurmurHash3, for hashes that are masked or ordered.
+     */
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,161 @@
+package repository;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The computer opponent, extracted from {@link Repository}.
+ * <p>
+ * The strategy plays by the classic rules, in order of priority:<br>
+ * - If a move can win the game, make that move.<br>
+ * - If a move can block the opponent from winning, make that move.<br>
+ * - If a move creates two threats at once (a fork), make that move.<br>
+ * - If the opponent could fork, block it, preferably with a move that forces them to defend.<br>
+ * - Take the center, then the corner opposite the opponent, then any corner, then any side.<br>
+ * <p>
+ * Following them it never loses. Every rule is evaluated with bitwise operations on the 8 line masks, so a
+ * decision takes nanoseconds. It only knows these rules for the 3x3 board; on any other geometry it takes a win,
+ * else blocks one with {@link BoardGeometry#threat(long, long)}, else plays randomly.
+ */
+public final class HeuristicStrategy implements MoveStrategy {
+    public static final String NAME = "heuristic";
+
+    private static final long CENTER = 1L << 4;
+    private static final long CORNERS = 0b101_000_101;
+    private static final long SIDES = 0b010_101_010;
+
+    // The generated line table of the 3x3 board
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3, 3);
+    private static final long[] LINES = GEOMETRY.lines();
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int selectMove(BoardView board, ECharToken side, RandomGenerator random) {
+        long empty = board.emptyMask();
+        ECharToken opponent = side == ECharToken.PLAYER ? ECharToken.COMPUTER : ECharToken.PLAYER;
+        long own = board.mask(side);
+        long theirs = board.mask(opponent);
+
+        if (empty == 0) {
+            return -1;
+        }
+        if (board.size() != 3 || board.winLength() != 3) {
+            return anyGeometryMove(BoardGeometry.of(board), own, theirs, empty, random);
+        }
+
+        // Find an offensive move
+        long moves = threats(own, theirs);
+        if (moves != 0) {
+            return RandomStrategy.randomSetBit(moves, random);
+        }
+
+        // Find a defensive move
+        moves = threats(theirs, own);
+        if (moves != 0) {
+            return RandomStrategy.randomSetBit(moves, random);
+        }
+
+        moves = forks(own, theirs);
+        if (moves != 0) {
+            return RandomStrategy.randomSetBit(moves, random);
+        }
+
+        moves = forks(theirs, own);
+        if (moves != 0) {
+            return blockFork(own, theirs, moves, random);
+        }
+
+        if ((empty & CENTER) != 0) {
+            return Long.numberOfTrailingZeros(CENTER);
+        }
+
+        // Mirroring a corner through the center: bit i maps to bit 8 - i
+        moves = Long.reverse(theirs & CORNERS) >>> (Long.SIZE - 9) & empty;
+        if (moves != 0) {
+            return RandomStrategy.randomSetBit(moves, random);
+        }
+
+        moves = empty & CORNERS;
+        if (moves != 0) {
+            return RandomStrategy.randomSetBit(moves, random);
+        }
+
+        return RandomStrategy.randomSetBit(empty & SIDES, random);
+    }
+
+    /**
+     * Wins, else blocks the opponent's win, else moves randomly.
+     */
+    private static int anyGeometryMove(BoardGeometry geometry, long own, long theirs, long empty,
+                                       RandomGenerator random) {
+        int cell = geometry.threat(own, theirs);
+        if (cell < 0) {
+            cell = geometry.threat(theirs, own);
+        }
+        return cell >= 0 ? cell : RandomStrategy.randomSetBit(empty, random);
+    }
+
+    /**
+     * @return a mask of the empty cells that complete a line of {@code own} tokens
+     */
+    static long threats(long own, long theirs) {
+        return GEOMETRY.threats(own, theirs);
+    }
+
+    /**
+     * A fork cell is an empty cell where two lines, each holding one of {@code own} tokens and nothing else,
+     * intersect. Playing it creates two threats at once.
+     *
+     * @return a mask of the cells where {@code own} can fork
+     */
+    static long forks(long own, long theirs) {
+        long once = 0;
+        long twice = 0;
+
+        for (long line : LINES) {
+            if ((line & theirs) == 0 && Long.bitCount(line & own) == 1) {
+                long open = line & ~own;
+                twice |= once & open;
+                once |= open;
+            }
+        }
+
+        return twice;
+    }
+
+    /**
+     * Picks a move that keeps the opponent from forking.
+     * <p>
+     * Best is a move that creates a threat the opponent has to answer somewhere that does not give them two
+     * threats. Failing that, any move that leaves them no fork, and as a last resort one of their fork cells.
+     */
+    private static int blockFork(long own, long theirs, long opponentForks, RandomGenerator random) {
+        long empty = ~(own | theirs) & (CORNERS | SIDES | CENTER);
+        long forcing = 0;
+        long blocking = 0;
+
+        for (long remaining = empty; remaining != 0; remaining &= remaining - 1) {
+            long move = Long.lowestOneBit(remaining);
+            long after = own | move;
+
+            long reply = threats(after, theirs);
+            if (reply != 0 && Long.bitCount(threats(theirs | reply, after)) < 2) {
+                forcing |= move;
+            }
+            if (forks(theirs, after) == 0) {
+                blocking |= move;
+            }
+        }
+
+        if (forcing != 0) {
+            return RandomStrategy.randomSetBit(forcing, random);
+        }
+        if (blocking != 0) {
+            return RandomStrategy.randomSetBit(blocking, random);
+        }
+        return RandomStrategy.randomSetBit(opponentForks, random);
+    }
+}
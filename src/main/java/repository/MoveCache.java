@@ -0,0 +1,484 @@
+package repository;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * A bounded cache of computed moves keyed by board hash, for strategies too slow to run on every turn and boards too
+ * large for a full {@link TranspositionTable}.
+ * <p>
+ * The cache is split into stripes, each guarded by its own lock and holding an equal share of the capacity in
+ * primitive arrays: an open-addressing index from key to slot, the key and move of every slot and an intrusive
+ * recency list. Lookups and inserts allocate nothing. When a stripe is full, the {@link Policy} picks the entry to
+ * drop:
+ * <ul>
+ *     <li>{@link Policy#LRU LRU} evicts the least recently used entry,</li>
+ *     <li>{@link Policy#LFU LFU} evicts the least frequently used of {@value #LFU_SAMPLES} sampled entries,</li>
+ *     <li>{@link Policy#TINY_LFU TINY_LFU} evicts like LRU, but only admits a new key whose recent frequency,
+ *     estimated by a count-min sketch of every lookup, beats the frequency of the entry it would evict, so one-off
+ *     positions don't flush the popular ones.</li>
+ * </ul>
+ * Frequencies are halved periodically, so entries that stop being used age out.
+ * <p>
+ * Hits, misses, evictions and rejected admissions are counted per stripe and summed on demand.
+ */
+public final class MoveCache {
+    /**
+     * How a full cache makes room for a new entry.
+     */
+    public enum Policy {
+        LRU, LFU, TINY_LFU
+    }
+
+    /**
+     * Returned by {@link #get(long)} when the key is not cached.
+     */
+    public static final int MISS = -1;
+
+    private static final int LFU_SAMPLES = 8;
+
+    private final Policy policy;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    /**
+     * @param capacity the number of moves to keep, spread over four stripes per core
+     * @param policy   how to make room once the cache is full
+     */
+    public MoveCache(int capacity, Policy policy) {
+        this(capacity, policy, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param capacity the number of moves to keep
+     * @param policy   how to make room once the cache is full
+     * @param stripes  the number of independently locked stripes, rounded down to a power of two and to at most
+     *                 {@code capacity}; the policy applies within each stripe
+     */
+    public MoveCache(int capacity, Policy policy, int stripes) {
+        if (capacity < 1 || stripes < 1) {
+            throw new IllegalArgumentException("capacity and stripes must be at least 1");
+        }
+
+        int stripeCount = Integer.highestOneBit(Math.min(capacity, stripes));
+        int stripeCapacity = (capacity + stripeCount - 1) / stripeCount;
+
+        this.policy = policy;
+        this.stripes = new Stripe[stripeCount];
+        this.stripeMask = stripeCount - 1;
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(stripeCapacity, policy);
+        }
+    }
+
+    /**
+     * Looks up the move cached for the position on {@code board} with {@code side} to move, or asks
+     * {@code strategy} and caches its answer. Only worth it for strategies whose move depends on the board alone:
+     * a cached move skips the random draws the strategy would have made.
+     *
+     * @return the move, as {@link MoveStrategy#selectMove(BoardView, ECharToken, RandomGenerator)} defines it
+     */
+    public int selectMove(MoveStrategy strategy, BoardView board, ECharToken side, RandomGenerator random) {
+        long key = key(strategy, board, side);
+
+        int move = get(key);
+        // A hash collision could name a taken cell, which is simply recomputed
+        if (move != MISS && move < board.size() * board.size() && board.get(move) == ECharToken.EMPTY) {
+            return move;
+        }
+
+        move = strategy.selectMove(board, side, random);
+        if (move >= 0) {
+            put(key, move);
+        }
+        return move;
+    }
+
+    /**
+     * @return the key {@link #selectMove} caches the move of {@code strategy} for the position under: the
+     * position's Zobrist hash mixed with the strategy's name and the board's geometry
+     */
+    public static long key(MoveStrategy strategy, BoardView board, ECharToken side) {
+        return Position.hash(board.mask(ECharToken.PLAYER), board.mask(ECharToken.COMPUTER), side)
+                ^ strategy.name().hashCode() * 0x9E3779B97F4A7C15L
+                ^ ((long) board.size() << 56 | (long) board.winLength() << 48);
+    }
+
+    /**
+     * @return the move cached under {@code key}, or {@link #MISS}
+     */
+    public int get(long key) {
+        long mixed = mix(key);
+        return stripe(mixed).get(key, mixed);
+    }
+
+    /**
+     * Caches {@code move} under {@code key}, unless the {@link Policy#TINY_LFU TINY_LFU} policy rejects it.
+     *
+     * @throws IllegalArgumentException if {@code move} is negative
+     */
+    public void put(long key, int move) {
+        if (move < 0) {
+            throw new IllegalArgumentException("Only moves can be cached, got " + move);
+        }
+
+        long mixed = mix(key);
+        stripe(mixed).put(key, mixed, move);
+    }
+
+    /**
+     * Drops every entry and resets the counters.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    public Policy policy() {
+        return policy;
+    }
+
+    /**
+     * @return the number of moves the cache can hold, the requested capacity rounded up to a multiple of the
+     * stripe count
+     */
+    public int capacity() {
+        return stripes.length * stripes[0].keys.length;
+    }
+
+    /**
+     * @return the number of cached moves
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    public long hits() {
+        long hits = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                hits += stripe.hits;
+            }
+        }
+        return hits;
+    }
+
+    public long misses() {
+        long misses = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                misses += stripe.misses;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * @return the number of entries dropped to make room for new ones
+     */
+    public long evictions() {
+        long evictions = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                evictions += stripe.evictions;
+            }
+        }
+        return evictions;
+    }
+
+    /**
+     * @return the number of new entries the {@link Policy#TINY_LFU TINY_LFU} admission turned away
+     */
+    public long rejections() {
+        long rejections = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                rejections += stripe.rejections;
+            }
+        }
+        return rejections;
+    }
+
+    /**
+     * @return the share of lookups that were hits, 0 before the first lookup
+     */
+    public double hitRate() {
+        long hits = hits();
+        long lookups = hits + misses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    private Stripe stripe(long mixed) {
+        return stripes[(int) (mixed >>> 40) & stripeMask];
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * One lock's share of the cache.
+     */
+    private static final class Stripe {
+        private final Policy policy;
+        private final long[] keys;
+        private final int[] moves;
+        // Recency list, most recent at head, -1 terminated
+        private final int[] prev;
+        private final int[] next;
+        // Use counts for LFU
+        private final int[] uses;
+        // Slot + 1 per index entry, 0 for empty, linear probing
+        private final int[] index;
+        private final int indexMask;
+        private final FrequencySketch sketch;
+
+        private int head = -1;
+        private int tail = -1;
+        private int size;
+        private int accesses;
+        private long sample = 0x2545F4914F6CDD1DL;
+
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long rejections;
+
+        Stripe(int capacity, Policy policy) {
+            this.policy = policy;
+            this.keys = new long[capacity];
+            this.moves = new int[capacity];
+            this.prev = new int[capacity];
+            this.next = new int[capacity];
+            this.uses = new int[capacity];
+            this.index = new int[Integer.highestOneBit(capacity) << 2];
+            this.indexMask = index.length - 1;
+            this.sketch = policy == Policy.TINY_LFU ? new FrequencySketch(capacity) : null;
+        }
+
+        synchronized int get(long key, long mixed) {
+            if (sketch != null) {
+                sketch.increment(mixed);
+            }
+
+            int slot = find(key, mixed);
+            if (slot < 0) {
+                misses++;
+                return MISS;
+            }
+
+            hits++;
+            touch(slot);
+            return moves[slot];
+        }
+
+        synchronized void put(long key, long mixed, int move) {
+            int slot = find(key, mixed);
+            if (slot >= 0) {
+                moves[slot] = move;
+                touch(slot);
+                return;
+            }
+
+            if (size < keys.length) {
+                slot = size++;
+            } else {
+                slot = policy == Policy.LFU ? sampleLeastUsed() : tail;
+                if (sketch != null && sketch.frequency(mixed) <= sketch.frequency(mix(keys[slot]))) {
+                    rejections++;
+                    return;
+                }
+
+                evictions++;
+                removeIndex(slot);
+                unlink(slot);
+            }
+
+            keys[slot] = key;
+            moves[slot] = move;
+            uses[slot] = 1;
+            insertIndex(slot, mixed);
+            linkHead(slot);
+        }
+
+        synchronized void clear() {
+            Arrays.fill(index, 0);
+            if (sketch != null) {
+                sketch.clear();
+            }
+            head = -1;
+            tail = -1;
+            size = 0;
+            accesses = 0;
+            hits = 0;
+            misses = 0;
+            evictions = 0;
+            rejections = 0;
+        }
+
+        private void touch(int slot) {
+            if (policy == Policy.LFU) {
+                uses[slot]++;
+                // Halves every count once the stripe saw ten accesses per entry, so stale favourites age out
+                if (++accesses >= 10 * keys.length) {
+                    for (int i = 0; i < size; i++) {
+                        uses[i] >>>= 1;
+                    }
+                    accesses = 0;
+                }
+            } else if (slot != head) {
+                unlink(slot);
+                linkHead(slot);
+            }
+        }
+
+        private int sampleLeastUsed() {
+            int victim = 0;
+            int fewest = Integer.MAX_VALUE;
+            for (int i = 0; i < LFU_SAMPLES; i++) {
+                // xorshift64
+                sample ^= sample << 13;
+                sample ^= sample >>> 7;
+                sample ^= sample << 17;
+
+                int slot = (int) ((sample >>> 1) % size);
+                if (uses[slot] < fewest) {
+                    victim = slot;
+                    fewest = uses[slot];
+                }
+            }
+            return victim;
+        }
+
+        private int find(long key, long mixed) {
+            for (int i = (int) mixed & indexMask; index[i] != 0; i = (i + 1) & indexMask) {
+                if (keys[index[i] - 1] == key) {
+                    return index[i] - 1;
+                }
+            }
+            return -1;
+        }
+
+        private void insertIndex(int slot, long mixed) {
+            int i = (int) mixed & indexMask;
+            while (index[i] != 0) {
+                i = (i + 1) & indexMask;
+            }
+            index[i] = slot + 1;
+        }
+
+        /**
+         * Removes the slot from the index, shifting later entries of its probe run back into the gap.
+         */
+        private void removeIndex(int slot) {
+            int i = (int) mix(keys[slot]) & indexMask;
+            while (index[i] != slot + 1) {
+                i = (i + 1) & indexMask;
+            }
+
+            for (int j = (i + 1) & indexMask; index[j] != 0; j = (j + 1) & indexMask) {
+                int home = (int) mix(keys[index[j] - 1]) & indexMask;
+                // Moves the entry at j into the gap at i unless its home lies cyclically in (i, j]
+                boolean movable = i <= j ? home <= i || home > j : home <= i && home > j;
+                if (movable) {
+                    index[i] = index[j];
+                    i = j;
+                }
+            }
+            index[i] = 0;
+        }
+
+        private void linkHead(int slot) {
+            prev[slot] = -1;
+            next[slot] = head;
+            if (head >= 0) {
+                prev[head] = slot;
+            }
+            head = slot;
+            if (tail < 0) {
+                tail = slot;
+            }
+        }
+
+        private void unlink(int slot) {
+            if (prev[slot] >= 0) {
+                next[prev[slot]] = next[slot];
+            } else {
+                head = next[slot];
+            }
+            if (next[slot] >= 0) {
+                prev[next[slot]] = prev[slot];
+            } else {
+                tail = prev[slot];
+            }
+        }
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters estimating how often keys were looked up recently.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        private static final int MAX_COUNT = 15;
+
+        private final byte[] counters;
+        private final int widthMask;
+        private final int resetAfter;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int width = Math.max(64, Integer.highestOneBit(capacity) << 1);
+            this.counters = new byte[SEEDS.length * width];
+            this.widthMask = width - 1;
+            this.resetAfter = 10 * capacity;
+        }
+
+        void increment(long mixed) {
+            for (int row = 0; row < SEEDS.length; row++) {
+                int i = counter(row, mixed);
+                if (counters[i] < MAX_COUNT) {
+                    counters[i]++;
+                }
+            }
+
+            if (++additions >= resetAfter) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>>= 1;
+                }
+                additions >>>= 1;
+            }
+        }
+
+        int frequency(long mixed) {
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < SEEDS.length; row++) {
+                frequency = Math.min(frequency, counters[counter(row, mixed)]);
+            }
+            return frequency;
+        }
+
+        void clear() {
+            Arrays.fill(counters, (byte) 0);
+            additions = 0;
+        }
+
+        private int counter(int row, long mixed) {
+            long hash = (mixed + SEEDS[row]) * SEEDS[row];
+            return row * (widthMask + 1) + ((int) (hash >>> 32) & widthMask);
+        }
+    }
+}
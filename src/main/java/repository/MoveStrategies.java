@@ -0,0 +1,70 @@
+package repository;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * Registry of the {@link MoveStrategy strategies} available at runtime.
+ * <p>
+ * Strategies are discovered once through {@link ServiceLoader}, so any jar on the class path with a
+ * {@code META-INF/services/repository.MoveStrategy} entry can add a new engine.
+ */
+public final class MoveStrategies {
+    /**
+     * Name of the strategy used when none was selected.
+     */
+    public static final String DEFAULT = HeuristicStrategy.NAME;
+
+    private MoveStrategies() {
+    }
+
+    /**
+     * @return the names of every discovered strategy, in discovery order
+     */
+    public static Set<String> names() {
+        return Holder.STRATEGIES.keySet();
+    }
+
+    /**
+     * @return the strategy registered under {@code name}
+     * @throws IllegalArgumentException if no strategy with that name was discovered
+     */
+    public static MoveStrategy get(String name) {
+        MoveStrategy strategy = Holder.STRATEGIES.get(name);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unknown move strategy '" + name + "', available: " + names());
+        }
+        return strategy;
+    }
+
+    /**
+     * @return the {@link #DEFAULT default} strategy
+     */
+    public static MoveStrategy defaultStrategy() {
+        return get(DEFAULT);
+    }
+
+    /**
+     * Lazily loads the strategies the first time the registry is used.
+     */
+    private static final class Holder {
+        private static final Map<String, MoveStrategy> STRATEGIES = load();
+
+        private static Map<String, MoveStrategy> load() {
+            Map<String, MoveStrategy> out = new LinkedHashMap<>();
+
+            for (MoveStrategy strategy : ServiceLoader.load(MoveStrategy.class)) {
+                MoveStrategy previous = out.putIfAbsent(strategy.name(), strategy);
+                if (previous != null) {
+                    System.err.println("Ignoring duplicate move strategy '" + strategy.name() + "' from "
+                            + strategy.getClass().getName());
+                }
+            }
+
+            return Collections.unmodifiableMap(out);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package repository;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Service provider interface for the computer's move selection.
+ * <p>
+ * Implementations are discovered through {@link java.util.ServiceLoader} (see {@link MoveStrategies}) and a single
+ * instance is shared by every game, so they must be stateless and thread-safe. {@link #selectMove} is on the hot
+ * path of both the UI and bulk simulations and must not allocate.
+ */
+public interface MoveStrategy {
+    /**
+     * @return the unique name the strategy is selected by, e.g. {@code "heuristic"}
+     */
+    String name();
+
+    /**
+     * Picks the next move for {@code side}.
+     *
+     * @param board  the current board, which must not be modified while the strategy runs
+     * @param side   the {@link ECharToken token} the strategy is playing
+     * @param random the game's random source; strategies must draw all randomness from it so that a game can be
+     *               replayed from its seed
+     * @return the index ({@code row * size + col}) of an empty cell, or {@code -1} if the board is full
+     */
+    int selectMove(BoardView board, ECharToken side, RandomGenerator random);
+}
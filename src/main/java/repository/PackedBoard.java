@@ -0,0 +1,50 @@
+package repository;
+
+/**
+ * An immutable {@link BoardView} backed by one bitmask per side.
+ *
+ * @param size         the number of rows (and columns) of the board
+ * @param playerMask   cells holding the {@link ECharToken#PLAYER player} token
+ * @param computerMask cells holding the {@link ECharToken#COMPUTER computer} token
+ */
+public record PackedBoard(int size, long playerMask, long computerMask) implements BoardView {
+    public PackedBoard {
+        if (size < 1 || size * size > Long.SIZE) {
+            throw new IllegalArgumentException("Unsupported board size " + size);
+        }
+        if ((playerMask & computerMask) != 0) {
+            throw new IllegalArgumentException("A cell cannot hold both tokens");
+        }
+        if (((playerMask | computerMask) & ~fullMask(size)) != 0) {
+            throw new IllegalArgumentException("Mask has bits outside of a " + size + "x" + size + " board");
+        }
+    }
+
+    @Override
+    public ECharToken get(int cell) {
+        long bit = 1L << cell;
+        if ((playerMask & bit) != 0) {
+            return ECharToken.PLAYER;
+        } else if ((computerMask & bit) != 0) {
+            return ECharToken.COMPUTER;
+        }
+        return ECharToken.EMPTY;
+    }
+
+    @Override
+    public long mask(ECharToken token) {
+        return switch (token) {
+            case PLAYER -> playerMask;
+            case COMPUTER -> computerMask;
+            case EMPTY -> fullMask(size) & ~(playerMask | computerMask);
+        };
+    }
+
+    /**
+     * @return a mask with one bit set for every cell of a {@code size x size} board
+     */
+    static long fullMask(int size) {
+        int cells = size * size;
+        return cells == Long.SIZE ? -1L : (1L << cells) - 1;
+    }
+}
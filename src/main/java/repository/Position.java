@@ -0,0 +1,279 @@
+package repository;
+
+import java.util.SplittableRandom;
+
+/**
+ * A mutable board of any {@link BoardGeometry geometry} that plays and takes back moves in place, for searches
+ * and other code walking the game tree without copying boards.
+ * <p>
+ * Next to one bitmask per side, a position keeps its Zobrist hash, the number of tokens each side has on every
+ * winning line and the number of lines each side has completed. {@link #makeMove(int, ECharToken)} and
+ * {@link #unmakeMove(int)} only touch the lines through the played cell, so both run in constant time for a given
+ * geometry, and so do {@link #hash()}, {@link #winner()} and {@link #lineTokens(int, ECharToken)}.
+ * <p>
+ * A position is a {@link BoardView}, so it can be handed straight to a {@link MoveStrategy}. It is not
+ * thread-safe; searches keep one per thread.
+ */
+public final class Position implements BoardView {
+    // Zobrist keys for each token on each cell, plus one for the computer being the side to move
+    private static final long[] PLAYER_KEYS = new long[Long.SIZE];
+    private static final long[] COMPUTER_KEYS = new long[Long.SIZE];
+    private static final long COMPUTER_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x7AC7AC7AC7AC7L);
+        for (int cell = 0; cell < Long.SIZE; cell++) {
+            PLAYER_KEYS[cell] = random.nextLong();
+            COMPUTER_KEYS[cell] = random.nextLong();
+        }
+        COMPUTER_TO_MOVE = random.nextLong();
+    }
+
+    private final BoardGeometry geometry;
+    private final byte[] playerLines;
+    private final byte[] computerLines;
+
+    private long player;
+    private long computer;
+    private long hash;
+    private ECharToken toMove = ECharToken.PLAYER;
+    private int playerWins;
+    private int computerWins;
+
+    /**
+     * Creates an empty position with the {@link ECharToken#PLAYER player} to move.
+     */
+    public Position(BoardGeometry geometry) {
+        this.geometry = geometry;
+        this.playerLines = new byte[geometry.lineCount()];
+        this.computerLines = new byte[geometry.lineCount()];
+    }
+
+    /**
+     * @return a new position holding the tokens of {@code board}, with {@code toMove} to move
+     */
+    public static Position of(BoardView board, ECharToken toMove) {
+        Position position = new Position(BoardGeometry.of(board));
+        position.load(board.mask(ECharToken.PLAYER), board.mask(ECharToken.COMPUTER), toMove);
+        return position;
+    }
+
+    /**
+     * @return the Zobrist hash of the position given by the two masks, the same value {@link #hash()} returns
+     * after loading it
+     */
+    public static long hash(long player, long computer, ECharToken toMove) {
+        long key = toMove == ECharToken.COMPUTER ? COMPUTER_TO_MOVE : 0;
+        for (long bits = player; bits != 0; bits &= bits - 1) {
+            key ^= PLAYER_KEYS[Long.numberOfTrailingZeros(bits)];
+        }
+        for (long bits = computer; bits != 0; bits &= bits - 1) {
+            key ^= COMPUTER_KEYS[Long.numberOfTrailingZeros(bits)];
+        }
+        return key;
+    }
+
+    /**
+     * Replaces the whole position, recounting every line. Unlike a move this takes time proportional to the
+     * board, but it allocates nothing, so one position can be reused for many searches.
+     *
+     * @throws IllegalArgumentException if the masks overlap, leave the board, or {@code toMove} is
+     *                                  {@link ECharToken#EMPTY EMPTY}
+     */
+    public void load(long player, long computer, ECharToken toMove) {
+        if ((player & computer) != 0 || ((player | computer) & ~geometry.fullMask()) != 0) {
+            throw new IllegalArgumentException("Tokens overlap or do not fit a " + geometry.size() + "x"
+                    + geometry.size() + " board");
+        }
+        checkSide(toMove);
+
+        this.player = player;
+        this.computer = computer;
+        this.toMove = toMove;
+        this.hash = hash(player, computer, toMove);
+
+        playerWins = 0;
+        computerWins = 0;
+        for (int line = 0; line < geometry.lineCount(); line++) {
+            playerLines[line] = (byte) Long.bitCount(player & geometry.line(line));
+            computerLines[line] = (byte) Long.bitCount(computer & geometry.line(line));
+            if (playerLines[line] == geometry.winLength()) {
+                playerWins++;
+            }
+            if (computerLines[line] == geometry.winLength()) {
+                computerWins++;
+            }
+        }
+    }
+
+    /**
+     * Empties the board and gives the move to the {@link ECharToken#PLAYER player}.
+     */
+    public void clear() {
+        load(0, 0, ECharToken.PLAYER);
+    }
+
+    /**
+     * Places a token of {@code side} on {@code cell} and gives the move to the other side.
+     *
+     * @throws IllegalArgumentException if the cell is taken or off the board, or {@code side} is
+     *                                  {@link ECharToken#EMPTY EMPTY}
+     */
+    public void makeMove(int cell, ECharToken side) {
+        long bit = 1L << cell;
+        if (cell < 0 || cell >= geometry.cells() || ((player | computer) & bit) != 0) {
+            throw new IllegalArgumentException("Cell " + cell + " can't be played");
+        }
+
+        int winLength = geometry.winLength();
+        if (side == ECharToken.PLAYER) {
+            player |= bit;
+            hash ^= PLAYER_KEYS[cell];
+            for (int line : geometry.lineIndexesThrough(cell)) {
+                if (++playerLines[line] == winLength) {
+                    playerWins++;
+                }
+            }
+        } else {
+            checkSide(side);
+            computer |= bit;
+            hash ^= COMPUTER_KEYS[cell];
+            for (int line : geometry.lineIndexesThrough(cell)) {
+                if (++computerLines[line] == winLength) {
+                    computerWins++;
+                }
+            }
+        }
+
+        setToMove(side == ECharToken.PLAYER ? ECharToken.COMPUTER : ECharToken.PLAYER);
+    }
+
+    /**
+     * Takes the token on {@code cell} back off the board and gives the move back to its owner. Undoing moves in
+     * the reverse order they were made restores every earlier position exactly.
+     *
+     * @throws IllegalArgumentException if the cell is empty or off the board
+     */
+    public void unmakeMove(int cell) {
+        long bit = 1L << cell;
+        int winLength = geometry.winLength();
+
+        if (cell >= 0 && cell < geometry.cells() && (player & bit) != 0) {
+            player &= ~bit;
+            hash ^= PLAYER_KEYS[cell];
+            for (int line : geometry.lineIndexesThrough(cell)) {
+                if (playerLines[line]-- == winLength) {
+                    playerWins--;
+                }
+            }
+            setToMove(ECharToken.PLAYER);
+        } else if (cell >= 0 && cell < geometry.cells() && (computer & bit) != 0) {
+            computer &= ~bit;
+            hash ^= COMPUTER_KEYS[cell];
+            for (int line : geometry.lineIndexesThrough(cell)) {
+                if (computerLines[line]-- == winLength) {
+                    computerWins--;
+                }
+            }
+            setToMove(ECharToken.COMPUTER);
+        } else {
+            throw new IllegalArgumentException("Cell " + cell + " holds no token");
+        }
+    }
+
+    /**
+     * @return the geometry of the board
+     */
+    public BoardGeometry geometry() {
+        return geometry;
+    }
+
+    /**
+     * @return the Zobrist hash of the tokens and the side to move
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * @return the side whose turn it is
+     */
+    public ECharToken sideToMove() {
+        return toMove;
+    }
+
+    /**
+     * @return {@code true} if {@code side} has completed a line
+     */
+    public boolean hasWon(ECharToken side) {
+        return side == ECharToken.PLAYER ? playerWins > 0 : side == ECharToken.COMPUTER && computerWins > 0;
+    }
+
+    /**
+     * @return the result of the position, with the same precedence as {@link Repository#getWinner()}
+     */
+    public EWinner winner() {
+        if (playerWins > 0) {
+            return EWinner.PLAYER;
+        } else if (computerWins > 0) {
+            return EWinner.COMPUTER;
+        } else if ((player | computer) == geometry.fullMask()) {
+            return EWinner.TIE;
+        }
+        return EWinner.NONE;
+    }
+
+    /**
+     * @return the number of tokens {@code side} has on the {@code line}-th {@link BoardGeometry#line(int) line}
+     */
+    public int lineTokens(int line, ECharToken side) {
+        return switch (side) {
+            case PLAYER -> playerLines[line];
+            case COMPUTER -> computerLines[line];
+            case EMPTY -> geometry.winLength() - playerLines[line] - computerLines[line];
+        };
+    }
+
+    @Override
+    public int size() {
+        return geometry.size();
+    }
+
+    @Override
+    public int winLength() {
+        return geometry.winLength();
+    }
+
+    @Override
+    public ECharToken get(int cell) {
+        long bit = 1L << cell;
+        if ((player & bit) != 0) {
+            return ECharToken.PLAYER;
+        } else if ((computer & bit) != 0) {
+            return ECharToken.COMPUTER;
+        }
+        return ECharToken.EMPTY;
+    }
+
+    @Override
+    public long mask(ECharToken token) {
+        return switch (token) {
+            case PLAYER -> player;
+            case COMPUTER -> computer;
+            case EMPTY -> geometry.fullMask() & ~(player | computer);
+        };
+    }
+
+    private void setToMove(ECharToken side) {
+        if (side != toMove) {
+            hash ^= COMPUTER_TO_MOVE;
+            toMove = side;
+        }
+    }
+
+    private static void checkSide(ECharToken side) {
+        if (side == ECharToken.EMPTY) {
+            throw new IllegalArgumentException("EMPTY is not a side");
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package repository;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An off-heap hash table from packed board encodings to packed score/move values, for exhaustive analysis of
+ * boards whose position sets outgrow the heap.
+ * <p>
+ * Entries live in a {@link MemorySegment} allocated from an {@link Arena}, 16 bytes each: the {@code long} key,
+ * followed by the {@code int} value and 4 bytes of padding. Collisions are resolved by linear probing and the table
+ * doubles once it is three quarters full, moving the entries to a new segment and freeing the old one. The heap
+ * only ever holds this object, however many positions are stored. Entries can't be removed.
+ * <p>
+ * Keys are {@link #encode(long, long) base-3 encodings} of the board and must not be negative. Values are
+ * {@link #pack(int, int, int) packed} into an {@code int}. The store is not thread-safe.
+ */
+public final class PositionStore implements AutoCloseable {
+    private static final long EMPTY_KEY = -1L;
+    private static final long ENTRY_BYTES = 16;
+    private static final long VALUE_OFFSET = 8;
+
+    private static final int FILE_MAGIC = 0x54545053; // "TTPS"
+    private static final long FILE_HEADER_BYTES = 16;
+
+    // Board encodings are sums of powers of three, 3^39 still fits in a long
+    private static final long[] POWERS = Tablebase.powers(39);
+
+    private Arena arena;
+    private MemorySegment table;
+    private long capacity;
+    private long size;
+
+    /**
+     * Creates a store for at least {@code expectedEntries} entries before its first resize.
+     */
+    public PositionStore(long expectedEntries) {
+        allocate(Math.max(16, Long.highestOneBit(Math.max(1, expectedEntries * 4 / 3)) << 1));
+    }
+
+    /**
+     * Reads a store written by {@link #exportTo(Path)}.
+     *
+     * @throws IOException if the file can't be read or isn't an exported store
+     */
+    public static PositionStore importFrom(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Arena mapping = Arena.ofConfined()) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), mapping);
+
+            if (segment.byteSize() < FILE_HEADER_BYTES || segment.get(ValueLayout.JAVA_INT, 0) != FILE_MAGIC) {
+                throw new IOException(file + " is not an exported position store");
+            }
+            long entries = segment.get(ValueLayout.JAVA_LONG, 8);
+            if (segment.byteSize() < FILE_HEADER_BYTES + entries * 12) {
+                throw new IOException(file + " is truncated");
+            }
+
+            PositionStore store = new PositionStore(entries);
+            for (long i = 0, offset = FILE_HEADER_BYTES; i < entries; i++, offset += 12) {
+                store.put(segment.get(ValueLayout.JAVA_LONG_UNALIGNED, offset),
+                        segment.get(ValueLayout.JAVA_INT_UNALIGNED, offset + 8));
+            }
+            return store;
+        }
+    }
+
+    /**
+     * @return the key of the board, the base-3 number whose digit {@code i} is 1 or 2 when cell {@code i} holds
+     * the {@link ECharToken#PLAYER player} or {@link ECharToken#COMPUTER computer} token
+     * @throws IllegalArgumentException if the board has more than 39 cells
+     */
+    public static long encode(long player, long computer) {
+        if (((player | computer) >>> POWERS.length) != 0) {
+            throw new IllegalArgumentException("Boards of more than " + POWERS.length + " cells can't be encoded");
+        }
+
+        long key = 0;
+        for (long bits = player; bits != 0; bits &= bits - 1) {
+            key += POWERS[Long.numberOfTrailingZeros(bits)];
+        }
+        for (long bits = computer; bits != 0; bits &= bits - 1) {
+            key += 2 * POWERS[Long.numberOfTrailingZeros(bits)];
+        }
+        return key;
+    }
+
+    /**
+     * Packs a search result into a value.
+     *
+     * @param score a score between {@link Short#MIN_VALUE} and {@link Short#MAX_VALUE}
+     * @param move  a cell index, or -1 for none
+     * @param flags 8 bits free for the caller, e.g. depth or bound type
+     */
+    public static int pack(int score, int move, int flags) {
+        return score << 16 | (move & 0xFF) << 8 | flags & 0xFF;
+    }
+
+    public static int score(int value) {
+        return value >> 16;
+    }
+
+    public static int move(int value) {
+        return (byte) (value >>> 8);
+    }
+
+    public static int flags(int value) {
+        return value & 0xFF;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the number of off-heap bytes held by the table
+     */
+    public long offHeapBytes() {
+        return table.byteSize();
+    }
+
+    /**
+     * @return the value stored for {@code key}, or {@code defaultValue} if there is none
+     */
+    public int getOrDefault(long key, int defaultValue) {
+        long offset = find(checkKey(key));
+        return table.get(ValueLayout.JAVA_LONG, offset) == EMPTY_KEY
+                ? defaultValue
+                : table.get(ValueLayout.JAVA_INT, offset + VALUE_OFFSET);
+    }
+
+    /**
+     * @return {@code true} if a value is stored for {@code key}
+     */
+    public boolean contains(long key) {
+        return table.get(ValueLayout.JAVA_LONG, find(checkKey(key))) != EMPTY_KEY;
+    }
+
+    /**
+     * Stores {@code value} for {@code key}, replacing any previous value.
+     */
+    public void put(long key, int value) {
+        long offset = find(checkKey(key));
+        if (table.get(ValueLayout.JAVA_LONG, offset) == EMPTY_KEY) {
+            offset = insert(key, offset);
+        }
+        table.set(ValueLayout.JAVA_INT, offset + VALUE_OFFSET, value);
+    }
+
+    /**
+     * Replaces the value of {@code key} with the result of {@code remapping}, inserting it if there was none.
+     *
+     * @return the new value
+     */
+    public int compute(long key, Remapping remapping) {
+        long offset = find(checkKey(key));
+        boolean present = table.get(ValueLayout.JAVA_LONG, offset) != EMPTY_KEY;
+        int value = remapping.apply(key, present ? table.get(ValueLayout.JAVA_INT, offset + VALUE_OFFSET) : 0, present);
+
+        if (!present) {
+            offset = insert(key, offset);
+        }
+        table.set(ValueLayout.JAVA_INT, offset + VALUE_OFFSET, value);
+        return value;
+    }
+
+    /**
+     * Copies every entry of {@code other} into this store, replacing the values of keys both stores hold.
+     */
+    public void putAll(PositionStore other) {
+        for (long offset = 0; offset < other.table.byteSize(); offset += ENTRY_BYTES) {
+            long key = other.table.get(ValueLayout.JAVA_LONG, offset);
+            if (key != EMPTY_KEY) {
+                put(key, other.table.get(ValueLayout.JAVA_INT, offset + VALUE_OFFSET));
+            }
+        }
+    }
+
+    /**
+     * Writes every entry to {@code file} in slot order: a 16 byte header (magic, entry count) followed by 12 bytes
+     * per entry, the key and the value. The file is written through a mapped segment, so the table is never
+     * copied to the heap.
+     *
+     * @throws IOException if the file can't be written
+     */
+    public void exportTo(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Arena mapping = Arena.ofConfined()) {
+            MemorySegment out = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER_BYTES + size * 12, mapping);
+
+            long written = FILE_HEADER_BYTES;
+            for (long offset = 0; offset < table.byteSize(); offset += ENTRY_BYTES) {
+                long key = table.get(ValueLayout.JAVA_LONG, offset);
+                if (key != EMPTY_KEY) {
+                    out.set(ValueLayout.JAVA_LONG_UNALIGNED, written, key);
+                    out.set(ValueLayout.JAVA_INT_UNALIGNED, written + 8, table.get(ValueLayout.JAVA_INT, offset + VALUE_OFFSET));
+                    written += 12;
+                }
+            }
+
+            out.set(ValueLayout.JAVA_LONG, 8, size);
+            out.set(ValueLayout.JAVA_INT, 0, FILE_MAGIC);
+            out.force();
+        }
+    }
+
+    /**
+     * Frees the off-heap memory. The store can't be used afterwards.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Computes a new value for a key, see {@link #compute(long, Remapping)}.
+     */
+    @FunctionalInterface
+    public interface Remapping {
+        /**
+         * @param key     the key being computed
+         * @param value   the current value, or 0 if there is none
+         * @param present {@code true} if the key already had a value
+         * @return the value to store
+         */
+        int apply(long key, int value, boolean present);
+    }
+
+    /**
+     * @return the offset of the slot holding {@code key}, or of the empty slot where it would go
+     */
+    private long find(long key) {
+        long mask = capacity - 1;
+        long slot = mix(key) & mask;
+
+        while (true) {
+            long offset = slot * ENTRY_BYTES;
+            long stored = table.get(ValueLayout.JAVA_LONG, offset);
+            if (stored == key || stored == EMPTY_KEY) {
+                return offset;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Claims the empty slot at {@code offset} for {@code key}, growing the table first if it is too full.
+     *
+     * @return the offset the key ended up at
+     */
+    private long insert(long key, long offset) {
+        if ((size + 1) * 4 > capacity * 3) {
+            resize(capacity * 2);
+            offset = find(key);
+        }
+
+        table.set(ValueLayout.JAVA_LONG, offset, key);
+        size++;
+        return offset;
+    }
+
+    private void resize(long newCapacity) {
+        Arena oldArena = arena;
+        MemorySegment oldTable = table;
+
+        allocate(newCapacity);
+        for (long offset = 0; offset < oldTable.byteSize(); offset += ENTRY_BYTES) {
+            long key = oldTable.get(ValueLayout.JAVA_LONG, offset);
+            if (key != EMPTY_KEY) {
+                long slot = find(key);
+                table.set(ValueLayout.JAVA_LONG, slot, key);
+                table.set(ValueLayout.JAVA_INT, slot + VALUE_OFFSET, oldTable.get(ValueLayout.JAVA_INT, offset + VALUE_OFFSET));
+            }
+        }
+
+        oldArena.close();
+    }
+
+    /**
+     * Replaces the table with an empty one of {@code newCapacity} slots in its own arena, so it can be freed on
+     * its own when the table grows again.
+     */
+    private void allocate(long newCapacity) {
+        arena = Arena.ofShared();
+        table = arena.allocate(newCapacity * ENTRY_BYTES, ENTRY_BYTES);
+        table.fill((byte) 0xFF);
+        capacity = newCapacity;
+    }
+
+    private static long checkKey(long key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys must not be negative, got " + key);
+        }
+        return key;
+    }
+
+    /**
+     * Spreads the bits of a key, base-3 encodings are far from uniform in their low bits.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
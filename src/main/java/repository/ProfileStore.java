@@ -0,0 +1,387 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link Statistics} of many profiles (users, difficulty levels, ...) in a single file, read and updated in place.
+ * <p>
+ * The file is a {@value #HEADER_SIZE} byte header (magic, version, slot count, profile count) followed by a hash
+ * table of fixed-size {@value #RECORD_SIZE} byte records: the 64-bit hash of the profile ID (0 for an empty slot),
+ * the ID itself in up to {@value #MAX_ID_BYTES} UTF-8 bytes, and the five counters. Lookups probe the table with
+ * positional reads and updates overwrite just the counters with a positional write, so neither ever rewrites the
+ * file. Only growing the table, once it is three quarters full, rebuilds it into a new file that replaces the old
+ * one atomically.
+ * <p>
+ * Stores in any number of processes can share the file. Writes take a lock on the file and re-read the header under
+ * it, so they see each other's profiles and count. Growing marks the old file as retired before replacing it, and
+ * a store that finds its file retired reopens the new one before reading or writing. Reads take no lock.
+ * <p>
+ * All methods are synchronized on the store.
+ */
+public final class ProfileStore implements AutoCloseable {
+    static final int MAGIC = 0x54545046; // "TTPF"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 64;
+
+    /**
+     * Longest profile ID, in UTF-8 bytes.
+     */
+    public static final int MAX_ID_BYTES = 32;
+
+    private static final int ID_LENGTH_OFFSET = 8;
+    private static final int ID_OFFSET = 12;
+    private static final int COUNTERS_OFFSET = ID_OFFSET + MAX_ID_BYTES;
+    private static final int COUNTERS_SIZE = 5 * Integer.BYTES;
+    private static final long MIN_SLOTS = 1024;
+    // Non-zero once the file was replaced by a grown one
+    private static final int RETIRED_OFFSET = 24;
+
+    // File locks are held by the whole JVM, which throws on overlapping ones, so stores in one process take turns
+    private static final Object WRITERS = new Object();
+
+    private final Path file;
+    private FileChannel channel;
+    private long slots;
+    private long count;
+
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer counters = ByteBuffer.allocate(COUNTERS_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    private ProfileStore(Path file, FileChannel channel, long slots, long count) {
+        this.file = file;
+        this.channel = channel;
+        this.slots = slots;
+        this.count = count;
+    }
+
+    /**
+     * Opens the store in {@code file}, creating it if it doesn't exist.
+     *
+     * @throws IOException if the file can't be opened or isn't a profile store
+     */
+    public static ProfileStore open(Path file) throws IOException {
+        return open(file, 0);
+    }
+
+    /**
+     * Opens the store in {@code file}, creating it with room for {@code expectedProfiles} profiles before the
+     * first rebuild if it doesn't exist.
+     *
+     * @throws IOException if the file can't be opened or isn't a profile store
+     */
+    public static ProfileStore open(Path file, long expectedProfiles) throws IOException {
+        if (Files.notExists(file)) {
+            create(file, slotsFor(expectedProfiles)).close();
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() < HEADER_SIZE || channel.read(header, 0) != HEADER_SIZE
+                    || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a version " + VERSION + " profile store");
+            }
+
+            long slots = header.getLong(8);
+            long count = header.getLong(16);
+            if (Long.bitCount(slots) != 1 || count > slots || channel.size() < HEADER_SIZE + slots * RECORD_SIZE) {
+                throw new IOException(file + " is truncated or does not match its header");
+            }
+            return new ProfileStore(file, channel, slots, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of profiles in the store when it was last read or written
+     */
+    public synchronized long size() {
+        return count;
+    }
+
+    /**
+     * @return {@code true} if the store holds statistics for {@code profile}
+     * @throws IOException if the file can't be read
+     */
+    public synchronized boolean contains(String profile) throws IOException {
+        byte[] id = encode(profile);
+        refresh();
+        return find(id, hash(id)) >= 0;
+    }
+
+    /**
+     * @return a copy of the statistics of {@code profile}, all zero if the store doesn't hold it
+     * @throws IOException if the file can't be read
+     */
+    public synchronized Statistics get(String profile) throws IOException {
+        byte[] id = encode(profile);
+        refresh();
+        long slot = find(id, hash(id));
+        if (slot < 0) {
+            return new Statistics();
+        }
+
+        counters.clear();
+        readFully(counters, offset(slot) + COUNTERS_OFFSET);
+        return new Statistics(counters.getInt(0), counters.getInt(4), counters.getInt(8), counters.getInt(12),
+                counters.getInt(16));
+    }
+
+    /**
+     * Stores the statistics of {@code profile}, overwriting its counters in place or adding it to the table.
+     *
+     * @throws IOException if the file can't be written
+     */
+    public synchronized void put(String profile, Statistics stats) throws IOException {
+        byte[] id = encode(profile);
+        long hash = hash(id);
+
+        counters.clear();
+        counters.putInt(stats.wins).putInt(stats.loses).putInt(stats.ties)
+                .putInt(stats.openerWins).putInt(stats.responderWins).flip();
+
+        synchronized (WRITERS) {
+            FileLock lock = lock();
+            try {
+                long slot = find(id, hash);
+                while (slot < 0 && (count + 1) * 4 > slots * 3) {
+                    // Growing closes the locked channel; another writer may get in before the new file is locked
+                    grow();
+                    lock = lock();
+                    slot = find(id, hash);
+                }
+
+                if (slot >= 0) {
+                    writeFully(counters, offset(slot) + COUNTERS_OFFSET);
+                    return;
+                }
+
+                record.clear();
+                record.putLong(hash).putInt(id.length).put(id).position(COUNTERS_OFFSET);
+                record.put(counters).flip();
+                writeFully(record, offset(-slot - 1));
+
+                count++;
+                writeHeader(channel, header, slots, count);
+            } finally {
+                if (lock.isValid()) {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Lists every profile by scanning the whole table, for pickers rather than the hot path.
+     *
+     * @return the profile IDs, sorted
+     * @throws IOException if the file can't be read
+     */
+    public synchronized List<String> profiles() throws IOException {
+        refresh();
+        List<String> out = new ArrayList<>();
+        for (long slot = 0; slot < slots; slot++) {
+            record.clear();
+            readFully(record, offset(slot));
+            if (record.getLong(0) != 0) {
+                out.add(new String(record.array(), ID_OFFSET, record.getInt(ID_LENGTH_OFFSET), StandardCharsets.UTF_8));
+            }
+        }
+        out.sort(null);
+        return out;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @return the slot holding {@code id}, or {@code -slot - 1} of the empty slot where it would go
+     */
+    private long find(byte[] id, long hash) throws IOException {
+        long mask = slots - 1;
+        long slot = Hashing.mix(hash) & mask;
+
+        while (true) {
+            record.clear();
+            readFully(record, offset(slot));
+
+            long stored = record.getLong(0);
+            if (stored == 0) {
+                return -slot - 1;
+            }
+            if (stored == hash && record.getInt(ID_LENGTH_OFFSET) == id.length
+                    && Arrays.equals(record.array(), ID_OFFSET, ID_OFFSET + id.length, id, 0, id.length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Locks the file, following it to the file that replaced it if it was grown, and re-reads the header under the
+     * lock.
+     */
+    private FileLock lock() throws IOException {
+        while (true) {
+            FileLock lock = channel.lock();
+            if (readHeader()) {
+                return lock;
+            }
+            // Closing the channel releases the lock
+            reopen();
+        }
+    }
+
+    /**
+     * Re-reads the header without locking, following the file to the one that replaced it if it was grown.
+     */
+    private void refresh() throws IOException {
+        while (!readHeader()) {
+            reopen();
+        }
+    }
+
+    /**
+     * @return {@code false} if the file was retired by a grow
+     */
+    private boolean readHeader() throws IOException {
+        header.clear();
+        readFully(header, 0);
+        slots = header.getLong(8);
+        count = header.getLong(16);
+        return header.getInt(RETIRED_OFFSET) == 0;
+    }
+
+    private void reopen() throws IOException {
+        channel.close();
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Rebuilds the table with twice the slots into a sibling file and moves it over the store, retiring the old
+     * file and releasing its lock. The header is read again by the next {@link #lock()}.
+     */
+    private void grow() throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long newSlots = slots * 2;
+
+        try (FileChannel target = create(temporary, newSlots)) {
+            ByteBuffer probe = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (long slot = 0; slot < slots; slot++) {
+                record.clear();
+                readFully(record, offset(slot));
+                long hash = record.getLong(0);
+                if (hash == 0) {
+                    continue;
+                }
+
+                long targetSlot = Hashing.mix(hash) & (newSlots - 1);
+                while (true) {
+                    probe.clear();
+                    target.read(probe, HEADER_SIZE + targetSlot * RECORD_SIZE);
+                    if (probe.getLong(0) == 0) {
+                        break;
+                    }
+                    targetSlot = (targetSlot + 1) & (newSlots - 1);
+                }
+
+                record.flip();
+                while (record.hasRemaining()) {
+                    target.write(record, HEADER_SIZE + targetSlot * RECORD_SIZE + record.position());
+                }
+            }
+
+            writeHeader(target, ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN), newSlots, count);
+            target.force(true);
+        }
+
+        // Stores waiting for the lock of the old file see the mark once they get it, and reopen the new file
+        ByteBuffer retired = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        writeFully(retired.putInt(0, 1), RETIRED_OFFSET);
+        channel.close();
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Creates an empty store of {@code slots} slots in {@code file}, replacing it if it exists.
+     */
+    private static FileChannel create(Path file, long slots) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        // Extending the file leaves the table zero-filled, i.e. every slot empty
+        channel.write(ByteBuffer.allocate(1), HEADER_SIZE + slots * RECORD_SIZE - 1);
+        writeHeader(channel, ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN), slots, 0);
+        return channel;
+    }
+
+    private static void writeHeader(FileChannel channel, ByteBuffer header, long slots, long count)
+            throws IOException {
+        header.clear();
+        header.putInt(MAGIC).putInt(VERSION).putLong(slots).putLong(count).putInt(0).position(HEADER_SIZE).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException(file + " ends unexpectedly");
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static long offset(long slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private static long slotsFor(long expectedProfiles) {
+        return Math.max(MIN_SLOTS, Long.highestOneBit(Math.max(1, expectedProfiles * 4 / 3)) << 1);
+    }
+
+    /**
+     * @return the UTF-8 bytes of {@code profile}
+     * @throws IllegalArgumentException if they are empty or longer than {@link #MAX_ID_BYTES}
+     */
+    static byte[] encode(String profile) {
+        byte[] id = profile.getBytes(StandardCharsets.UTF_8);
+        if (id.length == 0 || id.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Profile IDs must be 1 to " + MAX_ID_BYTES + " UTF-8 bytes, got '"
+                    + profile + "'");
+        }
+        return id;
+    }
+
+    /**
+     * 64-bit FNV-1a of the ID, never 0 so 0 can mark empty slots.
+     */
+    private static long hash(byte[] id) {
+        long hash = Hashing.fnv1a(id);
+        return hash == 0 ? 1 : hash;
+    }
+}
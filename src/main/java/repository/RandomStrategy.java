@@ -0,0 +1,39 @@
+package repository;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A {@link MoveStrategy} that plays a uniformly random empty cell.
+ */
+public final class RandomStrategy implements MoveStrategy {
+    public static final String NAME = "random";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int selectMove(BoardView board, ECharToken side, RandomGenerator random) {
+        return randomSetBit(board.emptyMask(), random);
+    }
+
+    /**
+     * Picks one of the set bits of {@code mask} uniformly at random without allocating.
+     *
+     * @return the index of the chosen bit, or {@code -1} if {@code mask} is zero
+     */
+    static int randomSetBit(long mask, RandomGenerator random) {
+        int count = Long.bitCount(mask);
+        if (count == 0) {
+            return -1;
+        }
+
+        // Drop the lowest n set bits, the next one is the n-th
+        for (int n = random.nextInt(count); n > 0; n--) {
+            mask &= mask - 1;
+        }
+
+        return Long.numberOfTrailingZeros(mask);
+    }
+}
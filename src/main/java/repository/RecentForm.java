@@ -0,0 +1,81 @@
+package repository;
+
+import java.util.Arrays;
+
+/**
+ * An immutable summary of a {@link StatsHistory} holding what the UI shows of it: the results of the recent games
+ * and the results of the last {@value StatsHistory#HOURS} hours. It is taken once per
+ * {@link GameEvent.StatsChanged} and shared by every subscriber, so none of them has to copy the whole history.
+ */
+public final class RecentForm {
+    private final int[] recent;
+    private final long newestHour;
+    // hourly[slot * 3 + EWinner ordinal], as in StatsHistory.Buckets
+    private final int[] hourly;
+
+    RecentForm(int[] recent, long newestHour, int[] hourly) {
+        this.recent = recent;
+        this.newestHour = newestHour;
+        this.hourly = hourly;
+    }
+
+    /**
+     * @return the number of games in the recent window, at most {@value StatsHistory#GAMES}
+     */
+    public int recentGames() {
+        return recent[0] + recent[1] + recent[2];
+    }
+
+    /**
+     * @return the number of games in the recent window that ended with {@code winner}
+     */
+    public int recent(EWinner winner) {
+        return winner == EWinner.NONE ? 0 : recent[winner.ordinal()];
+    }
+
+    /**
+     * @return the share of the recent games the {@link EWinner#PLAYER player} token won, 0 without games
+     */
+    public double recentWinRate() {
+        int games = recentGames();
+        return games == 0 ? 0 : (double) recent[EWinner.PLAYER.ordinal()] / games;
+    }
+
+    /**
+     * @return the number of hourly buckets, {@value StatsHistory#HOURS}
+     */
+    public int hours() {
+        return StatsHistory.HOURS;
+    }
+
+    /**
+     * Reads one hour like {@link StatsHistory.Buckets#count(int, EWinner, long)}, so hours that passed since the
+     * summary was taken read as empty.
+     *
+     * @param ago    0 for the hour holding {@code now}, 1 for the one before, up to {@link #hours()}{@code  - 1}
+     * @param winner the result to count
+     * @param now    the current time in epoch milliseconds
+     * @return the number of games ending with {@code winner} in that hour
+     */
+    public int count(int ago, EWinner winner, long now) {
+        return StatsHistory.Buckets.count(hourly, newestHour, StatsHistory.HOUR_MILLIS, ago, winner, now);
+    }
+
+    /**
+     * @return the number of games of every result in the hour {@code ago} hours before {@code now}
+     */
+    public int games(int ago, long now) {
+        return StatsHistory.Buckets.games(hourly, newestHour, StatsHistory.HOUR_MILLIS, ago, now);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RecentForm other && newestHour == other.newestHour
+                && Arrays.equals(recent, other.recent) && Arrays.equals(hourly, other.hourly);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(recent) + Long.hashCode(newestHour)) + Arrays.hashCode(hourly);
+    }
+}
@@ -1,117 +1,656 @@
 package repository;
 
 import com.google.common.collect.ImmutableList;
-import org.jetbrains.annotations.Contract;
-import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Random;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * The Repository class serves as a central store for handling the state of the Tic-Tac-Toe
  * game and its statistics. It provides methods to manage and query the game board,
- * perform moves, and save or reset game statistics.
+ * perform moves, take them back, and save or reset game statistics.
+ * <p>
+ * The board is a {@link Position}, which keeps the winner up to date as moves are made. Every ply is logged as
+ * one packed byte, the cell and the side that took it, and turns are ranges of that log, so {@link #undo()} and
+ * {@link #redo()} unmake or remake the plies of a turn in constant time.
+ * <p>
+ * Either side can be controlled by a human or by a {@link MoveStrategy}, and either can open. By default the
+ * human plays the {@link ECharToken#PLAYER player} token and opens, and the computer answers with the
+ * {@link ECharToken#COMPUTER computer} token. With both sides on AI, {@link #playAiMoves()} plays whole games.
  */
 public class Repository {
     private static final String FILE_NAME = "stats.bin";
-    private List<List<Character>> board;
+    private static final String PROFILES_FILE_NAME = "profiles.bin";
+    private static final String HISTORY_FILE_NAME = "history.bin";
+    private static final String GAME_FILE_NAME = "game.bin";
+
+    /**
+     * The profile a repository starts with, whose statistics live in the stats file rather than the
+     * {@link ProfileStore}.
+     */
+    public static final String DEFAULT_PROFILE = "default";
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3, 3);
+
+    private final BoardView boardView = new ReadOnlyBoardView();
+    private final List<List<Character>> rows = List.of(new RowView(0), new RowView(1), new RowView(2));
+
+    // Cell index row * 3 + col
+    private final Position position = new Position(GEOMETRY);
+
+    // Ply i is plies[i], its cell with COMPUTER_PLY set for the computer token. Turn i covers the plies from
+    // turnEnds[i - 1] up to turnEnds[i]. Turns after `turn` up to `lastTurn` were taken back and can be played
+    // again. A turn places at least one token, so a game has at most 9.
+    private static final int COMPUTER_PLY = 0x40;
+    private final byte[] plies = new byte[9];
+    private final int[] turnEnds = new int[10];
+    private int turn;
+    private int lastTurn;
+    // Plies of the turn being played, not yet covered by turnEnds
+    private int pending;
+    // Bumped by every change to the board, so the snapshot handed out can be reused until the next one
+    private long version;
+    private BoardSnapshot snapshot;
+    private final GameEventPublisher events = new GameEventPublisher();
+
+    private String profile = DEFAULT_PROFILE;
+    private final StatsStorage storage;
+    // Keeps the statistics, history and game off the disk, see inMemory(long)
+    private final boolean inMemory;
     private Statistics stats;
+    private StatsHistory history;
+    // When the game on the board was counted, so undoing it takes it out of the same buckets
+    private long countedAt;
+    // The turn that ended the counted game, -1 once its count was reset, so undoing it takes back only what is there
+    private int countedTurn = -1;
+    private final MoveStrategy[] strategies = {MoveStrategies.defaultStrategy(), MoveStrategies.defaultStrategy()};
+    private MoveCache moveCache;
+    private final boolean[] human = {true, false};
+    private ECharToken firstMover = ECharToken.PLAYER;
+    private ECharToken opener = ECharToken.PLAYER;
+    private final long seed;
+    private final RandomGenerator random;
 
+    /**
+     * Creates a repository whose computer moves are seeded randomly. Use {@link #getSeed()} to replay the session.
+     */
     public Repository() {
-        this.createBoard();
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates a repository whose computer moves are fully determined by {@code seed}: the same seed, strategy and
+     * player moves always replay the same games.
+     *
+     * @param seed the seed of the session's random source
+     */
+    public Repository(long seed) {
+        this(seed, StatsStorage.xml(Paths.get(FILE_NAME), Paths.get(HISTORY_FILE_NAME)));
+    }
+
+    /**
+     * Creates a repository like {@link #Repository(long)} that keeps the statistics and the history of the default
+     * profile in {@code storage}, e.g. {@link StatsStorage#binary(Path) binary storage} for headless and
+     * native-image builds.
+     *
+     * @param seed    the seed of the session's random source
+     * @param storage where the default profile's statistics and history are loaded from and saved to
+     */
+    public Repository(long seed, StatsStorage storage) {
+        this(seed, storage, false);
+    }
+
+    private Repository(long seed, StatsStorage storage, boolean inMemory) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.storage = Objects.requireNonNull(storage);
+        this.inMemory = inMemory;
+
+        stats = storage.load();
+        history = loadHistory(profile);
+    }
+
+    /**
+     * Creates a repository for one session among many in a server, such as a {@link SessionNode}: it never reads
+     * or writes a file. Its statistics and history start empty and stay in memory, it only has the default profile,
+     * and its game moves between processes as a {@link #snapshotGame() snapshot} instead of through
+     * {@link #saveGame()}.
+     *
+     * @param seed the seed of the session's random source
+     */
+    public static Repository inMemory(long seed) {
+        return new Repository(seed, StatsStorage.memory(), true);
+    }
+
+    /**
+     * Saves the statistics and the {@link StatsHistory} of the current profile to file
+     */
+    public void saveStats() {
+        if (inMemory) {
+            storage.save(stats);
+            return;
+        }
+
+        if (profile.equals(DEFAULT_PROFILE)) {
+            try {
+                storage.saveHistory(history);
+            } catch (IOException e) {
+                System.err.println("Error in saveStats function");
+                throw new RuntimeException(e);
+            }
+            storage.save(stats);
+            return;
+        }
 
         try {
-            stats = Statistics.loadFromFile(FILE_NAME);
-        } catch (Exception e) {
-            stats = new Statistics();
+            history.writeTo(historyFile(profile));
+        } catch (IOException e) {
+            System.err.println("Error in saveStats function");
+            throw new RuntimeException(e);
+        }
+
+        try (ProfileStore store = ProfileStore.open(Paths.get(PROFILES_FILE_NAME))) {
+            store.put(profile, stats);
+        } catch (IOException e) {
+            System.err.println("Error in saveStats function");
+            throw new RuntimeException(e);
         }
     }
 
     /**
-     * Saves the statistics to file
+     * @return the profile whose statistics are being counted
      */
-    public void saveStats() {
-        stats.saveToFile(FILE_NAME);
+    public String getProfile() {
+        return profile;
+    }
+
+    /**
+     * Saves the statistics of the current profile, loads those of {@code profile} and starts a new game, so undoing
+     * never rolls back a game counted for another profile.
+     *
+     * @throws IllegalArgumentException      if the name is empty or longer than {@link ProfileStore#MAX_ID_BYTES}
+     *                                       bytes
+     * @throws RuntimeException              if the profile file can't be read or written
+     * @throws UnsupportedOperationException for an {@link #inMemory(long) in-memory} repository
+     */
+    public void setProfile(String profile) {
+        requireFiles();
+        // Rejects bad names before anything is saved
+        ProfileStore.encode(profile);
+
+        saveStats();
+        this.profile = profile;
+        if (profile.equals(DEFAULT_PROFILE)) {
+            stats = storage.load();
+        } else {
+            try (ProfileStore store = ProfileStore.open(Paths.get(PROFILES_FILE_NAME))) {
+                stats = store.get(profile);
+            } catch (IOException e) {
+                System.err.println("Error in setProfile function");
+                throw new RuntimeException(e);
+            }
+        }
+        history = loadHistory(profile);
+        statsChanged();
+        resetBoard();
+    }
+
+    /**
+     * @return the default profile, every profile in the profile file, sorted, and the current profile if it has
+     * not been saved yet
+     * @throws RuntimeException if the profile file exists but can't be read
+     */
+    public List<String> getProfiles() {
+        if (inMemory) {
+            return List.of(profile);
+        }
+
+        List<String> profiles = new ArrayList<>();
+        profiles.add(DEFAULT_PROFILE);
+
+        Path file = Paths.get(PROFILES_FILE_NAME);
+        if (Files.exists(file)) {
+            try (ProfileStore store = ProfileStore.open(file)) {
+                for (String name : store.profiles()) {
+                    if (!name.equals(DEFAULT_PROFILE)) {
+                        profiles.add(name);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Error in getProfiles function");
+                throw new RuntimeException(e);
+            }
+        }
+        if (!profiles.contains(profile)) {
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+
+    /**
+     * @return the stream of this repository's moves, results and statistics, for following the game without
+     * polling it
+     */
+    public GameEventPublisher getEvents() {
+        return events;
     }
 
     /**
      * @return a copy of {@link Statistics}
      * <br>
-     * Note: This can become stale
+     * Note: This can become stale; {@link #getEvents()} publishes every change instead
      */
     public Statistics getStats() {
-        return new Statistics(stats.wins, stats.loses, stats.ties);
+        return new Statistics(stats.wins, stats.loses, stats.ties, stats.openerWins, stats.responderWins);
     }
 
     /**
-     * Checks if the stats file exists and deletes it along with resetting the wins, loses, and ties back to zero.
+     * @return a copy of the recent results of the current profile
+     * <br>
+     * Note: This can become stale
+     */
+    public StatsHistory getStatsHistory() {
+        return new StatsHistory(history);
+    }
+
+    /**
+     * Resets the statistics and the history of the current profile back to zero. For the default profile the
+     * stored statistics are deleted if they exist, for the others their record is zeroed in place.
      *
-     * @throws RuntimeException if the file exists, but we are unable to delete it.
+     * @throws RuntimeException if the file exists, but we are unable to delete or update it.
      */
     public void resetStats() {
-        Path fileName = Paths.get(FILE_NAME);
-        if (Files.exists(fileName)) {
+        history = new StatsHistory();
+        countedTurn = -1;
+        if (inMemory) {
+            stats = new Statistics();
+            statsChanged();
+            return;
+        }
+
+        if (!profile.equals(DEFAULT_PROFILE)) {
             try {
-                Files.delete(fileName);
+                Files.deleteIfExists(historyFile(profile));
             } catch (IOException e) {
                 System.err.println("Error in resetStats function");
                 throw new RuntimeException(e);
             }
+
+            stats = new Statistics();
+            saveStats();
+            statsChanged();
+            return;
+        }
+
+        try {
+            storage.deleteHistory();
+            storage.delete();
+        } catch (IOException e) {
+            System.err.println("Error in resetStats function");
+            throw new RuntimeException(e);
         }
 
         stats = new Statistics();
+        statsChanged();
+    }
+
+    /**
+     * @return the seed of this session's random source
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the {@link MoveStrategy} the {@link ECharToken#COMPUTER computer} token is currently playing with
+     */
+    public MoveStrategy getStrategy() {
+        return getStrategy(ECharToken.COMPUTER);
+    }
+
+    /**
+     * @return the {@link MoveStrategy} {@code side} plays with whenever it is controlled by the AI
+     */
+    public MoveStrategy getStrategy(ECharToken side) {
+        return strategies[sideIndex(side)];
+    }
+
+    /**
+     * Selects the {@link MoveStrategy} the {@link ECharToken#COMPUTER computer} token plays with, starting from its
+     * next move.
+     *
+     * @param name the name of a strategy known to {@link MoveStrategies}
+     * @throws IllegalArgumentException if no strategy with that name was discovered
+     */
+    public void setStrategy(String name) {
+        setStrategy(MoveStrategies.get(name));
+    }
+
+    /**
+     * Selects the {@link MoveStrategy} the {@link ECharToken#COMPUTER computer} token plays with, starting from its
+     * next move.
+     */
+    public void setStrategy(MoveStrategy strategy) {
+        setStrategy(ECharToken.COMPUTER, strategy);
     }
 
     /**
-     * Checks if the move is valid. If so it adds the move to the board, calls {@link #isValidMove(int, int) isValidMove}, finally calls {@link #computerMove(), computerMove}.
+     * Selects the {@link MoveStrategy} {@code side} plays with whenever it is controlled by the AI, starting from
+     * its next move.
+     */
+    public void setStrategy(ECharToken side, MoveStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("strategy cannot be null");
+        }
+        strategies[sideIndex(side)] = strategy;
+    }
+
+    /**
+     * @return the cache the AI's moves are looked up in, or {@code null} if every move is computed
+     */
+    public MoveCache getMoveCache() {
+        return moveCache;
+    }
+
+    /**
+     * Puts a {@link MoveCache} in front of the strategies, so positions the AI has seen before are answered
+     * without running the strategy again. The cache can be shared with other repositories.
+     * <p>
+     * A cached move skips the random draws the strategy would have made, so a game replays from its seed only
+     * with a cache in the same state.
+     *
+     * @param moveCache the cache, or {@code null} to compute every move
+     */
+    public void setMoveCache(MoveCache moveCache) {
+        this.moveCache = moveCache;
+    }
+
+    /**
+     * @return {@code true} if {@code side} is played through {@link #addPlayerMove(int, int)}, {@code false} if
+     * its {@link #getStrategy(ECharToken) strategy} plays it
+     */
+    public boolean isHuman(ECharToken side) {
+        return human[sideIndex(side)];
+    }
+
+    /**
+     * Hands {@code side} to a human or to the AI. An AI side to move does not play until
+     * {@link #addPlayerMove(int, int)} or {@link #playAiMoves()} is called.
+     */
+    public void setHuman(ECharToken side, boolean human) {
+        this.human[sideIndex(side)] = human;
+    }
+
+    /**
+     * @return the side that opens new games
+     */
+    public ECharToken getFirstMover() {
+        return firstMover;
+    }
+
+    /**
+     * Selects the side that opens new games. It takes effect right away while the board is empty, otherwise
+     * from the next {@link #resetBoard()}.
+     */
+    public void setFirstMover(ECharToken side) {
+        sideIndex(side);
+        firstMover = side;
+        if (turnEnds[turn] == 0) {
+            resetBoard();
+        }
+    }
+
+    /**
+     * @return the side whose turn it is
+     */
+    public ECharToken getSideToMove() {
+        return position.sideToMove();
+    }
+
+    /**
+     * Checks if the move is valid and a human is to move. If so it adds the move to the board for the side to move, calls {@link #isValidMove(int, int) isValidMove}, finally lets the AI answer as long as it controls the side to move.
+     * <p>
+     * The finished turn is pushed onto the history, and any turns that were taken back can no longer be redone.
      */
     public void addPlayerMove(int row, int col) {
-        if (isValidMove(row, col)) {
-            board.get(row).set(col, ECharToken.PLAYER.token());
-
-            if (isGameOver()) {
-                EWinner winner = getWinner();
-                if (winner == EWinner.PLAYER) {
-                    stats.wins++;
-                } else if (winner == EWinner.COMPUTER) {
-                    stats.loses++;
-                } else {
-                    stats.ties++;
-                }
+        if (isValidMove(row, col) && isHuman(position.sideToMove())) {
+            play(row * 3 + col, position.sideToMove());
+            aiMoves();
+
+            pushTurn();
+            countResult(1);
+        }
+    }
+
+    /**
+     * Lets the AI play for as long as it controls the side to move and the game isn't over: the AI's opening
+     * move, or a whole game when both sides are AI. The moves are pushed onto the history as one turn.
+     *
+     * @return the number of moves played
+     */
+    public int playAiMoves() {
+        int start = turnEnds[turn];
+        if (aiMoves() == 0) {
+            return 0;
+        }
+
+        pushTurn();
+        countResult(1);
+        return turnEnds[turn] - start;
+    }
+
+    /**
+     * Plays a whole batch of precomputed games against the selected {@link MoveStrategy}, as if each game's moves
+     * were passed to {@link #addPlayerMove(int, int)} one after another on a fresh board.
+     * <p>
+     * The batch runs on its own boards: the current game and the statistics are left untouched. The computer's
+     * random choices are drawn from this session's random source.
+     *
+     * @param moves   the player's moves as cell indexes ({@code row * 3 + col}), game after game
+     * @param offsets where each game starts in {@code moves}, followed by the end of the last game
+     * @return the outcome of every game and the totals per {@link EWinner}
+     */
+    public GameBatch.Result playBatch(byte[] moves, int[] offsets) {
+        return GameBatch.play(moves, offsets, getStrategy(), random);
+    }
+
+    /**
+     * Resets all slots to the default empty character and starts a new history.
+     */
+    public void resetBoard() {
+        position.load(0, 0, firstMover);
+        version++;
+        opener = firstMover;
+        turn = 0;
+        lastTurn = 0;
+        pending = 0;
+        boardChanged();
+    }
+
+    /**
+     * A turn the AI started, such as its opening move, can't be taken back: the board would be left with the AI to
+     * move and nobody to play it.
+     *
+     * @return {@code true} if there is a turn to take back
+     */
+    public boolean canUndo() {
+        return turn > 0 && isHuman((plies[turnEnds[turn - 1]] & COMPUTER_PLY) != 0
+                ? ECharToken.COMPUTER : ECharToken.PLAYER);
+    }
+
+    /**
+     * @return {@code true} if there is a taken back turn to play again
+     */
+    public boolean canRedo() {
+        return turn < lastTurn;
+    }
+
+    /**
+     * Takes back the last turn: the human's move and the AI's replies to it. If the turn ended the game, its
+     * result is removed from the statistics again.
+     *
+     * @return {@code false} if there was nothing to take back
+     */
+    public boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+
+        countResult(-1);
 
-                return;
+        for (int ply = turnEnds[turn] - 1; ply >= turnEnds[turn - 1]; ply--) {
+            position.unmakeMove(plies[ply] & ~COMPUTER_PLY);
+        }
+        version++;
+        turn--;
+        boardChanged();
+        return true;
+    }
+
+    /**
+     * Plays a taken back turn again, exactly as it was played, and counts its result if it ends the game.
+     *
+     * @return {@code false} if there was nothing to play again
+     */
+    public boolean redo() {
+        if (!canRedo()) {
+            return false;
+        }
+
+        turn++;
+
+        for (int ply = turnEnds[turn - 1]; ply < turnEnds[turn]; ply++) {
+            position.makeMove(plies[ply] & ~COMPUTER_PLY,
+                    (plies[ply] & COMPUTER_PLY) != 0 ? ECharToken.COMPUTER : ECharToken.PLAYER);
+        }
+        version++;
+        if (events.hasSubscribers()) {
+            for (int ply = turnEnds[turn - 1]; ply < turnEnds[turn]; ply++) {
+                events.publish(new GameEvent.MoveMade(plies[ply] & ~COMPUTER_PLY,
+                        (plies[ply] & COMPUTER_PLY) != 0 ? ECharToken.COMPUTER : ECharToken.PLAYER, version));
             }
+        }
 
-            computerMove();
+        countResult(1);
+        return true;
+    }
 
-            if (isGameOver()) {
-                EWinner winner = getWinner();
-                if (winner == EWinner.PLAYER) {
-                    stats.wins++;
-                } else if (winner == EWinner.COMPUTER) {
-                    stats.loses++;
-                } else {
-                    stats.ties++;
-                }
+    /**
+     * @return the game on the board with its whole undo and redo history, in a form that can be encoded and
+     * {@link #restoreGame(GameSnapshot) restored}
+     */
+    public GameSnapshot snapshotGame() {
+        byte[] cells = new byte[turnEnds[lastTurn]];
+        for (int ply = 0; ply < cells.length; ply++) {
+            cells[ply] = (byte) (plies[ply] & ~COMPUTER_PLY);
+        }
+
+        int ends = 0;
+        for (int t = 1; t <= lastTurn; t++) {
+            ends |= 1 << turnEnds[t] - 1;
+        }
+        return new GameSnapshot(opener, cells, ends, turn);
+    }
+
+    /**
+     * Replaces the game on the board with {@code snapshot}, turns that were taken back included, as if it had
+     * been played here. Nothing is counted: a finished game was counted where it was played, so only games still
+     * in progress can be restored.
+     *
+     * @throws IllegalArgumentException if the game in the snapshot is over
+     */
+    public void restoreGame(GameSnapshot snapshot) {
+        Position restored = new Position(GEOMETRY);
+        restored.load(0, 0, snapshot.opener());
+        for (int ply = 0; ply < snapshot.pliesOnBoard(); ply++) {
+            restored.makeMove(snapshot.cell(ply), snapshot.side(ply));
+        }
+        if (restored.winner() != EWinner.NONE) {
+            throw new IllegalArgumentException("Can't restore a finished game");
+        }
+
+        position.load(restored.mask(ECharToken.PLAYER), restored.mask(ECharToken.COMPUTER), restored.sideToMove());
+        version++;
+        opener = snapshot.opener();
+        pending = 0;
+        turn = snapshot.turn();
+        lastTurn = 0;
+        turnEnds[0] = 0;
+        for (int ply = 0; ply < snapshot.plies(); ply++) {
+            plies[ply] = (byte) (snapshot.cell(ply) | (snapshot.side(ply) == ECharToken.COMPUTER ? COMPUTER_PLY : 0));
+            if (snapshot.endsTurn(ply)) {
+                turnEnds[++lastTurn] = ply + 1;
             }
         }
+        boardChanged();
     }
 
     /**
-     * Resets all slots to the default empty character
+     * Saves the game on the board, if one is in progress, so {@link #loadGame()} can resume it after a restart.
+     * Otherwise removes the saved game. The file is replaced atomically, so this can run at any time.
+     *
+     * @throws UnsupportedOperationException for an {@link #inMemory(long) in-memory} repository
      */
-    public void resetBoard() {
-        for (List<Character> row : board) {
-            row.replaceAll(character -> ECharToken.EMPTY.token());
+    public void saveGame() {
+        requireFiles();
+        try {
+            if (turnEnds[lastTurn] == 0 || isGameOver()) {
+                Files.deleteIfExists(Paths.get(GAME_FILE_NAME));
+            } else {
+                snapshotGame().writeTo(Paths.get(GAME_FILE_NAME));
+            }
+        } catch (IOException e) {
+            System.err.println("Error in saveGame function");
+            throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Resumes the game saved by {@link #saveGame()}, letting the AI move right away if it controls the side to
+     * move. A missing or unreadable file leaves the board as it is.
+     *
+     * @return {@code true} if a game was restored
+     * @throws UnsupportedOperationException for an {@link #inMemory(long) in-memory} repository
+     */
+    public boolean loadGame() {
+        requireFiles();
+        Path file = Paths.get(GAME_FILE_NAME);
+        if (Files.notExists(file)) {
+            return false;
+        }
+
+        try {
+            restoreGame(GameSnapshot.readFrom(file));
+            playAiMoves();
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error in loadGame function: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return the cell index ({@code row * 3 + col}) of every token on the board, in the order they were played
+     */
+    public int[] getMoveHistory() {
+        int[] moves = new int[turnEnds[turn]];
+        for (int ply = 0; ply < moves.length; ply++) {
+            moves[ply] = plies[ply] & ~COMPUTER_PLY;
+        }
+        return moves;
+    }
+
     /**
      * @return {@code true} if the current winner is not {@link EWinner#NONE NONE}
      */
@@ -125,7 +664,7 @@ public class Repository {
      */
     public boolean isValidMove(int row, int col) {
         if (!isGameOver()) {
-            return board.get(row).get(col) == ECharToken.EMPTY.token();
+            return position.get(row * 3 + col) == ECharToken.EMPTY;
         }
         return false;
     }
@@ -134,15 +673,7 @@ public class Repository {
      * @return {@code true} if it cannot find an open spot
      */
     public boolean isBoardFull() {
-        for (List<Character> row : board) {
-            for (Character col : row) {
-                if (col == ECharToken.EMPTY.token()) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
+        return position.mask(ECharToken.EMPTY) == 0;
     }
 
     /**
@@ -157,89 +688,44 @@ public class Repository {
      * {@link EWinner#NONE NONE} - When neither are found and the board is not full
      */
     public EWinner getWinner() {
-        boolean playerWon = false;
-        boolean computerWon = false;
-
-        StringBuilder rowStringBuilder = new StringBuilder();
-        StringBuilder colStringBuilder = new StringBuilder();
-        StringBuilder diagonalStringBuilder = new StringBuilder();
-
-        // Check verticals and horizontals
-        for (int row = 0; row < 3; row++) {
-            rowStringBuilder.setLength(0);
-            colStringBuilder.setLength(0);
-            for (int col = 0; col < 3; col++) {
-                rowStringBuilder.append(board.get(row).get(col));
-                colStringBuilder.append(board.get(col).get(row));
-            }
-
-            String rowString = rowStringBuilder.toString();
-            String colString = colStringBuilder.toString();
-
-            if (rowString.equals("XXX") || colString.equals("XXX")) {
-                playerWon = true;
-            } else if (rowString.equals("OOO") || colString.equals("OOO")) {
-                computerWon = true;
-            }
-        }
-
-        // Check diagonals
-        diagonalStringBuilder.append(board.get(1).get(1));
-
-        diagonalStringBuilder.append(board.get(0).get(0));
-        diagonalStringBuilder.append(board.get(2).get(2));
-
-        String diagonalString = diagonalStringBuilder.toString();
-        if (diagonalString.equals("XXX")) {
-            playerWon = true;
-        } else if (diagonalString.equals("OOO")) {
-            computerWon = true;
-        }
-
-        diagonalStringBuilder.setLength(1);
-        diagonalStringBuilder.append(board.get(0).get(2));
-        diagonalStringBuilder.append(board.get(2).get(0));
-
-        diagonalString = diagonalStringBuilder.toString();
-        if (diagonalString.equals("XXX")) {
-            playerWon = true;
-        } else if (diagonalString.equals("OOO")) {
-            computerWon = true;
-        }
-
-        if (playerWon) {
-            return EWinner.PLAYER;
-        } else if (computerWon) {
-            return EWinner.COMPUTER;
-        } else if (isBoardFull()) {
-            return EWinner.TIE;
-        } else {
-            return EWinner.NONE;
-        }
+        return position.winner();
     }
 
     /**
      * @return an 2D unmodifiable list version of the board
+     * <p>
+     * The lists read the live board, so they always show the current position.
      */
     public List<List<Character>> getBoard() {
-        List<List<Character>> temp = new ArrayList<>();
+        return rows;
+    }
 
-        for (List<Character> row : board) {
-            temp.add(Collections.unmodifiableList(row));
+    /**
+     * Returns an immutable view of the current board that reads its cells without copying them. The same
+     * snapshot is returned until the board changes, so readers can tell a new board by identity or
+     * {@link BoardSnapshot#version() version}.
+     *
+     * @return the snapshot of the board at its current version
+     */
+    public BoardSnapshot getBoardSnapshot() {
+        if (snapshot == null || snapshot.version() != version) {
+            snapshot = new Snapshot(new PackedBoard(GEOMETRY.size(), position.mask(ECharToken.PLAYER),
+                    position.mask(ECharToken.COMPUTER)), version);
         }
-
-        return Collections.unmodifiableList(temp);
+        return snapshot;
     }
 
     /**
      * Returns an unmodifiable 2D list representation of the current board.
+     * <p>
+     * Every call deep-copies the board; {@link #getBoardSnapshot()} gives an immutable board without copying.
      *
      * @return an immutable 2D list of characters representing the board state
      */
     public ImmutableList<ImmutableList<Character>> getImmutableBoard() {
         List<ImmutableList<Character>> temp = new ArrayList<>();
 
-        for (List<Character> row : board) {
+        for (List<Character> row : rows) {
             temp.add(ImmutableList.copyOf(row));
         }
 
@@ -247,244 +733,232 @@ public class Repository {
     }
 
     /**
-     * Creates the empty 2D list that will stand as the base object for the board.
-     * <p>
-     * This should only be called once from the constructor. All views should only need to call `getBoard` once
-     * meaning no more allocations after this function.
+     * @return the history of {@code profile}, kept by the {@link StatsStorage} for the default profile
      */
-    private void createBoard() {
-        List<Character> emptyRow = new ArrayList<>(3);
-        List<List<Character>> out = new ArrayList<>(3);
-
-        for (int i = 0; i < 3; i++) {
-            emptyRow.add(ECharToken.EMPTY.token());
+    private StatsHistory loadHistory(String profile) {
+        if (profile.equals(DEFAULT_PROFILE)) {
+            return storage.loadHistory();
         }
-
-        for (int i = 0; i < 3; i++) {
-            out.add(new ArrayList<>(emptyRow));
+        try {
+            return StatsHistory.readFrom(historyFile(profile));
+        } catch (Exception e) {
+            return new StatsHistory();
         }
+    }
 
-        board = out;
+    /**
+     * @return history-&lt;hex of the UTF-8 name&gt;.bin for the profiles other than the default one, so any profile
+     * name makes a valid file name
+     */
+    private static Path historyFile(String profile) {
+        return Paths.get("history-" + HexFormat.of().formatHex(profile.getBytes(StandardCharsets.UTF_8)) + ".bin");
     }
 
     /**
-     * Executes the computer's move on the Tic-Tac-Toe board.
-     * <p>
-     * The computer follows a basic strategy:<br>
-     * - If possible, take the center position.<br>
-     * - If a move can help the computer win, make that move.<br>
-     * - If a move can block the player from winning, make that move.<br>
-     * - If no strategic move is possible, choose a random empty position.<br>
-     * </p>
-     * If the board is in an inconsistent state and no moves are available, the method will
-     * throw an UnsupportedOperationException.
+     * Plays the AI's moves for as long as it controls the side to move and the game isn't over, without ending
+     * the turn.
      *
-     * @throws UnsupportedOperationException if no moves are available.
+     * @return the number of moves played
      */
-    private void computerMove() {
-        // Take center where can
-        if (board.get(1).get(1) == ECharToken.EMPTY.token()) {
-            board.get(1).set(1, ECharToken.COMPUTER.token());
-            return;
+    private int aiMoves() {
+        int count = 0;
+        while (!isGameOver() && !isHuman(position.sideToMove())) {
+            computerMove(position.sideToMove());
+            count++;
         }
+        return count;
+    }
 
-        int rowPos;
-        int colPos;
-        int[] pair;
-
-        // Find an offensive move
-        pair = findMove(ECharToken.COMPUTER.token(), ECharToken.PLAYER.token());
-        rowPos = pair[0];
-        colPos = pair[1];
+    /**
+     * Executes an AI move for {@code side} on the Tic-Tac-Toe board using its selected {@link MoveStrategy}.
+     * <p>
+     * If the board is in an inconsistent state and no moves are available, or the strategy picks a cell that
+     * cannot be played, the method will throw an UnsupportedOperationException.
+     *
+     * @throws UnsupportedOperationException if no valid move is returned.
+     */
+    private void computerMove(ECharToken side) {
+        MoveStrategy strategy = getStrategy(side);
+        int cell = moveCache == null
+                ? strategy.selectMove(boardView, side, random)
+                : moveCache.selectMove(strategy, boardView, side, random);
 
-        // If either is -1 then we couldn't find any "smart" moves.
-        if (rowPos != -1 && colPos != -1) {
-            board.get(rowPos).set(colPos, ECharToken.COMPUTER.token());
-            return;
+        // computerMove shouldn't be called on a full board,
+        //  so the only reason we can't find a move is because
+        //  something is wrong and our environment isn't known or predictable.
+        if (cell < 0 || cell >= 9 || position.get(cell) != ECharToken.EMPTY) {
+            throw new UnsupportedOperationException("Strategy '" + strategy.name() + "' could not find a valid move, got "
+                    + cell + ".\nBoard: " + getImmutableBoard());
         }
 
-        // Find a defensive move
-        pair = findMove(ECharToken.PLAYER.token(), ECharToken.COMPUTER.token());
-        rowPos = pair[0];
-        colPos = pair[1];
+        play(cell, side);
+    }
 
-        // If either is -1 then we couldn't find any "smart" moves.
-        if (rowPos != -1 && colPos != -1) {
-            board.get(rowPos).set(colPos, ECharToken.COMPUTER.token());
-            return;
+    /**
+     * Makes the move and logs the ply behind the current turn.
+     */
+    private void play(int cell, ECharToken side) {
+        position.makeMove(cell, side);
+        version++;
+        plies[turnEnds[turn] + pending++] = (byte) (cell | (side == ECharToken.COMPUTER ? COMPUTER_PLY : 0));
+        if (events.hasSubscribers()) {
+            events.publish(new GameEvent.MoveMade(cell, side, version));
         }
+    }
 
-        // This list will hold all empty board positions
-        List<int[]> dumbMoves = new ArrayList<>();
+    /**
+     * Ends the turn made of the plies logged since the last one, dropping any turns that were taken back.
+     */
+    private void pushTurn() {
+        turnEnds[turn + 1] = turnEnds[turn] + pending;
+        turn++;
+        lastTurn = turn;
+        pending = 0;
+    }
 
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                if (board.get(row).get(col) == ECharToken.EMPTY.token()) {
-                    dumbMoves.add(new int[]{row, col});
-                }
-            }
+    /**
+     * Adds {@code delta} to the statistics of the current result, if the game is over, and publishes the result
+     * when it is counted and the new statistics either way. A game is only taken back out if it is still counted,
+     * not after {@link #resetStats()}.
+     */
+    private void countResult(int delta) {
+        EWinner winner = getWinner();
+        if (winner == EWinner.NONE || delta < 0 && countedTurn != turn) {
+            return;
         }
 
-        // computerMove shouldn't be called on a full board,
-        //  so the only reason we can't find a smart or dumb move is because
-        //  something is wrong and our environment isn't known or predictable.
-        if (dumbMoves.isEmpty()) {
-            throw new UnsupportedOperationException("Could not find a smart or dumb move to make.\n" +
-                    "Board: " + board);
+        if (delta > 0) {
+            countedAt = System.currentTimeMillis();
+            countedTurn = turn;
+            history.record(winner, countedAt);
+        } else {
+            countedTurn = -1;
+            history.remove(winner, countedAt);
         }
 
-        // Randomly pick out a move from the list of dumbMoves
-        Random random = new Random();
-        pair = dumbMoves.get(random.nextInt(dumbMoves.size()));
-        rowPos = pair[0];
-        colPos = pair[1];
-
-        board.get(rowPos).set(colPos, ECharToken.COMPUTER.token());
-    }
+        if (winner == EWinner.PLAYER) {
+            stats.wins += delta;
+        } else if (winner == EWinner.COMPUTER) {
+            stats.loses += delta;
+        } else if (winner == EWinner.TIE) {
+            stats.ties += delta;
+        }
 
-    /**
-     * Determines the best move for the computer in a Tic-Tac-Toe game.
-     * This method analyzes the current state of the board and attempts to find
-     * a strategic move to either block the player or take the game-winning move.
-     *
-     * @param playerToken   The {@link ECharToken token} representing the player (e.g., 'X' or 'O').
-     * @param computerToken The {@link ECharToken token} representing the computer (e.g., 'X' or 'O').
-     * @return An integer array with two elements, representing the row and column
-     * indices of the best move for the computer. If no move is found, both
-     * elements of the array will be -1.
-     */
-    @Contract("_, _ -> new")
-    private int @NotNull [] findMove(Character playerToken, Character computerToken) {
-        // Move finder works defensively by finding and preventing a three in a row.
-        // playerToken is a parameter instead of hardcoding because if you give it the
-        //  computerToken, it will work offensively instead.
-
-        StringBuilder rowStringBuilder = new StringBuilder();
-        StringBuilder colStringBuilder = new StringBuilder();
-
-        // Check for vertical and horizontal
-        for (int row = 0; row < 3; row++) {
-            // Reset the string builders
-            rowStringBuilder.setLength(0);
-            colStringBuilder.setLength(0);
-            for (int col = 0; col < 3; col++) {
-                rowStringBuilder.append(board.get(row).get(col));
-                colStringBuilder.append(board.get(col).get(row));
+        if (winner == EWinner.PLAYER || winner == EWinner.COMPUTER) {
+            boolean openerWon = (winner == EWinner.PLAYER) == (opener == ECharToken.PLAYER);
+            if (openerWon) {
+                stats.openerWins += delta;
+            } else {
+                stats.responderWins += delta;
             }
+        }
 
-            // Get a char stream and call
-            //  and reduce it where each playerToken adds 1 and
-            //  each computerToken subtracts 1.
-            // This ensures that the count will be 2 only when there are 2 playerTokens and an
-            //  empty space.
-            long rowTokenCount = rowStringBuilder
-                    .chars()
-                    .reduce(0, (total, character) -> {
-                        if (character == playerToken) {
-                            return total + 1;
-                        } else if (character == computerToken) {
-                            return total - 1;
-                        }
-                        return total;
-                    });
-
-            long colTokenCount = colStringBuilder
-                    .chars()
-                    .reduce(0, (total, character) -> {
-                        if (character == playerToken) {
-                            return total + 1;
-                        } else if (character == computerToken) {
-                            return total - 1;
-                        }
-                        return total;
-                    });
-
-            // If the count is 2, then the smart move it to play a token in this line
-            if (rowTokenCount == 2) {
-                for (int col = 0; col < 3; col++) {
-                    if (board.get(row).get(col) == ECharToken.EMPTY.token()) {
-                        return new int[]{row, col};
-                    }
-                }
-
-                // Somehow the count is 2 but there isn't a free spot
-                throw new RuntimeException("Should be empty space in row " + row + " but none was found.\n" +
-                        "Board: " + board);
+        if (events.hasSubscribers()) {
+            if (delta > 0) {
+                events.publish(new GameEvent.GameOver(winner));
             }
+            statsChanged();
+        }
+    }
 
-            if (colTokenCount == 2) {
-                for (int col = 0; col < 3; col++) {
-                    if (board.get(col).get(row) == ECharToken.EMPTY.token()) {
-                        return new int[]{col, row};
-                    }
-                }
-                throw new RuntimeException("Should be empty space in col " + row + " but none was found.\n" +
-                        "Board: " + board);
-            }
+    /**
+     * Publishes the board after a change that wasn't a move, if anyone is listening.
+     */
+    private void boardChanged() {
+        if (events.hasSubscribers()) {
+            events.publish(new GameEvent.BoardChanged(getBoardSnapshot()));
         }
+    }
 
-        // Check diagonals
-        StringBuilder diagonalStringBuilder = new StringBuilder();
-        diagonalStringBuilder.append(board.get(1).get(1));
+    /**
+     * Publishes the current statistics, if anyone is listening.
+     */
+    private void statsChanged() {
+        if (events.hasSubscribers()) {
+            events.publish(GameEvent.StatsChanged.of(stats, history));
+        }
+    }
 
-        diagonalStringBuilder.append(board.get(0).get(0));
-        diagonalStringBuilder.append(board.get(2).get(2));
+    /**
+     * @throws UnsupportedOperationException if this repository is {@link #inMemory(long) in memory}
+     */
+    private void requireFiles() {
+        if (inMemory) {
+            throw new UnsupportedOperationException("In-memory repositories don't use files");
+        }
+    }
 
-        long diagonalTokenCount = diagonalStringBuilder
-                .chars()
-                .reduce(0, (total, character) -> {
-                    if (character == playerToken) {
-                        return total + 1;
-                    } else if (character == computerToken) {
-                        return total - 1;
-                    }
-                    return total;
-                });
+    /**
+     * @return 0 for the {@link ECharToken#PLAYER player} token, 1 for the {@link ECharToken#COMPUTER computer} token
+     * @throws IllegalArgumentException for {@link ECharToken#EMPTY EMPTY}
+     */
+    private static int sideIndex(ECharToken side) {
+        if (side == ECharToken.EMPTY) {
+            throw new IllegalArgumentException("EMPTY is not a side");
+        }
+        return side.ordinal();
+    }
 
-        if (diagonalTokenCount == 2) {
-            if (board.get(1).get(1) == ECharToken.EMPTY.token()) {
-                return new int[]{1, 1};
-            }
+    /**
+     * Read-only {@link BoardView} over the live board handed to the strategies, so they can't move on the
+     * repository's position. It reads the position directly and never needs to be rebuilt after a move.
+     */
+    private final class ReadOnlyBoardView implements BoardView {
+        @Override
+        public int size() {
+            return position.size();
+        }
 
-            if (board.get(0).get(0) == ECharToken.EMPTY.token()) {
-                return new int[]{0, 0};
-            }
+        @Override
+        public ECharToken get(int cell) {
+            return position.get(cell);
+        }
 
-            if (board.get(2).get(2) == ECharToken.EMPTY.token()) {
-                return new int[]{2, 2};
-            }
+        @Override
+        public long mask(ECharToken token) {
+            return position.mask(token);
         }
+    }
 
-        diagonalStringBuilder.setLength(1);
+    /**
+     * The {@link BoardSnapshot} of a packed copy of the board.
+     */
+    private record Snapshot(PackedBoard board, long version) implements BoardSnapshot {
+        @Override
+        public int size() {
+            return board.size();
+        }
 
-        diagonalStringBuilder.append(board.get(0).get(2));
-        diagonalStringBuilder.append(board.get(2).get(0));
+        @Override
+        public ECharToken get(int cell) {
+            return board.get(cell);
+        }
 
-        diagonalTokenCount = diagonalStringBuilder
-                .chars()
-                .reduce(0, (total, character) -> {
-                    if (character == playerToken) {
-                        return total + 1;
-                    } else if (character == computerToken) {
-                        return total - 1;
-                    }
-                    return total;
-                });
+        @Override
+        public long mask(ECharToken token) {
+            return board.mask(token);
+        }
+    }
 
-        if (diagonalTokenCount == 2) {
-            if (board.get(1).get(1) == ECharToken.EMPTY.token()) {
-                return new int[]{1, 1};
-            }
+    /**
+     * Unmodifiable view of one board row, read from the position on every access.
+     */
+    private final class RowView extends AbstractList<Character> implements RandomAccess {
+        private final int row;
 
-            if (board.get(0).get(2) == ECharToken.EMPTY.token()) {
-                return new int[]{0, 2};
-            }
+        RowView(int row) {
+            this.row = row;
+        }
 
-            if (board.get(2).get(0) == ECharToken.EMPTY.token()) {
-                return new int[]{2, 0};
-            }
+        @Override
+        public Character get(int col) {
+            Objects.checkIndex(col, 3);
+            return position.get(row * 3 + col).token();
         }
 
-        return new int[]{-1, -1};
+        @Override
+        public int size() {
+            return 3;
+        }
     }
 }
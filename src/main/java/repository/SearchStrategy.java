@@ -0,0 +1,571 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * A {@link MoveStrategy} running an iterative deepening alpha-beta (negamax) search over any
+ * {@link BoardGeometry geometry}.
+ * <p>
+ * Each iteration searches one ply deeper than the last, with the root moves ordered by the previous iteration's
+ * scores, until the game tree is exhausted, a forced result is found or the time budget runs out, in which case
+ * the best move of the last finished iteration is played. Positions are cached in a lock-free
+ * {@link TranspositionTable} that outlives a single call, so repeated positions are answered from the table. The
+ * table can be memory-mapped from a file to share it between processes and keep it across restarts.
+ * <p>
+ * On boards larger than 3x3 the root moves of each iteration are searched in parallel on a fork-join pool sharing
+ * the table and the best score so far. The 3x3 board is solved in microseconds and is searched on the calling
+ * thread, which keeps that path allocation-free. The pool is only started by the first such search, and the
+ * default table is only allocated by the first search, so discovering the strategy costs nothing until it is
+ * selected.
+ * <p>
+ * Table keys are the position's hash mixed with the board's size and win length, so one strategy and one table
+ * serve every geometry without equal masks on different boards colliding.
+ * <p>
+ * Each thread walks the tree on its own {@link Position}, making and unmaking moves in place, so no board is
+ * copied per node and the hash and line counts come from the position's incremental bookkeeping.
+ */
+public final class SearchStrategy implements MoveStrategy {
+    public static final String NAME = "search";
+
+    static final int WIN = 1_000_000;
+    // Scores beyond this are forced wins or losses, their distance from WIN is the number of plies to the end
+    static final int WIN_BOUND = WIN - 100;
+    private static final int INFINITY = WIN + 1;
+
+    // Check the clock every 1024 nodes
+    private static final int DEADLINE_CHECK_MASK = 1023;
+
+    private final int threads;
+    private final long budgetNanos;
+    // Creates the table on first use when none was passed in
+    private final Supplier<TranspositionTable> tableFactory;
+    private volatile TranspositionTable table;
+    private volatile ForkJoinPool pool;
+    private final ThreadLocal<Worker> workers;
+
+    /**
+     * Searches with every available core, a 500 ms budget and a table of 2^20 entries (16 MiB). If the
+     * {@code tictactoe.search.cache} system property names a file, the table is {@link TranspositionTable#open
+     * mapped from it} and shared with every other process using the same file. The table is created by the first
+     * search.
+     */
+    public SearchStrategy() {
+        this(Runtime.getRuntime().availableProcessors(), Duration.ofMillis(500), null,
+                SearchStrategy::defaultTable);
+    }
+
+    /**
+     * @param threads      the number of threads searching boards larger than 3x3
+     * @param budget       how long a single move may take
+     * @param tableEntries the number of transposition table entries
+     */
+    public SearchStrategy(int threads, Duration budget, int tableEntries) {
+        this(threads, budget, new TranspositionTable(tableEntries));
+    }
+
+    /**
+     * @param threads the number of threads searching boards larger than 3x3
+     * @param budget  how long a single move may take
+     * @param table   the transposition table, which may be shared with other strategies or processes
+     */
+    public SearchStrategy(int threads, Duration budget, TranspositionTable table) {
+        this(threads, budget, Objects.requireNonNull(table), null);
+    }
+
+    private SearchStrategy(int threads, Duration budget, TranspositionTable table,
+                           Supplier<TranspositionTable> tableFactory) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+
+        this.threads = threads;
+        this.budgetNanos = budget.toNanos();
+        this.table = table;
+        this.tableFactory = tableFactory;
+        this.workers = ThreadLocal.withInitial(() -> new Worker(table()));
+    }
+
+    /**
+     * The outcome of a search.
+     *
+     * @param move     the chosen cell, or {@code -1} if the board is full
+     * @param score    the score of the move for the side to move, above {@link #isForcedWin(int) WIN_BOUND} for a
+     *                 forced win
+     * @param depth    the depth of the last finished iteration
+     * @param nodes    the number of positions visited
+     * @param complete {@code true} if the score is exact, i.e. the tree was searched to the end
+     */
+    public record Result(int move, int score, int depth, long nodes, boolean complete) {
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int selectMove(BoardView board, ECharToken side, RandomGenerator random) {
+        Worker worker = workers.get();
+        run(board, side, worker);
+        return worker.resultMove;
+    }
+
+    /**
+     * Runs a search and reports its statistics along with the move.
+     */
+    public Result analyse(BoardView board, ECharToken side) {
+        Worker worker = workers.get();
+        long nodes = run(board, side, worker);
+        return new Result(worker.resultMove, worker.resultScore, worker.resultDepth, nodes, worker.resultComplete);
+    }
+
+    /**
+     * @return the number of threads used on boards larger than 3x3
+     */
+    public int threads() {
+        return threads;
+    }
+
+    /**
+     * @return the table caching this strategy's positions, created now if no search has created it yet
+     */
+    public TranspositionTable table() {
+        TranspositionTable created = table;
+        if (created == null) {
+            synchronized (this) {
+                created = table;
+                if (created == null) {
+                    created = tableFactory.get();
+                    table = created;
+                }
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Forgets every cached position.
+     */
+    public void clearTable() {
+        table().clear();
+    }
+
+    /**
+     * @return {@code true} if {@code score} proves a win for the side it belongs to
+     */
+    public static boolean isForcedWin(int score) {
+        return score > WIN_BOUND;
+    }
+
+    private static TranspositionTable defaultTable() {
+        String file = System.getProperty("tictactoe.search.cache");
+        if (file != null) {
+            try {
+                return TranspositionTable.open(Path.of(file), 1 << 20);
+            } catch (IOException e) {
+                System.err.println("Can't map the search cache " + file + ", searching without it: " + e.getMessage());
+            }
+        }
+        return new TranspositionTable(1 << 20);
+    }
+
+    /**
+     * Searches the position, leaving the result in {@code root}'s result fields.
+     *
+     * @return the number of nodes visited
+     */
+    private long run(BoardView board, ECharToken side, Worker root) {
+        BoardGeometry geometry = BoardGeometry.of(board);
+        long player = board.mask(ECharToken.PLAYER);
+        long computer = board.mask(ECharToken.COMPUTER);
+
+        root.prepare(geometry, System.nanoTime() + budgetNanos, player, computer, side);
+        long key = root.position.hash() ^ root.geometryKey;
+        root.resultMove = -1;
+        root.resultScore = 0;
+        root.resultDepth = 0;
+        root.resultComplete = false;
+
+        long empty = geometry.fullMask() & ~(player | computer);
+        int remaining = Long.bitCount(empty);
+        if (remaining == 0) {
+            root.resultComplete = true;
+            return 0;
+        }
+
+        // A solved root needs no search at all
+        long entry = root.table.probe(key);
+        if (entry != TranspositionTable.MISS && TranspositionTable.flag(entry) == TranspositionTable.EXACT
+                && TranspositionTable.depth(entry) >= remaining && TranspositionTable.move(entry) >= 0) {
+            root.resultMove = TranspositionTable.move(entry);
+            root.resultScore = TranspositionTable.score(entry);
+            root.resultDepth = remaining;
+            root.resultComplete = true;
+            return 1;
+        }
+
+        int[] moves = root.rootMoves;
+        int[] scores = root.rootScores;
+        int hashMove = entry == TranspositionTable.MISS ? -1 : TranspositionTable.move(entry);
+        int count = root.generate(empty, moves, hashMove);
+        root.resultMove = moves[0];
+
+        boolean parallel = threads > 1 && geometry.size() > 3 && count > 1;
+        long nodes = 0;
+
+        for (int depth = 1; depth <= remaining; depth++) {
+            long iterationNodes = parallel
+                    ? searchRootParallel(root, player, computer, side, depth, moves, scores, count)
+                    : searchRoot(root, depth, moves, scores, count);
+            nodes += iterationNodes;
+
+            if (root.aborted) {
+                break;
+            }
+
+            sortByScore(moves, scores, count);
+            root.resultMove = moves[0];
+            root.resultScore = scores[0];
+            root.resultDepth = depth;
+
+            // A forced result can't change with more depth
+            if (depth == remaining || Math.abs(scores[0]) > WIN_BOUND) {
+                root.resultComplete = true;
+                root.table.store(key, scores[0], remaining, TranspositionTable.EXACT, moves[0]);
+                break;
+            }
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Searches every root move on the calling thread.
+     *
+     * @return the number of nodes visited
+     */
+    private static long searchRoot(Worker worker, int depth, int[] moves, int[] scores, int count) {
+        long start = worker.nodes;
+        int alpha = -INFINITY;
+
+        for (int i = 0; i < count; i++) {
+            int score = worker.searchMove(moves[i], depth, alpha);
+            if (worker.aborted) {
+                break;
+            }
+
+            scores[i] = score;
+            alpha = Math.max(alpha, score);
+        }
+
+        return worker.nodes - start;
+    }
+
+    /**
+     * Searches the root moves in parallel, one fork-join task per move, sharing the best score found so far as
+     * the alpha bound of the tasks that have not started yet.
+     *
+     * @return the number of nodes visited
+     */
+    private long searchRootParallel(Worker root, long player, long computer, ECharToken side, int depth,
+                                    int[] moves, int[] scores, int count) {
+        AtomicInteger alpha = new AtomicInteger(-INFINITY);
+        RootTask[] tasks = new RootTask[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new RootTask(root, player, computer, side, depth, moves[i], alpha);
+        }
+
+        pool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            nodes += tasks[i].nodes;
+            scores[i] = tasks[i].score;
+            root.aborted |= tasks[i].aborted;
+        }
+        return nodes;
+    }
+
+    /**
+     * @return the pool searching root moves in parallel, started by the first search that needs it
+     */
+    private ForkJoinPool pool() {
+        ForkJoinPool started = pool;
+        if (started == null) {
+            synchronized (this) {
+                started = pool;
+                if (started == null) {
+                    started = new ForkJoinPool(threads);
+                    pool = started;
+                }
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Stable insertion sort of the root moves by descending score.
+     */
+    private static void sortByScore(int[] moves, int[] scores, int count) {
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    /**
+     * @return what the table keys of positions on {@code geometry} are mixed with, so equal masks on boards of
+     * another size or win length never share an entry, as in {@link MoveCache#key}
+     */
+    static long geometryKey(BoardGeometry geometry) {
+        return (long) geometry.size() << 56 | (long) geometry.winLength() << 48;
+    }
+
+    /**
+     * Searches a single root move on whichever pool thread picks it up.
+     */
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private final class RootTask extends RecursiveAction {
+        private final Worker root;
+        private final long player;
+        private final long computer;
+        private final ECharToken side;
+        private final int depth;
+        private final int move;
+        private final AtomicInteger alpha;
+
+        private int score;
+        private long nodes;
+        private boolean aborted;
+
+        RootTask(Worker root, long player, long computer, ECharToken side, int depth, int move,
+                 AtomicInteger alpha) {
+            this.root = root;
+            this.player = player;
+            this.computer = computer;
+            this.side = side;
+            this.depth = depth;
+            this.move = move;
+            this.alpha = alpha;
+        }
+
+        @Override
+        protected void compute() {
+            Worker worker = workers.get();
+            worker.prepare(root.position.geometry(), root.deadline, player, computer, side);
+
+            long start = worker.nodes;
+            score = worker.searchMove(move, depth, alpha.get());
+            nodes = worker.nodes - start;
+            aborted = worker.aborted;
+
+            alpha.accumulateAndGet(score, Math::max);
+        }
+    }
+
+    /**
+     * Per-thread search state: the position being searched, the move buffers of every ply and the node counter,
+     * allocated once per thread and geometry.
+     */
+    private static final class Worker {
+        private final TranspositionTable table;
+        private final int[][] moves = new int[Long.SIZE + 1][Long.SIZE];
+        private final int[] rootMoves = new int[Long.SIZE];
+        private final int[] rootScores = new int[Long.SIZE];
+
+        private Position position;
+        private long geometryKey;
+        private long deadline;
+        private boolean aborted;
+        private long nodes;
+
+        private int resultMove;
+        private int resultScore;
+        private int resultDepth;
+        private boolean resultComplete;
+
+        Worker(TranspositionTable table) {
+            this.table = table;
+        }
+
+        void prepare(BoardGeometry geometry, long deadline, long player, long computer, ECharToken toMove) {
+            if (position == null || position.geometry() != geometry) {
+                position = new Position(geometry);
+                geometryKey = geometryKey(geometry);
+            }
+            position.load(player, computer, toMove);
+            this.deadline = deadline;
+            this.aborted = false;
+        }
+
+        /**
+         * Fills {@code out} with the cells of {@code empty}, {@code first} (if any) leading and the rest in the
+         * geometry's static order.
+         *
+         * @return the number of moves
+         */
+        int generate(long empty, int[] out, int first) {
+            BoardGeometry geometry = position.geometry();
+            int count = 0;
+            if (first >= 0 && (empty & (1L << first)) != 0) {
+                out[count++] = first;
+            }
+
+            for (int i = 0; i < geometry.cells(); i++) {
+                int cell = geometry.orderedCell(i);
+                if (cell != first && (empty & (1L << cell)) != 0) {
+                    out[count++] = cell;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Scores a root move with a window of ({@code alpha}, infinity).
+         */
+        int searchMove(int move, int depth, int alpha) {
+            ECharToken side = position.sideToMove();
+            position.makeMove(move, side);
+
+            int score = position.hasWon(side) ? WIN
+                    : towardsZero(-negamax(depth - 1, -INFINITY, -alpha, 1));
+            position.unmakeMove(move);
+            return score;
+        }
+
+        /**
+         * Scores the position for the side to move, whose opponent's last move did not win.
+         *
+         * @param ply the distance from the root, which indexes the move buffers
+         */
+        private int negamax(int depth, int alpha, int beta, int ply) {
+            if ((++nodes & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() - deadline > 0) {
+                aborted = true;
+            }
+            if (aborted) {
+                return 0;
+            }
+
+            long empty = position.mask(ECharToken.EMPTY);
+            int remaining = Long.bitCount(empty);
+            if (remaining == 0) {
+                return 0;
+            }
+
+            depth = Math.min(depth, remaining);
+            if (depth == 0) {
+                return evaluate();
+            }
+
+            long key = position.hash() ^ geometryKey;
+            int originalAlpha = alpha;
+            int hashMove = -1;
+            long entry = table.probe(key);
+            if (entry != TranspositionTable.MISS) {
+                hashMove = TranspositionTable.move(entry);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int score = TranspositionTable.score(entry);
+                    switch (TranspositionTable.flag(entry)) {
+                        case TranspositionTable.EXACT -> {
+                            return score;
+                        }
+                        case TranspositionTable.LOWER -> alpha = Math.max(alpha, score);
+                        default -> beta = Math.min(beta, score);
+                    }
+                    if (alpha >= beta) {
+                        return score;
+                    }
+                }
+            }
+
+            ECharToken side = position.sideToMove();
+            int[] moves = this.moves[ply];
+            int count = generate(empty, moves, hashMove);
+            int best = -INFINITY;
+            int bestMove = moves[0];
+
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                position.makeMove(move, side);
+
+                int score = position.hasWon(side) ? WIN
+                        : towardsZero(-negamax(depth - 1, -beta, -alpha, ply + 1));
+                position.unmakeMove(move);
+
+                if (aborted) {
+                    return 0;
+                }
+
+                if (score > best) {
+                    best = score;
+                    bestMove = move;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+
+            int flag = best <= originalAlpha ? TranspositionTable.UPPER
+                    : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(key, best, depth, flag, bestMove);
+            return best;
+        }
+
+        /**
+         * Static evaluation of an unfinished position for the side to move: every line still open to one side
+         * scores for it, growing fourfold with each token already on it.
+         */
+        private int evaluate() {
+            ECharToken own = position.sideToMove();
+            ECharToken theirs = own == ECharToken.PLAYER ? ECharToken.COMPUTER : ECharToken.PLAYER;
+
+            int score = 0;
+            for (int line = 0; line < position.geometry().lineCount(); line++) {
+                int ownTokens = position.lineTokens(line, own);
+                int theirTokens = position.lineTokens(line, theirs);
+                if (theirTokens == 0) {
+                    score += 1 << 2 * ownTokens;
+                } else if (ownTokens == 0) {
+                    score -= 1 << 2 * theirTokens;
+                }
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Moves forced results one step towards zero per ply, so that quicker wins and slower losses score better.
+     */
+    private static int towardsZero(int score) {
+        if (score > WIN_BOUND) {
+            return score - 1;
+        } else if (score < -WIN_BOUND) {
+            return score + 1;
+        }
+        return score;
+    }
+}
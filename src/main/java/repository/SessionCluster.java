@@ -0,0 +1,198 @@
+package repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hosts games on several {@link SessionNode nodes}, routing each game id to its node through a
+ * {@link ConsistentHashRing}.
+ * <p>
+ * When a node joins, the games whose ids now hash to it move there from their old nodes; when a node leaves, its
+ * games move to the nodes now owning them. Either way about {@code 1 / nodes} of the games move, each as the few
+ * bytes of its {@link GameSnapshot}, and resumes with the same board, turn and undo history. The snapshot doesn't
+ * carry the computer's random generator, which the new node seeds afresh from the game id, so after a migration the
+ * computer may pick other moves among equally good ones than it would have. The nodes here are in-process, but
+ * they only ever exchange those bytes, so the same moves work between processes.
+ * <p>
+ * Moves are routed under a read lock, so nodes serve them in parallel; a membership change takes the write lock,
+ * so no move sees a game in transit.
+ */
+public final class SessionCluster {
+    /**
+     * Points per node on the ring, enough to keep the shares of a few nodes within a few percent of even.
+     */
+    public static final int VIRTUAL_NODES = 128;
+
+    private final long seed;
+    private final ConsistentHashRing ring = new ConsistentHashRing(VIRTUAL_NODES);
+    private final Map<String, SessionNode> nodes = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long migrations;
+    private long migratedBytes;
+
+    /**
+     * @param seed the seed the computer's random choices in every game are derived from
+     */
+    public SessionCluster(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Adds a node and moves the games it now owns to it.
+     *
+     * @throws IllegalArgumentException if a node of that name is already in the cluster
+     */
+    public void addNode(String name) {
+        lock.writeLock().lock();
+        try {
+            if (!ring.add(name)) {
+                throw new IllegalArgumentException("Node " + name + " is already in the cluster");
+            }
+            SessionNode added = new SessionNode(name, seed);
+            nodes.put(name, added);
+
+            for (SessionNode node : nodes.values()) {
+                if (node != added) {
+                    migrate(node, node.gameIds());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a node and moves its games to the nodes now owning them.
+     *
+     * @throws IllegalArgumentException if there is no node of that name
+     * @throws IllegalStateException    if it is the last node and still hosts games
+     */
+    public void removeNode(String name) {
+        lock.writeLock().lock();
+        try {
+            SessionNode removed = nodes.get(name);
+            if (removed == null) {
+                throw new IllegalArgumentException("No node " + name + " in the cluster");
+            }
+            if (nodes.size() == 1 && removed.sessions() > 0) {
+                throw new IllegalStateException("The last node still hosts " + removed.sessions() + " games");
+            }
+
+            ring.remove(name);
+            nodes.remove(name);
+            migrate(removed, removed.gameIds());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Plays the human's move in the game {@code gameId} on its node, see {@link SessionNode#play(String, int, int)}.
+     *
+     * @return the result of the game after the move, {@link EWinner#NONE NONE} while it goes on
+     * @throws IllegalArgumentException if the move is illegal
+     * @throws IllegalStateException    if the cluster has no nodes
+     */
+    public EWinner play(String gameId, int row, int col) {
+        lock.readLock().lock();
+        try {
+            return owner(gameId).play(gameId, row, col);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the game {@code gameId} as it stands, or {@code null} if it isn't in progress
+     */
+    public GameSnapshot snapshot(String gameId) {
+        lock.readLock().lock();
+        try {
+            return owner(gameId).snapshot(gameId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the name of the node hosting {@code gameId}
+     * @throws IllegalStateException if the cluster has no nodes
+     */
+    public String nodeFor(String gameId) {
+        lock.readLock().lock();
+        try {
+            return ring.nodeFor(gameId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the node of that name, or {@code null}
+     */
+    public SessionNode node(String name) {
+        lock.readLock().lock();
+        try {
+            return nodes.get(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the names of the nodes, in the order they joined
+     */
+    public List<String> nodes() {
+        lock.readLock().lock();
+        try {
+            return List.copyOf(ring.nodes());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of games moved between nodes so far
+     */
+    public long migrations() {
+        lock.readLock().lock();
+        try {
+            return migrations;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of snapshot bytes those games took
+     */
+    public long migratedBytes() {
+        lock.readLock().lock();
+        try {
+            return migratedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the games of {@code from} that it no longer owns to their owners. Runs under the write lock.
+     */
+    private void migrate(SessionNode from, List<String> gameIds) {
+        for (String gameId : gameIds) {
+            SessionNode to = owner(gameId);
+            if (to != from) {
+                byte[] snapshot = from.release(gameId);
+                to.adopt(gameId, snapshot);
+                migrations++;
+                migratedBytes += snapshot.length;
+            }
+        }
+    }
+
+    private SessionNode owner(String gameId) {
+        return nodes.get(ring.nodeFor(gameId));
+    }
+}
@@ -0,0 +1,102 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One node of a {@link SessionCluster}: the games it hosts, each an {@link Repository#inMemory(long) in-memory}
+ * {@link Repository} with the human on the {@link ECharToken#PLAYER player} token, keyed by game id.
+ * <p>
+ * A node stands in for one server process, so it handles one request at a time: every method is synchronized on
+ * the node, and nodes run in parallel. A game ends its session when it is over, and the node only counts its result.
+ * Sessions leave and join a node as {@link GameSnapshot} bytes, the same bytes a remote node would receive.
+ */
+public final class SessionNode {
+    private final String name;
+    private final long seed;
+    private final Map<String, Repository> sessions = new HashMap<>();
+    private final long[] finished = new long[3];
+
+    SessionNode(String name, long seed) {
+        this.name = name;
+        this.seed = seed;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Plays the human's move in the game {@code gameId}, starting the game if the node doesn't host it, and lets
+     * the computer answer. A move that ends the game ends its session.
+     *
+     * @return the result of the game after the move, {@link EWinner#NONE NONE} while it goes on
+     * @throws IllegalArgumentException if the cell is taken or off the board
+     */
+    synchronized EWinner play(String gameId, int row, int col) {
+        Repository session = sessions.computeIfAbsent(gameId, this::newSession);
+        if (row < 0 || row > 2 || col < 0 || col > 2 || !session.isValidMove(row, col)) {
+            throw new IllegalArgumentException("Illegal move " + row + "," + col + " in game " + gameId);
+        }
+
+        session.addPlayerMove(row, col);
+        EWinner winner = session.getWinner();
+        if (winner != EWinner.NONE) {
+            sessions.remove(gameId);
+            finished[winner.ordinal()]++;
+        }
+        return winner;
+    }
+
+    /**
+     * @return the game {@code gameId} as it stands, or {@code null} if the node doesn't host it
+     */
+    synchronized GameSnapshot snapshot(String gameId) {
+        Repository session = sessions.get(gameId);
+        return session == null ? null : session.snapshotGame();
+    }
+
+    /**
+     * @return the number of games the node hosts
+     */
+    public synchronized int sessions() {
+        return sessions.size();
+    }
+
+    /**
+     * @return the number of games finished on this node with {@code winner}
+     */
+    public synchronized long finished(EWinner winner) {
+        return winner == EWinner.NONE ? 0 : finished[winner.ordinal()];
+    }
+
+    synchronized List<String> gameIds() {
+        return new ArrayList<>(sessions.keySet());
+    }
+
+    /**
+     * Ends the session of {@code gameId} here, to be {@link #adopt(String, byte[]) adopted} by another node.
+     *
+     * @return the encoded {@link GameSnapshot} of the game
+     */
+    synchronized byte[] release(String gameId) {
+        return sessions.remove(gameId).snapshotGame().toBytes();
+    }
+
+    /**
+     * Resumes a game {@link #release(String) released} by another node, with a random generator seeded afresh.
+     *
+     * @throws IllegalArgumentException if {@code snapshot} doesn't hold a game in progress
+     */
+    synchronized void adopt(String gameId, byte[] snapshot) {
+        Repository session = newSession(gameId);
+        session.restoreGame(GameSnapshot.fromBytes(snapshot));
+        sessions.put(gameId, session);
+    }
+
+    private Repository newSession(String gameId) {
+        return Repository.inMemory(seed ^ ConsistentHashRing.hash(gameId));
+    }
+}
@@ -7,6 +7,9 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -15,17 +18,32 @@ import java.util.Arrays;
 /**
  * The Statistics class encapsulates the statistics of a game including wins, losses, and ties.
  * It provides functionalities to initialize, load from file, and save to file.
+ * <p>
+ * {@code wins} and {@code loses} count the games won by the {@link ECharToken#PLAYER player} and the
+ * {@link ECharToken#COMPUTER computer} token, whoever controlled them. The same decisive games are also split by
+ * side to move: {@code openerWins} for the side that moved first and {@code responderWins} for the other.
+ * <p>
+ * Next to the JAXB file format, {@link #toBytes()} and {@link #fromBytes(byte[])} give a fixed-size binary encoding
+ * that needs no reflection, for {@link StatsStorage#binary(Path) binary storage}.
  */
 @XmlRootElement
 public class Statistics {
+    private static final int MAGIC = 0x54545354; // "TTST"
+    private static final int VERSION = 1;
+    private static final int ENCODED_SIZE = 7 * Integer.BYTES;
+
     public int wins;
     public int loses;
     public int ties;
+    public int openerWins;
+    public int responderWins;
 
     public Statistics() {
         wins = 0;
         loses = 0;
         ties = 0;
+        openerWins = 0;
+        responderWins = 0;
     }
 
     public Statistics(int wins, int loses, int ties) {
@@ -34,6 +52,12 @@ public class Statistics {
         this.ties = ties;
     }
 
+    public Statistics(int wins, int loses, int ties, int openerWins, int responderWins) {
+        this(wins, loses, ties);
+        this.openerWins = openerWins;
+        this.responderWins = responderWins;
+    }
+
     /**
      * Loads the statistics from the default file "stats.txt".
      *
@@ -121,4 +145,31 @@ public class Statistics {
             System.err.println(Arrays.toString(e.getStackTrace()));
         }
     }
+
+    /**
+     * @return the counters in a little-endian encoding of {@value #ENCODED_SIZE} bytes, read back by
+     * {@link #fromBytes(byte[])}
+     */
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(ENCODED_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC).putInt(VERSION)
+                .putInt(wins).putInt(loses).putInt(ties).putInt(openerWins).putInt(responderWins)
+                .array();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code bytes} weren't written by {@link #toBytes()}
+     */
+    public static Statistics fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IllegalArgumentException("Not version " + VERSION + " binary statistics");
+            }
+            return new Statistics(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                    buffer.getInt());
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Binary statistics are truncated", e);
+        }
+    }
 }
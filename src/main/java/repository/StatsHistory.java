@@ -0,0 +1,340 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Recent form next to the lifetime totals of {@link Statistics}: the results of the last games and the results per
+ * hour and per day.
+ * <p>
+ * The last games are a ring of one byte per result with a running count per {@link EWinner}, so the win rate over
+ * the window is read in constant time. The hourly and daily {@link Buckets} are rings of three {@code int}
+ * counters per bucket; moving on to a new hour or day clears the buckets that fell out of the window, at most the
+ * whole ring however long the history was idle, and never touches the games behind the counts. The whole history
+ * serializes to under a kilobyte with {@link #toBytes()}.
+ * <p>
+ * Times are epoch milliseconds passed in by the caller, so a history can be replayed and tested without a clock.
+ * It is not thread-safe.
+ */
+public final class StatsHistory {
+    /**
+     * Number of most recent games kept.
+     */
+    public static final int GAMES = 100;
+    public static final int HOURS = 24;
+    public static final int DAYS = 30;
+
+    static final long HOUR_MILLIS = 3_600_000L;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+    private static final int MAGIC = 0x54545348; // "TTSH"
+    private static final int VERSION = 1;
+
+    // games[(first + i) % GAMES] is the EWinner ordinal of the i-th oldest game in the window
+    private final byte[] games = new byte[GAMES];
+    private int first;
+    private int count;
+    // Ordinal of the game the last record pushed out of a full window, so remove can bring it back, else -1
+    private int evicted = -1;
+    private final int[] recent = new int[3];
+
+    private final Buckets hourly = new Buckets(HOURS, HOUR_MILLIS);
+    private final Buckets daily = new Buckets(DAYS, DAY_MILLIS);
+
+    public StatsHistory() {
+    }
+
+    /**
+     * Creates a copy of {@code other}.
+     */
+    public StatsHistory(StatsHistory other) {
+        System.arraycopy(other.games, 0, games, 0, GAMES);
+        first = other.first;
+        count = other.count;
+        evicted = other.evicted;
+        System.arraycopy(other.recent, 0, recent, 0, recent.length);
+        hourly.copy(other.hourly);
+        daily.copy(other.daily);
+    }
+
+    /**
+     * Counts a finished game.
+     *
+     * @param winner the result, {@link EWinner#NONE NONE} is ignored
+     * @param millis when the game ended
+     */
+    public void record(EWinner winner, long millis) {
+        if (winner == EWinner.NONE) {
+            return;
+        }
+
+        evicted = -1;
+        if (count == GAMES) {
+            evicted = games[first];
+            recent[evicted]--;
+            first = (first + 1) % GAMES;
+            count--;
+        }
+        games[(first + count) % GAMES] = (byte) winner.ordinal();
+        count++;
+        recent[winner.ordinal()]++;
+
+        hourly.add(winner, millis, 1);
+        daily.add(winner, millis, 1);
+    }
+
+    /**
+     * Takes back the most recently {@link #record(EWinner, long) recorded} game, as when it is undone. If recording
+     * it pushed the oldest game out of a full window, that game is put back; only the last record is remembered
+     * this way, and not across {@link #toBytes()}, so removing more than one game in a row leaves the window short.
+     *
+     * @param winner the result it was recorded with
+     * @param millis the time it was recorded with; buckets that already left the window are not touched
+     * @throws IllegalArgumentException if the last game in the window isn't {@code winner}
+     */
+    public void remove(EWinner winner, long millis) {
+        if (winner == EWinner.NONE) {
+            return;
+        }
+
+        int last = (first + count - 1) % GAMES;
+        if (count == 0 || games[last] != winner.ordinal()) {
+            throw new IllegalArgumentException("The last recorded game is not a " + winner);
+        }
+        count--;
+        recent[winner.ordinal()]--;
+        if (evicted >= 0) {
+            first = (first + GAMES - 1) % GAMES;
+            games[first] = (byte) evicted;
+            count++;
+            recent[evicted]++;
+            evicted = -1;
+        }
+
+        hourly.add(winner, millis, -1);
+        daily.add(winner, millis, -1);
+    }
+
+    /**
+     * @return the number of games in the recent window, at most {@value #GAMES}
+     */
+    public int recentGames() {
+        return count;
+    }
+
+    /**
+     * @return the number of games in the recent window that ended with {@code winner}
+     */
+    public int recent(EWinner winner) {
+        return winner == EWinner.NONE ? 0 : recent[winner.ordinal()];
+    }
+
+    /**
+     * @return the share of the recent games the {@link EWinner#PLAYER player} token won, 0 without games
+     */
+    public double recentWinRate() {
+        return count == 0 ? 0 : (double) recent[EWinner.PLAYER.ordinal()] / count;
+    }
+
+    /**
+     * @return what the UI shows of this history, immutable and detached from it
+     */
+    public RecentForm recentForm() {
+        return new RecentForm(recent.clone(), hourly.newest, hourly.counts.clone());
+    }
+
+    /**
+     * @return the results of the last {@value #HOURS} hours
+     */
+    public Buckets hourly() {
+        return hourly;
+    }
+
+    /**
+     * @return the results of the last {@value #DAYS} days
+     */
+    public Buckets daily() {
+        return daily;
+    }
+
+    /**
+     * Results per time bucket over a window of consecutive buckets ending with the newest one recorded.
+     */
+    public static final class Buckets {
+        private final int size;
+        private final long unitMillis;
+        // counts[slot * 3 + EWinner ordinal], bucket index b lives in slot b % size
+        private final int[] counts;
+        // Index of the newest bucket, millis / unitMillis
+        private long newest = Long.MIN_VALUE;
+
+        private Buckets(int size, long unitMillis) {
+            this.size = size;
+            this.unitMillis = unitMillis;
+            this.counts = new int[size * 3];
+        }
+
+        /**
+         * @return the number of buckets in the window
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return the length of one bucket in milliseconds
+         */
+        public long unitMillis() {
+            return unitMillis;
+        }
+
+        /**
+         * Reads one bucket without rolling the window over, so stale buckets read as empty.
+         *
+         * @param ago    0 for the bucket holding {@code now}, 1 for the one before, up to {@code size() - 1}
+         * @param winner the result to count
+         * @param now    the current time in epoch milliseconds
+         * @return the number of games ending with {@code winner} in that bucket
+         */
+        public int count(int ago, EWinner winner, long now) {
+            return count(counts, newest, unitMillis, ago, winner, now);
+        }
+
+        /**
+         * @return the number of games of every result in the bucket {@code ago} buckets before {@code now}
+         */
+        public int games(int ago, long now) {
+            return games(counts, newest, unitMillis, ago, now);
+        }
+
+        /**
+         * Reads a bucket of a ring laid out like {@link #counts}, also for the copies {@link RecentForm} keeps.
+         *
+         * @param newest the index of the newest bucket of the ring
+         */
+        static int count(int[] counts, long newest, long unitMillis, int ago, EWinner winner, long now) {
+            int size = counts.length / 3;
+            long index = Math.floorDiv(now, unitMillis) - ago;
+            if (winner == EWinner.NONE || ago < 0 || ago >= size || index > newest || index <= newest - size) {
+                return 0;
+            }
+            return counts[(int) Math.floorMod(index, (long) size) * 3 + winner.ordinal()];
+        }
+
+        static int games(int[] counts, long newest, long unitMillis, int ago, long now) {
+            return count(counts, newest, unitMillis, ago, EWinner.PLAYER, now)
+                    + count(counts, newest, unitMillis, ago, EWinner.COMPUTER, now)
+                    + count(counts, newest, unitMillis, ago, EWinner.TIE, now);
+        }
+
+        private void add(EWinner winner, long millis, int delta) {
+            long index = Math.floorDiv(millis, unitMillis);
+            if (index > newest) {
+                // Clears the buckets skipped since the newest one, at most the whole ring
+                long cleared = newest == Long.MIN_VALUE ? size : Math.min(index - newest, size);
+                for (long i = index - cleared + 1; i <= index; i++) {
+                    Arrays.fill(counts, slot(i) * 3, slot(i) * 3 + 3, 0);
+                }
+                newest = index;
+            } else if (index <= newest - size) {
+                return;
+            }
+            counts[slot(index) * 3 + winner.ordinal()] += delta;
+        }
+
+        private int slot(long index) {
+            return (int) Math.floorMod(index, (long) size);
+        }
+
+        private void copy(Buckets other) {
+            System.arraycopy(other.counts, 0, counts, 0, counts.length);
+            newest = other.newest;
+        }
+
+        private void write(ByteBuffer buffer) {
+            buffer.putLong(newest);
+            for (int c : counts) {
+                buffer.putInt(c);
+            }
+        }
+
+        private void read(ByteBuffer buffer) {
+            newest = buffer.getLong();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buffer.getInt();
+            }
+        }
+    }
+
+    /**
+     * @return the history in a compact little-endian encoding read back by {@link #fromBytes(byte[])}
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize()).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(count);
+        for (int i = 0; i < count; i++) {
+            buffer.put(games[(first + i) % GAMES]);
+        }
+        hourly.write(buffer);
+        daily.write(buffer);
+        return buffer.array();
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code bytes} isn't a history written by {@link #toBytes()}
+     */
+    public static StatsHistory fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        StatsHistory history = new StatsHistory();
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IllegalArgumentException("Not a version " + VERSION + " stats history");
+            }
+
+            int count = buffer.getInt();
+            if (count < 0 || count > GAMES) {
+                throw new IllegalArgumentException("Invalid number of recent games " + count);
+            }
+            for (int i = 0; i < count; i++) {
+                byte winner = buffer.get();
+                if (winner < 0 || winner > EWinner.TIE.ordinal()) {
+                    throw new IllegalArgumentException("Invalid result " + winner);
+                }
+                history.games[i] = winner;
+                history.recent[winner]++;
+            }
+            history.count = count;
+
+            history.hourly.read(buffer);
+            history.daily.read(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Stats history is truncated", e);
+        }
+        return history;
+    }
+
+    /**
+     * Replaces {@code file} with the {@link #toBytes() encoded} history, see {@link AtomicFiles#write(Path, byte[])}.
+     *
+     * @throws IOException if the file can't be written
+     */
+    public void writeTo(Path file) throws IOException {
+        AtomicFiles.write(file, toBytes());
+    }
+
+    /**
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if it doesn't hold a history
+     */
+    public static StatsHistory readFrom(Path file) throws IOException {
+        return fromBytes(Files.readAllBytes(file));
+    }
+
+    private int encodedSize() {
+        return 3 * Integer.BYTES + count + 2 * Long.BYTES + (HOURS + DAYS) * 3 * Integer.BYTES;
+    }
+}
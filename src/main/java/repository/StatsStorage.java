@@ -0,0 +1,173 @@
+package repository;
+
+import javax.xml.bind.JAXBException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Where a {@link Repository} keeps the lifetime {@link Statistics} of its default profile, and the
+ * {@link StatsHistory} of its recent form beside them, so repositories on different storage never share a history.
+ * <p>
+ * {@link #xml(Path)} is the JAXB file the UI has always used. {@link #binary(Path)} stores the fixed-size
+ * {@link Statistics#toBytes() binary encoding} instead and uses no reflection at all, so a headless build that only
+ * ever creates binary storage can be compiled ahead of time into a native image without JAXB metadata.
+ */
+public interface StatsStorage {
+    /**
+     * @return the stored statistics, all zero if there are none or they can't be read
+     */
+    Statistics load();
+
+    /**
+     * Stores {@code stats}, reporting failures on standard error like {@link Statistics#saveToFile(String)}.
+     */
+    void save(Statistics stats);
+
+    /**
+     * Deletes the stored statistics if there are any.
+     *
+     * @throws IOException if they exist but can't be deleted
+     */
+    void delete() throws IOException;
+
+    /**
+     * @return the stored history, empty if there is none or it can't be read
+     */
+    StatsHistory loadHistory();
+
+    /**
+     * Stores {@code history}.
+     *
+     * @throws IOException if it can't be written
+     */
+    void saveHistory(StatsHistory history) throws IOException;
+
+    /**
+     * Deletes the stored history if there is one.
+     *
+     * @throws IOException if it exists but can't be deleted
+     */
+    void deleteHistory() throws IOException;
+
+    /**
+     * @return storage in the JAXB XML format of {@link Statistics#saveToFile(String)}, with the history
+     * {@link #historyBeside(Path) beside it}
+     */
+    static StatsStorage xml(Path file) {
+        return xml(file, historyBeside(file));
+    }
+
+    /**
+     * @return storage in the JAXB XML format of {@link Statistics#saveToFile(String)}, with the history in
+     * {@code historyFile}
+     */
+    static StatsStorage xml(Path file, Path historyFile) {
+        return new FileHistoryStorage(historyFile) {
+            @Override
+            public Statistics load() {
+                try {
+                    return Statistics.loadFromFile(file.toString());
+                } catch (JAXBException | RuntimeException e) {
+                    return new Statistics();
+                }
+            }
+
+            @Override
+            public void save(Statistics stats) {
+                stats.saveToFile(file.toString());
+            }
+
+            @Override
+            public void delete() throws IOException {
+                Files.deleteIfExists(file);
+            }
+        };
+    }
+
+    /**
+     * @return reflection-free storage in the binary format of {@link Statistics#toBytes()}, replaced atomically on
+     * every save, with the history {@link #historyBeside(Path) beside it}
+     */
+    static StatsStorage binary(Path file) {
+        return new FileHistoryStorage(historyBeside(file)) {
+            @Override
+            public Statistics load() {
+                try {
+                    return Statistics.fromBytes(Files.readAllBytes(file));
+                } catch (IOException | IllegalArgumentException e) {
+                    return new Statistics();
+                }
+            }
+
+            @Override
+            public void save(Statistics stats) {
+                try {
+                    AtomicFiles.write(file, stats.toBytes());
+                } catch (IOException e) {
+                    System.err.println("Error writing stats to file");
+                    System.err.println(e.getMessage());
+                }
+            }
+
+            @Override
+            public void delete() throws IOException {
+                Files.deleteIfExists(file);
+            }
+        };
+    }
+
+    /**
+     * @return storage that only keeps the statistics in memory, starting from zero
+     */
+    static StatsStorage memory() {
+        return new StatsStorage() {
+            private Statistics stored = new Statistics();
+            private StatsHistory storedHistory = new StatsHistory();
+
+            @Override
+            public Statistics load() {
+                return copy(stored);
+            }
+
+            @Override
+            public void save(Statistics stats) {
+                stored = copy(stats);
+            }
+
+            @Override
+            public void delete() {
+                stored = new Statistics();
+            }
+
+            @Override
+            public StatsHistory loadHistory() {
+                return new StatsHistory(storedHistory);
+            }
+
+            @Override
+            public void saveHistory(StatsHistory history) {
+                storedHistory = new StatsHistory(history);
+            }
+
+            @Override
+            public void deleteHistory() {
+                storedHistory = new StatsHistory();
+            }
+
+            private static Statistics copy(Statistics stats) {
+                return new Statistics(stats.wins, stats.loses, stats.ties, stats.openerWins, stats.responderWins);
+            }
+        };
+    }
+
+    /**
+     * @return the sibling of {@code statsFile} the history is kept in: its name without the extension, followed by
+     * {@code -history.bin}
+     */
+    static Path historyBeside(Path statsFile) {
+        String name = statsFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return statsFile.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + "-history.bin");
+    }
+}
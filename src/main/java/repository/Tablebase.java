@@ -0,0 +1,196 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * A win/draw/loss table of every position of a small {@link BoardGeometry geometry}, built by
+ * {@link TablebaseGenerator} and usually read straight from a memory-mapped file.
+ * <p>
+ * Positions are indexed by a perfect hash, the base-3 number whose digit {@code i} is 0 for an empty cell
+ * {@code i}, 1 for the first mover's token and 2 for the second mover's token. Each index holds a 2-bit value for
+ * the side to move, so a 4x4 table takes 3^16 / 4 bytes, about 10 MiB. Tokens are described as first and second
+ * mover instead of {@link ECharToken#PLAYER PLAYER} and {@link ECharToken#COMPUTER COMPUTER} so one table serves
+ * games opened by either side.
+ * <p>
+ * File layout: a {@value #HEADER_SIZE} byte header (magic, version, size, win length, position count) followed by
+ * the values packed 32 to a little-endian long.
+ */
+public final class Tablebase {
+    public static final int ILLEGAL = 0;
+    public static final int LOSS = 1;
+    public static final int DRAW = 2;
+    public static final int WIN = 3;
+
+    static final int MAGIC = 0x54544254; // "TTBT"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+
+    /**
+     * Largest number of cells whose table still fits in a single mapped buffer.
+     */
+    static final int MAX_CELLS = 20;
+
+    private final BoardGeometry geometry;
+    private final ByteBuffer data;
+    private final long[] powers;
+
+    Tablebase(BoardGeometry geometry, ByteBuffer data) {
+        this.geometry = geometry;
+        this.data = data;
+        this.powers = powers(geometry.cells());
+    }
+
+    /**
+     * Maps a table written by {@link TablebaseGenerator#generate(BoardGeometry, int, Path)}.
+     *
+     * @throws IOException if the file can't be read or isn't a tablebase
+     */
+    public static Tablebase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+
+            if (channel.size() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a version " + VERSION + " tablebase");
+            }
+
+            BoardGeometry geometry = BoardGeometry.of(buffer.getInt(8), buffer.getInt(12));
+            long positions = buffer.getLong(16);
+            if (positions != positions(geometry) || channel.size() < HEADER_SIZE + dataBytes(geometry)) {
+                throw new IOException(file + " is truncated or does not match its header");
+            }
+
+            return new Tablebase(geometry, buffer);
+        }
+    }
+
+    /**
+     * @return the geometry the table was built for
+     */
+    public BoardGeometry geometry() {
+        return geometry;
+    }
+
+    /**
+     * @return the value for the side to move of the position where {@code first} and {@code second} are the
+     * tokens of the first and second mover
+     */
+    public int value(long first, long second) {
+        return valueAt(index(first, second));
+    }
+
+    /**
+     * @return the {@link #WIN}/{@link #DRAW}/{@link #LOSS} value of the position for {@code side}, who is to move,
+     * or {@link #ILLEGAL} if the position can't occur with {@code side} to move
+     */
+    public int probe(BoardView board, ECharToken side) {
+        long own = board.mask(side);
+        long theirs = board.mask(side == ECharToken.PLAYER ? ECharToken.COMPUTER : ECharToken.PLAYER);
+
+        int ownCount = Long.bitCount(own);
+        int theirCount = Long.bitCount(theirs);
+        if (ownCount == theirCount) {
+            return value(own, theirs);
+        } else if (ownCount + 1 == theirCount) {
+            return value(theirs, own);
+        }
+        return ILLEGAL;
+    }
+
+    /**
+     * Picks a random move among the best ones for {@code side}, preferring a move that wins on the spot.
+     *
+     * @return the chosen cell, or {@code -1} if the position is full or not in the table
+     */
+    public int bestMove(BoardView board, ECharToken side, RandomGenerator random) {
+        long own = board.mask(side);
+        long theirs = board.mask(side == ECharToken.PLAYER ? ECharToken.COMPUTER : ECharToken.PLAYER);
+        long empty = geometry.fullMask() & ~(own | theirs);
+
+        int ownCount = Long.bitCount(own);
+        int theirCount = Long.bitCount(theirs);
+        boolean ownIsFirst = ownCount == theirCount;
+        if (empty == 0 || !ownIsFirst && ownCount + 1 != theirCount) {
+            return -1;
+        }
+
+        long index = ownIsFirst ? index(own, theirs) : index(theirs, own);
+        long wins = 0;
+        long draws = 0;
+
+        for (long remaining = empty; remaining != 0; remaining &= remaining - 1) {
+            int cell = Long.numberOfTrailingZeros(remaining);
+            long move = 1L << cell;
+            if (geometry.isWinThrough(own | move, cell)) {
+                return cell;
+            }
+
+            // The child's value is for the opponent
+            int child = valueAt(index + (ownIsFirst ? 1 : 2) * powers[cell]);
+            if (child == LOSS) {
+                wins |= move;
+            } else if (child == DRAW) {
+                draws |= move;
+            }
+        }
+
+        if (wins != 0) {
+            return RandomStrategy.randomSetBit(wins, random);
+        } else if (draws != 0) {
+            return RandomStrategy.randomSetBit(draws, random);
+        }
+        return RandomStrategy.randomSetBit(empty, random);
+    }
+
+    /**
+     * @return the perfect hash of the position
+     */
+    long index(long first, long second) {
+        long index = 0;
+        for (long bits = first; bits != 0; bits &= bits - 1) {
+            index += powers[Long.numberOfTrailingZeros(bits)];
+        }
+        for (long bits = second; bits != 0; bits &= bits - 1) {
+            index += 2 * powers[Long.numberOfTrailingZeros(bits)];
+        }
+        return index;
+    }
+
+    int valueAt(long index) {
+        long word = data.getLong(HEADER_SIZE + (int) (index >>> 5) * Long.BYTES);
+        return (int) (word >>> ((index & 31) << 1)) & 0x3;
+    }
+
+    /**
+     * @return the number of indexes of the geometry, 3 to the power of its cells
+     */
+    static long positions(BoardGeometry geometry) {
+        return powers(geometry.cells() + 1)[geometry.cells()];
+    }
+
+    /**
+     * @return the number of data bytes after the header, rounded up to whole longs
+     */
+    static long dataBytes(BoardGeometry geometry) {
+        return (positions(geometry) + 31) / 32 * Long.BYTES;
+    }
+
+    /**
+     * @return the powers of three from 3^0 to 3^(count - 1)
+     */
+    static long[] powers(int count) {
+        long[] out = new long[count];
+        long power = 1;
+        for (int i = 0; i < count; i++) {
+            out[i] = power;
+            power *= 3;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,240 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds {@link Tablebase tablebases} by retrograde analysis.
+ * <p>
+ * Every move adds a token, so a position only depends on positions with one more token. The generator starts
+ * from the full boards and works backward one token count (layer) at a time: terminal positions are scored with
+ * the same win test as {@link Repository#getWinner()}, every other one from its already solved successors. Each
+ * layer is split into chunks of the index space that are solved in parallel; chunks are aligned to whole longs
+ * of the table, so no two threads ever write the same word.
+ * <p>
+ * Run {@code main} with {@code size winLength file [threads]} to build a table offline.
+ */
+public final class TablebaseGenerator {
+    // Positions per task, a multiple of the 32 values in a long
+    private static final int CHUNK = 1 << 16;
+
+    private TablebaseGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: TablebaseGenerator <size> <winLength> <file> [threads]");
+            System.exit(1);
+        }
+
+        BoardGeometry geometry = BoardGeometry.of(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        generate(geometry, threads, Path.of(args[2]));
+        System.out.printf("Solved %d positions in %.1f s%n",
+                Tablebase.positions(geometry), (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Solves {@code geometry} into a table on the heap.
+     */
+    public static Tablebase generate(BoardGeometry geometry, int threads) {
+        checkSize(geometry);
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) (Tablebase.HEADER_SIZE + Tablebase.dataBytes(geometry)))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        return solve(geometry, buffer, threads);
+    }
+
+    /**
+     * Solves {@code geometry} straight into a memory-mapped {@code file}, replacing it if it exists. The header is
+     * written last, so an interrupted run leaves a file {@link Tablebase#open(Path)} rejects.
+     *
+     * @throws IOException if the file can't be written
+     */
+    public static Tablebase generate(BoardGeometry geometry, int threads, Path file) throws IOException {
+        checkSize(geometry);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Tablebase.HEADER_SIZE + Tablebase.dataBytes(geometry));
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            Tablebase tablebase = solve(geometry, mapped, threads);
+            mapped.force();
+            return tablebase;
+        }
+    }
+
+    /**
+     * @return the file name a table of {@code geometry} is looked up under, e.g. {@code tablebase-4x4-4.bin}
+     */
+    public static String fileName(BoardGeometry geometry) {
+        return "tablebase-" + geometry.size() + "x" + geometry.size() + "-" + geometry.winLength() + ".bin";
+    }
+
+    private static void checkSize(BoardGeometry geometry) {
+        if (geometry.cells() > Tablebase.MAX_CELLS) {
+            throw new IllegalArgumentException("A tablebase of " + geometry.cells() + " cells is too large, at most "
+                    + Tablebase.MAX_CELLS + " are supported");
+        }
+    }
+
+    private static Tablebase solve(BoardGeometry geometry, ByteBuffer buffer, int threads) {
+        Tablebase tablebase = new Tablebase(geometry, buffer);
+        long positions = Tablebase.positions(geometry);
+        int chunks = (int) ((positions + CHUNK - 1) / CHUNK);
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            for (int layer = geometry.cells(); layer >= 0; layer--) {
+                LayerTask[] tasks = new LayerTask[chunks];
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    long start = (long) chunk * CHUNK;
+                    tasks[chunk] = new LayerTask(tablebase, buffer, layer, start, Math.min(start + CHUNK, positions));
+                }
+
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        buffer.putInt(4, Tablebase.VERSION);
+        buffer.putInt(8, geometry.size());
+        buffer.putInt(12, geometry.winLength());
+        buffer.putLong(16, positions);
+        buffer.putInt(0, Tablebase.MAGIC);
+        return tablebase;
+    }
+
+    /**
+     * Solves the positions of one layer within {@code [start, end)}.
+     */
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private static final class LayerTask extends RecursiveAction {
+        private final Tablebase tablebase;
+        private final ByteBuffer buffer;
+        private final BoardGeometry geometry;
+        private final long[] powers;
+        private final int layer;
+        private final long start;
+        private final long end;
+
+        LayerTask(Tablebase tablebase, ByteBuffer buffer, int layer, long start, long end) {
+            this.tablebase = tablebase;
+            this.buffer = buffer;
+            this.geometry = tablebase.geometry();
+            this.powers = Tablebase.powers(geometry.cells());
+            this.layer = layer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            int cells = geometry.cells();
+            int[] digits = new int[cells];
+            long first = 0;
+            long second = 0;
+
+            long rest = start;
+            for (int cell = 0; cell < cells; cell++) {
+                digits[cell] = (int) (rest % 3);
+                rest /= 3;
+                if (digits[cell] == 1) {
+                    first |= 1L << cell;
+                } else if (digits[cell] == 2) {
+                    second |= 1L << cell;
+                }
+            }
+
+            long word = 0;
+            for (long index = start; index < end; index++) {
+                if (Long.bitCount(first | second) == layer) {
+                    word |= (long) solve(first, second, index) << ((index & 31) << 1);
+                }
+
+                if ((index & 31) == 31 || index == end - 1) {
+                    if (word != 0) {
+                        int offset = Tablebase.HEADER_SIZE + (int) (index >>> 5) * Long.BYTES;
+                        buffer.putLong(offset, buffer.getLong(offset) | word);
+                    }
+                    word = 0;
+                }
+
+                // Count up in base 3, keeping the masks in step with the digits
+                for (int cell = 0; cell < cells; cell++) {
+                    long bit = 1L << cell;
+                    if (digits[cell] == 0) {
+                        digits[cell] = 1;
+                        first |= bit;
+                        break;
+                    } else if (digits[cell] == 1) {
+                        digits[cell] = 2;
+                        first &= ~bit;
+                        second |= bit;
+                        break;
+                    }
+                    digits[cell] = 0;
+                    second &= ~bit;
+                }
+            }
+        }
+
+        /**
+         * @return the value of the position for the side to move
+         */
+        private int solve(long first, long second, long index) {
+            int firstCount = Long.bitCount(first);
+            int secondCount = Long.bitCount(second);
+
+            boolean firstToMove = firstCount == secondCount;
+            if (!firstToMove && firstCount != secondCount + 1) {
+                return Tablebase.ILLEGAL;
+            }
+
+            long toMove = firstToMove ? first : second;
+            long moved = firstToMove ? second : first;
+
+            // The game would have ended before the side to move got a line
+            if (geometry.isWin(toMove)) {
+                return Tablebase.ILLEGAL;
+            }
+            if (geometry.isWin(moved)) {
+                return Tablebase.LOSS;
+            }
+
+            long empty = geometry.fullMask() & ~(first | second);
+            if (empty == 0) {
+                return Tablebase.DRAW;
+            }
+
+            int best = Tablebase.LOSS;
+            long digit = firstToMove ? 1 : 2;
+            for (long remaining = empty; remaining != 0; remaining &= remaining - 1) {
+                int child = tablebase.valueAt(index + digit * powers[Long.numberOfTrailingZeros(remaining)]);
+                if (child == Tablebase.LOSS) {
+                    return Tablebase.WIN;
+                } else if (child == Tablebase.DRAW) {
+                    best = Tablebase.DRAW;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * A {@link MoveStrategy} that plays perfectly from a {@link Tablebase}.
+ * <p>
+ * Tables are looked up in the directory named by the {@code tictactoe.tablebase.dir} system property (the working
+ * directory by default) under {@link TablebaseGenerator#fileName(BoardGeometry)} and memory-mapped on first use.
+ * Boards of up to {@value #MAX_GENERATED_CELLS} cells are solved on the fly when no file exists. Any other board
+ * falls back to the {@link SearchStrategy search}.
+ */
+public final class TablebaseStrategy implements MoveStrategy {
+    public static final String NAME = "tablebase";
+
+    private static final int MAX_GENERATED_CELLS = 9;
+    // Marks a geometry that has no table, so it isn't looked up again
+    private static final Tablebase NONE = new Tablebase(BoardGeometry.of(3, 3), ByteBuffer.allocate(0));
+
+    private final Path directory;
+    // The table of each geometry once loaded, published to every thread selecting moves
+    private final AtomicReferenceArray<Tablebase> tables =
+            new AtomicReferenceArray<>((BoardGeometry.MAX_SIZE + 1) * (BoardGeometry.MAX_SIZE + 1));
+
+    public TablebaseStrategy() {
+        this(Path.of(System.getProperty("tictactoe.tablebase.dir", ".")));
+    }
+
+    /**
+     * @param directory where to look for tablebase files
+     */
+    public TablebaseStrategy(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int selectMove(BoardView board, ECharToken side, RandomGenerator random) {
+        BoardGeometry geometry = BoardGeometry.of(board);
+        Tablebase tablebase = tables.get(slot(geometry));
+        if (tablebase == null) {
+            tablebase = load(geometry);
+        }
+
+        if (tablebase != NONE) {
+            int move = tablebase.bestMove(board, side, random);
+            if (move != -1) {
+                return move;
+            }
+        }
+
+        return MoveStrategies.get(SearchStrategy.NAME).selectMove(board, side, random);
+    }
+
+    /**
+     * Maps or builds the table of {@code geometry} once, remembering {@link #NONE} when there is none.
+     */
+    private synchronized Tablebase load(BoardGeometry geometry) {
+        Tablebase tablebase = tables.get(slot(geometry));
+        if (tablebase != null) {
+            return tablebase;
+        }
+
+        Path file = directory.resolve(TablebaseGenerator.fileName(geometry));
+        tablebase = NONE;
+        if (Files.exists(file)) {
+            try {
+                tablebase = Tablebase.open(file);
+            } catch (IOException e) {
+                System.err.println("Error loading tablebase " + file);
+                System.err.println(e.getMessage());
+            }
+        }
+        if (tablebase == NONE && geometry.cells() <= MAX_GENERATED_CELLS) {
+            tablebase = TablebaseGenerator.generate(geometry, 1);
+        }
+
+        tables.set(slot(geometry), tablebase);
+        return tablebase;
+    }
+
+    private static int slot(BoardGeometry geometry) {
+        return geometry.size() * (BoardGeometry.MAX_SIZE + 1) + geometry.winLength();
+    }
+}
@@ -0,0 +1,399 @@
+package repository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plays round-robin tournaments between {@link MoveStrategy strategies} on the 3x3 board and rates them with Elo.
+ * <p>
+ * Every pair of entrants plays the same number of games, alternating who moves first. The games of a pairing are
+ * split into chunks that run as fork-join tasks, each on its own {@link Position} with its own random source
+ * split off the tournament seed in schedule order, so a tournament replays exactly from its seed whatever the
+ * number of threads. Every game is recorded as a single byte: which entrant opened and how the game ended.
+ * <p>
+ * Ratings are the maximum likelihood fit of the Bradley-Terry model, draws counting as half a win, anchored at an
+ * average of 0. One virtual draw per pairing keeps the ratings finite when a pairing is a whitewash. The 95%
+ * intervals come from the inverse Fisher information of the fit.
+ * <p>
+ * Run {@code main} with {@code gamesPerPairing reportFile [threads] [strategy...]} to play the discovered
+ * strategies, or the named ones, against each other.
+ */
+public final class Tournament {
+    // Games per fork-join task
+    private static final int CHUNK = 1 << 14;
+
+    // Outcome encoding of a game byte: bit 0 is set when the pairing's first entrant opened, bits 1-2 hold the
+    // EWinner ordinal seen from the board, PLAYER being the opener
+    private static final int FIRST_OPENED = 1;
+    private static final EWinner[] WINNERS = EWinner.values();
+
+    private static final double ELO_PER_NATURAL_UNIT = 400 / Math.log(10);
+    private static final double Z_95 = 1.959964;
+
+    private Tournament() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: Tournament <gamesPerPairing> <reportFile> [threads] [strategy...]");
+            System.exit(1);
+        }
+
+        int games = Integer.parseInt(args[0]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        List<MoveStrategy> entrants = new ArrayList<>();
+        for (String name : args.length > 3 ? List.of(args).subList(3, args.length) : MoveStrategies.names()) {
+            entrants.add(MoveStrategies.get(name));
+        }
+
+        Result result = play(entrants, games, threads, System.nanoTime());
+        result.writeReport(Path.of(args[1]));
+        System.out.print(result.report());
+    }
+
+    /**
+     * The results of one pairing.
+     *
+     * @param first  the index of the entrant opening the even games
+     * @param second the index of the entrant opening the odd games
+     * @param games  one byte per game, see {@link #firstOpened(int)} and {@link #winner(int)}
+     */
+    public record Pairing(int first, int second, byte[] games) {
+        /**
+         * @return {@code true} if the {@link #first} entrant moved first in game {@code game}
+         */
+        public boolean firstOpened(int game) {
+            return (games[game] & FIRST_OPENED) != 0;
+        }
+
+        /**
+         * @return the result of game {@code game} on the board, {@link EWinner#PLAYER PLAYER} being the opener
+         */
+        public EWinner winner(int game) {
+            return WINNERS[games[game] >> 1];
+        }
+
+        /**
+         * @return the number of games the {@link #first} entrant won, drew and lost, in that order
+         */
+        public long[] firstRecord() {
+            long[] record = new long[3];
+            for (int game = 0; game < games.length; game++) {
+                EWinner winner = winner(game);
+                if (winner == EWinner.TIE) {
+                    record[1]++;
+                } else if ((winner == EWinner.PLAYER) == firstOpened(game)) {
+                    record[0]++;
+                } else {
+                    record[2]++;
+                }
+            }
+            return record;
+        }
+    }
+
+    /**
+     * A rating with its 95% confidence interval.
+     *
+     * @param name   the entrant's strategy name
+     * @param elo    the rating, the average of all entrants being 0
+     * @param margin half the width of the 95% interval
+     * @param score  the share of points the entrant scored over the games it played, draws counting half
+     */
+    public record Rating(String name, double elo, double margin, double score) {
+    }
+
+    /**
+     * The outcome of a tournament.
+     *
+     * @param names    the entrants' strategy names
+     * @param pairings every pairing of the round robin
+     * @param ratings  the rating of every entrant, in entrant order
+     * @param nanos    the wall-clock time the games took
+     */
+    public record Result(List<String> names, List<Pairing> pairings, List<Rating> ratings, long nanos) {
+        /**
+         * @return the number of games played
+         */
+        public long games() {
+            long games = 0;
+            for (Pairing pairing : pairings) {
+                games += pairing.games().length;
+            }
+            return games;
+        }
+
+        public double gamesPerSecond() {
+            return games() * 1e9 / Math.max(1, nanos);
+        }
+
+        /**
+         * @return a plain-text summary: the ratings, best first, and the record of every pairing
+         */
+        public String report() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("%d games in %.2f s, %.0f games/s%n%n", games(), nanos / 1e9, gamesPerSecond()));
+
+            out.append(String.format("%-12s %8s %8s %7s%n", "Strategy", "Elo", "95% +-", "Score"));
+            ratings.stream()
+                    .sorted((a, b) -> Double.compare(b.elo(), a.elo()))
+                    .forEach(rating -> out.append(String.format("%-12s %8.1f %8.1f %6.1f%%%n",
+                            rating.name(), rating.elo(), rating.margin(), rating.score() * 100)));
+
+            out.append(String.format("%n%-25s %9s %9s %9s%n", "Pairing", "Wins", "Draws", "Losses"));
+            for (Pairing pairing : pairings) {
+                long[] record = pairing.firstRecord();
+                out.append(String.format("%-25s %9d %9d %9d%n",
+                        names.get(pairing.first()) + " vs " + names.get(pairing.second()),
+                        record[0], record[1], record[2]));
+            }
+            return out.toString();
+        }
+
+        /**
+         * Writes the {@link #report()} to {@code file}, replacing it if it exists.
+         *
+         * @throws IOException if the file can't be written
+         */
+        public void writeReport(Path file) throws IOException {
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                writer.write(report());
+            }
+        }
+    }
+
+    /**
+     * Plays a round robin with {@code gamesPerPairing} games between every two entrants.
+     *
+     * @param threads the number of threads playing games
+     * @param seed    the seed every random choice of the strategies is drawn from
+     * @throws IllegalArgumentException if there are fewer than two entrants, two share a name, or the number of
+     *                                  games is not positive
+     */
+    public static Result play(List<MoveStrategy> entrants, int gamesPerPairing, int threads, long seed) {
+        if (entrants.size() < 2 || gamesPerPairing < 1) {
+            throw new IllegalArgumentException("A tournament needs at least two entrants and one game per pairing");
+        }
+        List<String> names = entrants.stream().map(MoveStrategy::name).toList();
+        if (names.stream().distinct().count() != names.size()) {
+            throw new IllegalArgumentException("Entrants must have distinct names, got " + names);
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Pairing> pairings = new ArrayList<>();
+        List<ChunkTask> tasks = new ArrayList<>();
+        for (int first = 0; first < entrants.size(); first++) {
+            for (int second = first + 1; second < entrants.size(); second++) {
+                Pairing pairing = new Pairing(first, second, new byte[gamesPerPairing]);
+                pairings.add(pairing);
+
+                for (int start = 0; start < gamesPerPairing; start += CHUNK) {
+                    tasks.add(new ChunkTask(entrants.get(first), entrants.get(second), pairing.games(), start,
+                            Math.min(start + CHUNK, gamesPerPairing), random.split()));
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        long nanos = System.nanoTime() - start;
+
+        return new Result(names, List.copyOf(pairings), rate(names, pairings), nanos);
+    }
+
+    /**
+     * Fits the ratings with the minorization-maximization algorithm for Bradley-Terry models.
+     */
+    static List<Rating> rate(List<String> names, List<Pairing> pairings) {
+        int n = names.size();
+        double[][] games = new double[n][n];
+        double[] points = new double[n];
+        // The games actually played, without the virtual draws, for the reported score
+        double[] scored = new double[n];
+        long[] played = new long[n];
+
+        for (Pairing pairing : pairings) {
+            long[] record = pairing.firstRecord();
+            int length = pairing.games().length;
+            scored[pairing.first()] += record[0] + record[1] / 2.0;
+            scored[pairing.second()] += record[2] + record[1] / 2.0;
+            played[pairing.first()] += length;
+            played[pairing.second()] += length;
+
+            // One virtual draw per pairing
+            games[pairing.first()][pairing.second()] += length + 1;
+            games[pairing.second()][pairing.first()] += length + 1;
+            points[pairing.first()] += record[0] + (record[1] + 1) / 2.0;
+            points[pairing.second()] += record[2] + (record[1] + 1) / 2.0;
+        }
+
+        double[] strength = new double[n];
+        Arrays.fill(strength, 1);
+        for (int iteration = 0; iteration < 10_000; iteration++) {
+            double change = 0;
+            for (int i = 0; i < n; i++) {
+                double denominator = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j != i) {
+                        denominator += games[i][j] / (strength[i] + strength[j]);
+                    }
+                }
+                double updated = points[i] / denominator;
+                change = Math.max(change, Math.abs(Math.log(updated / strength[i])));
+                strength[i] = updated;
+            }
+
+            // Anchor the geometric mean at 1, so the ratings average 0
+            double logMean = 0;
+            for (double s : strength) {
+                logMean += Math.log(s) / n;
+            }
+            for (int i = 0; i < n; i++) {
+                strength[i] /= Math.exp(logMean);
+            }
+
+            if (change < 1e-12) {
+                break;
+            }
+        }
+
+        // Fisher information of the natural log strengths, a weighted graph Laplacian
+        double[][] information = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (j != i && games[i][j] > 0) {
+                    double p = strength[i] / (strength[i] + strength[j]);
+                    double weight = games[i][j] * p * (1 - p);
+                    information[i][j] -= weight;
+                    information[i][i] += weight;
+                }
+            }
+        }
+        double[][] covariance = pseudoInverse(information);
+
+        List<Rating> ratings = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ratings.add(new Rating(names.get(i),
+                    Math.log(strength[i]) * ELO_PER_NATURAL_UNIT,
+                    Z_95 * Math.sqrt(Math.max(0, covariance[i][i])) * ELO_PER_NATURAL_UNIT,
+                    played[i] == 0 ? 0 : scored[i] / played[i]));
+        }
+        return List.copyOf(ratings);
+    }
+
+    /**
+     * @return the pseudo-inverse of a connected graph Laplacian, {@code (L + J/n)^-1 - J/n} with {@code J} all
+     * ones, which is the covariance under the constraint that the ratings sum to zero
+     */
+    private static double[][] pseudoInverse(double[][] laplacian) {
+        int n = laplacian.length;
+        double[][] a = new double[n][2 * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                a[i][j] = laplacian[i][j] + 1.0 / n;
+            }
+            a[i][n + i] = 1;
+        }
+
+        // Gauss-Jordan elimination with partial pivoting
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            double[] swap = a[col];
+            a[col] = a[pivot];
+            a[pivot] = swap;
+
+            double divisor = a[col][col];
+            for (int j = 0; j < 2 * n; j++) {
+                a[col][j] /= divisor;
+            }
+            for (int row = 0; row < n; row++) {
+                if (row != col && a[row][col] != 0) {
+                    double factor = a[row][col];
+                    for (int j = 0; j < 2 * n; j++) {
+                        a[row][j] -= factor * a[col][j];
+                    }
+                }
+            }
+        }
+
+        double[][] out = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                out[i][j] = a[i][n + j] - 1.0 / n;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Plays the games {@code [start, end)} of a pairing. Even games are opened by the pairing's first entrant.
+     */
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private static final class ChunkTask extends RecursiveAction {
+        private final MoveStrategy first;
+        private final MoveStrategy second;
+        private final byte[] games;
+        private final int start;
+        private final int end;
+        private final SplittableRandom random;
+
+        ChunkTask(MoveStrategy first, MoveStrategy second, byte[] games, int start, int end,
+                  SplittableRandom random) {
+            this.first = first;
+            this.second = second;
+            this.games = games;
+            this.start = start;
+            this.end = end;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            Position position = new Position(BoardGeometry.of(3, 3));
+
+            for (int game = start; game < end; game++) {
+                boolean firstOpens = (game & 1) == 0;
+                MoveStrategy opener = firstOpens ? first : second;
+                MoveStrategy responder = firstOpens ? second : first;
+
+                position.clear();
+                while (position.winner() == EWinner.NONE) {
+                    ECharToken side = position.sideToMove();
+                    MoveStrategy strategy = side == ECharToken.PLAYER ? opener : responder;
+
+                    int cell = strategy.selectMove(position, side, random);
+                    if (cell < 0 || cell >= 9 || position.get(cell) != ECharToken.EMPTY) {
+                        throw new UnsupportedOperationException("Strategy '" + strategy.name()
+                                + "' could not find a valid move, got " + cell);
+                    }
+                    position.makeMove(cell, side);
+                }
+
+                games[game] = (byte) (position.winner().ordinal() << 1 | (firstOpens ? FIRST_OPENED : 0));
+            }
+        }
+    }
+}
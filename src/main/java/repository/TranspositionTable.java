@@ -0,0 +1,251 @@
+package repository;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A fixed-size, lock-free transposition table shared by every search thread, and optionally by every process
+ * mapping the same file.
+ * <p>
+ * The table is open-addressed in buckets of {@value #BUCKET_SLOTS} slots, one 64-byte cache line each. Each slot
+ * holds two longs, {@code key ^ data} and {@code data}. A writer claims a slot, the one already holding its key,
+ * else an empty one, else the shallowest, by compare-and-set of its data word through a {@link VarHandle}, then
+ * publishes the matching check word; a writer that loses the race drops its entry. A reader only accepts a slot
+ * whose two halves XOR back to the key it asked for, so a slot torn by a concurrent write is seen as a miss
+ * instead of as a wrong entry.
+ * <p>
+ * The slots live in a direct buffer, or in a {@link MappedByteBuffer} for tables {@link #open(Path, int) opened}
+ * on a file. A mapped table is shared with every other process mapping the file, and survives restarts, so a
+ * warm search starts from everything solved before. The file's header records the {@link #VERSION version} of
+ * the key format; since version 2 {@link SearchStrategy} keys include the board geometry, so searches on every
+ * geometry can share a file. A file written with another key format is cleared when it is opened, never read.
+ * <p>
+ * Entries pack the score, the searched depth, a {@link #EXACT bound flag} and the best move into one long.
+ */
+public final class TranspositionTable {
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    /**
+     * Returned by {@link #probe(long)} when the key is not in the table.
+     */
+    public static final long MISS = -1L;
+
+    /**
+     * Largest number of entries, 1 GiB of slots.
+     */
+    public static final int MAX_ENTRIES = 1 << 26;
+
+    static final int MAGIC = 0x54545454; // "TTTT"
+    // 2: keys mix in the board geometry, see SearchStrategy.geometryKey
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 64;
+
+    private static final int SLOT_SIZE = 2 * Long.BYTES;
+    private static final int BUCKET_SLOTS = 4;
+    private static final int BUCKET_SIZE = BUCKET_SLOTS * SLOT_SIZE;
+
+    // Little-endian either way, so files are portable; aligned accesses are atomic on direct and mapped buffers
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final ByteBuffer slots;
+    private final int base;
+    private final int capacity;
+    private final int bucketMask;
+
+    /**
+     * Creates a table in memory.
+     *
+     * @param entries the number of entries, rounded up to a power of two and at least {@value #BUCKET_SLOTS}
+     */
+    public TranspositionTable(int entries) {
+        this(ByteBuffer.allocateDirect(capacityFor(entries) * SLOT_SIZE), 0, capacityFor(entries));
+    }
+
+    private TranspositionTable(ByteBuffer slots, int base, int capacity) {
+        this.slots = slots;
+        this.base = base;
+        this.capacity = capacity;
+        this.bucketMask = capacity / BUCKET_SLOTS - 1;
+    }
+
+    /**
+     * Maps the table stored in {@code file}, creating it with room for {@code entries} entries if it is empty or
+     * doesn't exist. An existing table keeps its size, and is cleared if its keys are of another
+     * {@link #VERSION version}. Processes opening the same file at once are serialized by a file lock until the
+     * header is checked; after that every access is lock-free.
+     *
+     * @throws IOException              if the file can't be mapped or holds something else
+     * @throws IllegalArgumentException if {@code entries} is out of range
+     */
+    public static TranspositionTable open(Path file, int entries) throws IOException {
+        int requested = capacityFor(entries);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // Released when the channel is closed
+            channel.lock();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            int capacity;
+
+            if (channel.size() == 0) {
+                capacity = requested;
+                header.putInt(MAGIC).putInt(VERSION).putInt(capacity).position(HEADER_SIZE).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                // Extending the file leaves every slot zero, i.e. empty
+                channel.write(ByteBuffer.allocate(1), HEADER_SIZE + (long) capacity * SLOT_SIZE - 1);
+            } else {
+                if (channel.size() < HEADER_SIZE || channel.read(header, 0) != HEADER_SIZE) {
+                    throw new IOException(file + " is not a transposition table");
+                }
+                capacity = header.getInt(8);
+                if (header.getInt(0) != MAGIC
+                        || capacity < BUCKET_SLOTS || capacity > MAX_ENTRIES || Integer.bitCount(capacity) != 1
+                        || channel.size() < HEADER_SIZE + (long) capacity * SLOT_SIZE) {
+                    throw new IOException(file + " is not a transposition table");
+                }
+            }
+
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) capacity * SLOT_SIZE);
+            TranspositionTable table = new TranspositionTable(mapped, HEADER_SIZE, capacity);
+
+            // Entries keyed another way would answer the wrong positions. Cleared in place, as other processes
+            // may still have the file mapped
+            if (header.getInt(4) != VERSION) {
+                table.clear();
+                ByteBuffer version = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                channel.write(version.putInt(0, VERSION), 4);
+            }
+            return table;
+        }
+    }
+
+    /**
+     * @return the number of entries the table holds
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the packed entry stored for {@code key}, or {@link #MISS}
+     */
+    public long probe(long key) {
+        int bucket = bucket(key);
+        for (int offset = bucket; offset < bucket + BUCKET_SIZE; offset += SLOT_SIZE) {
+            long data = (long) LONGS.getOpaque(slots, offset + Long.BYTES);
+            long check = (long) LONGS.getOpaque(slots, offset);
+
+            // An empty slot is all zeros, and a valid entry is never zero
+            if (data != 0 && (check ^ data) == key) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores an entry for {@code key} in its bucket, replacing the slot holding the key, an empty slot or the
+     * shallowest entry, in that order. The entry is dropped if another thread or process takes the slot first.
+     */
+    public void store(long key, int score, int depth, int flag, int move) {
+        long data = pack(score, depth, flag, move);
+        int bucket = bucket(key);
+
+        int victim = -1;
+        long victimData = 0;
+        int victimDepth = Integer.MAX_VALUE;
+        for (int offset = bucket; offset < bucket + BUCKET_SIZE; offset += SLOT_SIZE) {
+            long old = (long) LONGS.getOpaque(slots, offset + Long.BYTES);
+            long check = (long) LONGS.getOpaque(slots, offset);
+
+            if (old != 0 && (check ^ old) == key) {
+                victim = offset;
+                victimData = old;
+                break;
+            }
+            int oldDepth = old == 0 ? -1 : depth(old);
+            if (oldDepth < victimDepth) {
+                victim = offset;
+                victimData = old;
+                victimDepth = oldDepth;
+            }
+        }
+
+        if (LONGS.compareAndSet(slots, victim + Long.BYTES, victimData, data)) {
+            LONGS.setRelease(slots, victim, key ^ data);
+        }
+    }
+
+    /**
+     * Empties the table, in every process sharing it. Must not race with searches that are still running.
+     */
+    public void clear() {
+        for (int offset = base; offset < base + capacity * SLOT_SIZE; offset += Long.BYTES) {
+            LONGS.setOpaque(slots, offset, 0L);
+        }
+    }
+
+    /**
+     * Writes the slots of a mapped table back to its file. Other processes see stores right away; this only
+     * matters for surviving a crash of the machine.
+     */
+    public void force() {
+        if (slots instanceof MappedByteBuffer mapped) {
+            mapped.force();
+        }
+    }
+
+    public static int score(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 16) & 0xFF;
+    }
+
+    public static int flag(long entry) {
+        return (int) (entry >>> 8) & 0x3;
+    }
+
+    /**
+     * @return the best move of the entry, or {@code -1} if none was recorded
+     */
+    public static int move(long entry) {
+        return (int) (entry & 0x7F) - 1;
+    }
+
+    private int bucket(long key) {
+        return base + ((int) (key ^ key >>> 32) & bucketMask) * BUCKET_SIZE;
+    }
+
+    private static int capacityFor(int entries) {
+        if (entries < 1 || entries > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Unsupported table size " + entries);
+        }
+
+        int capacity = Integer.highestOneBit(entries);
+        if (capacity < entries) {
+            capacity <<= 1;
+        }
+        return Math.max(BUCKET_SLOTS, capacity);
+    }
+
+    private static long pack(int score, int depth, int flag, int move) {
+        // Marker bit 10 keeps a valid entry from ever being zero
+        return (long) score << 32 | (long) (depth & 0xFF) << 16 | 1L << 10 | (long) flag << 8 | (move + 1);
+    }
+}
@@ -0,0 +1,61 @@
+package repository;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The Vector API path of {@link BoardEvaluator}. It is kept in its own class so that it is only loaded when the
+ * {@code jdk.incubator.vector} module is present.
+ */
+final class VectorBoardEvaluator {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    private static final long PLAYER = EWinner.PLAYER.ordinal();
+    private static final long COMPUTER = EWinner.COMPUTER.ordinal();
+    private static final long TIE = EWinner.TIE.ordinal();
+    private static final long NONE = EWinner.NONE.ordinal();
+
+    private VectorBoardEvaluator() {
+    }
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    static void winners(BoardGeometry geometry, long[] player, long[] computer, byte[] winners, int count) {
+        BoardEvaluator.checkBounds(player, computer, winners, count);
+
+        int lines = geometry.lineCount();
+        long full = geometry.fullMask();
+        long[] lanes = new long[SPECIES.length()];
+        int bound = SPECIES.loopBound(count);
+
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            LongVector p = LongVector.fromArray(SPECIES, player, i);
+            LongVector c = LongVector.fromArray(SPECIES, computer, i);
+
+            VectorMask<Long> playerWon = SPECIES.maskAll(false);
+            VectorMask<Long> computerWon = SPECIES.maskAll(false);
+            for (int line = 0; line < lines; line++) {
+                long mask = geometry.line(line);
+                playerWon = playerWon.or(p.and(mask).eq(mask));
+                computerWon = computerWon.or(c.and(mask).eq(mask));
+            }
+
+            // Lowest priority first, so that a player win overrides everything
+            LongVector result = LongVector.broadcast(SPECIES, NONE)
+                    .blend(TIE, p.or(c).eq(full))
+                    .blend(COMPUTER, computerWon)
+                    .blend(PLAYER, playerWon);
+
+            result.intoArray(lanes, 0);
+            for (int lane = 0; lane < lanes.length; lane++) {
+                winners[i + lane] = (byte) lanes[lane];
+            }
+        }
+
+        BoardEvaluator.winnersScalar(geometry, player, computer, winners, i, count);
+    }
+}
@@ -1,3 +1,4 @@
+import androidx.compose.runtime.LaunchedEffect
 import androidx.compose.ui.graphics.painter.BitmapPainter
 import androidx.compose.ui.res.loadImageBitmap
 import androidx.compose.ui.res.useResource
@@ -5,12 +6,26 @@ import androidx.compose.ui.window.Window
 import androidx.compose.ui.window.application
 import gui.MainUi
 import gui.ViewModel
+import kotlinx.coroutines.delay
 import repository.Repository
 
+/**
+ * How often the game in progress is saved while the window is open, on top of saving it on exit.
+ */
+const val AUTOSAVE_MILLIS = 30_000L
+
 fun main() = application {
     val repo = Repository()
+    repo.loadGame()
     val viewModel = ViewModel(repo)
 
+    LaunchedEffect(repo) {
+        while (true) {
+            delay(AUTOSAVE_MILLIS)
+            repo.saveGame()
+        }
+    }
+
     Window(
         onCloseRequest = { saveAndExit(repo, ::exitApplication) },
         title = "Tic Tac Toe",
@@ -22,5 +37,6 @@ fun main() = application {
 
 fun saveAndExit(repository: Repository, exitFunction: () -> Unit) {
     repository.saveStats()
+    repository.saveGame()
     exitFunction()
 }
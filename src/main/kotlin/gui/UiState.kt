@@ -1,10 +1,21 @@
 package gui
 
+import repository.BoardSnapshot
+import repository.ECharToken
 import repository.EWinner
-import repository.Statistics
+import repository.GameEvent
+import repository.Repository
 
 data class UiState(
-    val board: List<List<Char>>,
+    val board: BoardSnapshot,
     val winner: EWinner = EWinner.NONE,
-    val stats: Statistics
+    val stats: GameEvent.StatsChanged,
+    val strategy: String,
+    val canUndo: Boolean = false,
+    val canRedo: Boolean = false,
+    val firstMover: ECharToken = ECharToken.PLAYER,
+    val playerHuman: Boolean = true,
+    val computerHuman: Boolean = false,
+    val profile: String = Repository.DEFAULT_PROFILE,
+    val profiles: List<String> = listOf(profile)
 )
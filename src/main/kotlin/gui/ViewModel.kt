@@ -3,8 +3,14 @@ package gui
 import androidx.compose.runtime.getValue
 import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.setValue
+import repository.ECharToken
 import repository.EWinner
+import repository.GameEvent
+import repository.MoveStrategies
 import repository.Repository
+import java.util.concurrent.Executor
+import java.util.concurrent.Flow
+import javax.swing.SwingUtilities
 
 /**
  * ViewModel class responsible for managing the UI state and handling user interactions with the game.
@@ -12,53 +18,187 @@ import repository.Repository
  * @property repo The repository instance which holds the game logic and data.
  */
 class ViewModel(private val repo: Repository) {
-    var uiState by mutableStateOf(UiState(board = repo.immutableBoard, stats = repo.stats))
+    var uiState by mutableStateOf(
+        UiState(
+            board = repo.boardSnapshot,
+            winner = repo.winner,
+            canUndo = repo.canUndo(),
+            canRedo = repo.canRedo(),
+            stats = GameEvent.StatsChanged.of(repo.stats, repo.statsHistory),
+            strategy = repo.strategy.name(),
+            profile = repo.profile,
+            profiles = repo.profiles
+        )
+    )
         private set
 
+    init {
+        // The board, the result, statistics and recent form follow the repository's events, delivered on the UI
+        // thread, instead of being pulled and copied after every action that might have changed them
+        repo.events.subscribe(object : Flow.Subscriber<GameEvent> {
+            override fun onSubscribe(subscription: Flow.Subscription) {
+                subscription.request(Long.MAX_VALUE)
+            }
+
+            override fun onNext(event: GameEvent) {
+                uiState = when (event) {
+                    // Events are delivered after the action that published them, so the latest board is current
+                    is GameEvent.MoveMade -> uiState.copy(board = repo.boardSnapshot)
+                    // Resets, undone turns and restored games never leave a finished game on the board
+                    is GameEvent.BoardChanged -> uiState.copy(board = event.board(), winner = EWinner.NONE)
+                    is GameEvent.GameOver -> uiState.copy(winner = event.winner())
+                    is GameEvent.StatsChanged -> uiState.copy(stats = event)
+                }
+            }
+
+            override fun onError(throwable: Throwable) {
+                System.err.println("Error in the game event stream")
+                throwable.printStackTrace()
+            }
+
+            override fun onComplete() {}
+        }, Executor { SwingUtilities.invokeLater(it) }, Flow.defaultBufferSize())
+    }
+
+    /**
+     * Names of every computer strategy that was discovered at startup.
+     */
+    val strategies: List<String> = MoveStrategies.names().toList()
+
     /**
      * Handles the button click events in the game board.
      *
-     * This function adds a player's move to the board, updates the UI state,
-     * and checks if the game has a winner. If a winner is found, it also updates
-     * the game's statistics.
+     * This function adds a player's move to the board. The moves, the result and the new statistics reach the UI
+     * state through the repository's event stream.
      *
      * @param row The row index where the player has made their move.
      * @param col The column index where the player has made their move.
      */
     fun gameButtonClickHandler(row: Int, col: Int) {
         repo.addPlayerMove(row, col)
+        updateHistory()
+    }
 
-        uiState = uiState.copy(board = repo.immutableBoard, winner = repo.winner)
+    /**
+     * Handles the click event for taking back the last turn.
+     *
+     * The repository restores the board from before the player's last move and the computer's reply. If that
+     * turn had ended the game, the result is removed from the statistics again.
+     */
+    fun undoClickHandler() {
+        if (repo.undo()) {
+            updateHistory()
+        }
+    }
 
-        if (uiState.winner != EWinner.NONE) {
-            uiState = uiState.copy(stats = repo.stats)
+    /**
+     * Handles the click event for playing a taken back turn again.
+     *
+     * The turn is restored exactly as it was played, and counted in the statistics again if it ends the game.
+     */
+    fun redoClickHandler() {
+        if (repo.redo()) {
+            updateHistory()
         }
     }
 
     /**
      * Handles the click event for starting a new game.
      *
-     * This method resets the game board to its initial state and updates the UI state to reflect the reset board
-     * and no winner. The method interacts with the repository to reset the game logic.
+     * This method resets the game board to its initial state, after which an AI opener plays right away. The reset
+     * board reaches the UI state through the repository's event stream.
      */
     fun newGameClickHandler() {
         repo.resetBoard()
+        repo.playAiMoves()
+        updateHistory()
+    }
 
-        uiState = uiState.copy(board = repo.immutableBoard, winner = repo.winner)
+    /**
+     * Handles the selection of the side that opens new games.
+     *
+     * On an empty board the choice applies right away, so an AI opener plays its first move immediately.
+     *
+     * @param side The token that moves first.
+     */
+    fun firstMoverClickHandler(side: ECharToken) {
+        repo.firstMover = side
+        repo.playAiMoves()
+
+        uiState = uiState.copy(firstMover = repo.firstMover)
+        updateHistory()
+    }
+
+    /**
+     * Handles switching a side between human and AI control.
+     *
+     * If the AI takes over the side to move, it plays right away. With both sides on AI the rest of the game is
+     * played out at once.
+     *
+     * @param side The token whose controller is switched.
+     */
+    fun controllerClickHandler(side: ECharToken) {
+        repo.setHuman(side, !repo.isHuman(side))
+        repo.playAiMoves()
+
+        uiState = uiState.copy(
+            playerHuman = repo.isHuman(ECharToken.PLAYER),
+            computerHuman = repo.isHuman(ECharToken.COMPUTER)
+        )
+        updateHistory()
     }
 
     /**
      * Handles the click event for resetting game statistics.
      *
      * This function interacts with the repository to reset the game statistics
-     * including wins, loses, and ties. It updates the UI state to reflect the
-     * reset statistics.
+     * including wins, loses, and ties. The reset statistics reach the UI state
+     * through the repository's event stream.
      *
      * @throws RuntimeException if the statistics file exists but cannot be deleted.
      */
     fun resetStatsClickHandler() {
         repo.resetStats()
+    }
+
+    /**
+     * Handles the selection of a computer strategy.
+     *
+     * The repository switches to the selected [repository.MoveStrategy] starting with the computer's next move,
+     * so the current game carries on with the new engine.
+     *
+     * @param name The name of the strategy to play against.
+     */
+    fun strategyClickHandler(name: String) {
+        repo.setStrategy(name)
 
-        uiState = uiState.copy(stats = repo.stats)
+        uiState = uiState.copy(strategy = repo.strategy.name())
+    }
+
+    /**
+     * Handles switching to another statistics profile, or creating one by entering a new name.
+     *
+     * The statistics of the current profile are saved, those of the selected one are loaded and a new game is
+     * started, so its results count for the selected profile only.
+     *
+     * @param name The profile to switch to.
+     * @throws IllegalArgumentException if the name is empty or too long to be stored.
+     */
+    fun profileClickHandler(name: String) {
+        repo.setProfile(name.trim())
+        repo.playAiMoves()
+
+        uiState = uiState.copy(
+            profile = repo.profile,
+            profiles = repo.profiles
+        )
+        updateHistory()
+    }
+
+    /**
+     * Refreshes which of the undo and redo buttons can be used.
+     */
+    private fun updateHistory() {
+        uiState = uiState.copy(canUndo = repo.canUndo(), canRedo = repo.canRedo())
     }
-}
\ No newline at end of file
+}
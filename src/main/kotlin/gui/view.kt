@@ -1,27 +1,38 @@
 package gui
 
+import androidx.compose.foundation.Canvas
 import androidx.compose.foundation.border
 import androidx.compose.foundation.layout.*
 import androidx.compose.foundation.shape.RoundedCornerShape
 import androidx.compose.material3.Button
 import androidx.compose.material3.MaterialTheme
+import androidx.compose.material3.OutlinedTextField
 import androidx.compose.material3.Text
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.getValue
+import androidx.compose.runtime.mutableStateOf
+import androidx.compose.runtime.remember
+import androidx.compose.runtime.setValue
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
+import androidx.compose.ui.geometry.Offset
+import androidx.compose.ui.geometry.Size
 import androidx.compose.ui.graphics.Color
 import androidx.compose.ui.unit.dp
 import androidx.compose.ui.unit.sp
 import androidx.compose.ui.zIndex
 import gui.theme.AppTheme
+import repository.ECharToken
 import repository.EWinner
+import repository.ProfileStore
 
 /**
  * A Composable function representing the main UI layout of the application.
  *
  * This function sets the theme using [AppTheme] and organizes the UI components
  * in a vertical arrangement using a [Column]. The components displayed include
- * [Statistics], [Board], [NewGameButton], [ResetStatsButton], and [WinnerText].
+ * [ProfileSelector], [Statistics], [RecentFormChart], [Board], [NewGameButton], [UndoRedoButtons], [ResetStatsButton],
+ * [StrategySelector], [SideSelector], and [WinnerText].
  *
  * @param viewModel The ViewModel instance that manages the UI states and handles user interactions.
  */
@@ -33,17 +44,23 @@ fun MainUi(viewModel: ViewModel) {
             horizontalAlignment = Alignment.CenterHorizontally,
             modifier = Modifier.fillMaxSize()
         ) {
+            ProfileSelector(viewModel)
             Statistics(viewModel)
+            RecentFormChart(viewModel)
             Board(viewModel)
             NewGameButton(viewModel)
+            UndoRedoButtons(viewModel)
             ResetStatsButton(viewModel)
+            StrategySelector(viewModel)
+            SideSelector(viewModel)
             WinnerText(viewModel)
         }
     }
 }
 
 /**
- * A Composable function that displays game statistics including wins, loses, and ties.
+ * A Composable function that displays game statistics including wins, loses, and ties, and below them the
+ * decisive games split between the first and the second mover.
  *
  * @param viewModel The ViewModel instance that holds the UI state with the statistics data.
  */
@@ -54,28 +71,83 @@ fun Statistics(viewModel: ViewModel) {
 
     Row(modifier = Modifier.padding(2.dp)) {
         Text(
-            text = "Wins: ${stats.wins}",
+            text = "Wins: ${stats.wins()}",
             color = MaterialTheme.colorScheme.onBackground,
             modifier = textModifier
         )
         Text(
-            text = "Loses: ${stats.loses}",
+            text = "Loses: ${stats.loses()}",
             color = MaterialTheme.colorScheme.onBackground,
             modifier = textModifier
         )
         Text(
-            text = "Ties: ${stats.ties}",
+            text = "Ties: ${stats.ties()}",
+            color = MaterialTheme.colorScheme.onBackground,
+            modifier = textModifier
+        )
+    }
+    Row(modifier = Modifier.padding(2.dp)) {
+        Text(
+            text = "First mover wins: ${stats.openerWins()}",
+            color = MaterialTheme.colorScheme.onBackground,
+            modifier = textModifier
+        )
+        Text(
+            text = "Second mover wins: ${stats.responderWins()}",
             color = MaterialTheme.colorScheme.onBackground,
             modifier = textModifier
         )
     }
 }
 
+/**
+ * A Composable function that shows the recent form: the win rate over the last games and a bar chart of the games
+ * of the last 24 hours, stacked as wins, ties and loses from the bottom.
+ *
+ * The bars are read bucket by bucket from the [repository.RecentForm] of the last statistics event, so drawing costs
+ * the same however many games were played.
+ *
+ * @param viewModel The ViewModel instance that holds the UI state with the recent form.
+ */
+@Composable
+fun RecentFormChart(viewModel: ViewModel) {
+    val form = viewModel.uiState.stats.recent()
+    val now = System.currentTimeMillis()
+    val rate = (form.recentWinRate() * 100).toInt()
+    val tallest = maxOf(1, (0 until form.hours()).maxOf { form.games(it, now) })
+
+    val winColor = MaterialTheme.colorScheme.primary
+    val tieColor = MaterialTheme.colorScheme.secondary
+    val loseColor = MaterialTheme.colorScheme.error
+
+    Text(
+        text = "Last ${form.recentGames()} games: $rate% won",
+        color = MaterialTheme.colorScheme.onBackground,
+        modifier = Modifier.padding(2.dp)
+    )
+    Canvas(modifier = Modifier.padding(2.dp).size(width = 240.dp, height = 48.dp)) {
+        val barWidth = size.width / form.hours()
+        for (ago in 0 until form.hours()) {
+            // Oldest hour on the left
+            val x = (form.hours() - 1 - ago) * barWidth
+            var bottom = size.height
+            for ((winner, color) in listOf(
+                EWinner.PLAYER to winColor, EWinner.TIE to tieColor, EWinner.COMPUTER to loseColor
+            )) {
+                val height = form.count(ago, winner, now) * size.height / tallest
+                drawRect(color, Offset(x + 1f, bottom - height), Size(barWidth - 2f, height))
+                bottom -= height
+            }
+        }
+    }
+}
+
 /**
  * A Composable function that renders a game board with buttons representing the current state of the game.
  *
  * This function arranges its components in a vertical column layout, centering the content,
- * and displaying a 3x3 grid of game buttons. Each button can be clicked to trigger an action in the ViewModel.
+ * and displaying a grid of game buttons read straight from the board snapshot. Each button can be clicked to
+ * trigger an action in the ViewModel.
  *
  * @param viewModel The ViewModel instance managing the UI state and handling user interactions for the game.
  */
@@ -92,19 +164,12 @@ fun Board(viewModel: ViewModel) {
                 shape = RoundedCornerShape(2.dp)
             ),
     ) {
-        Row {
-            for (i in 0..2) {
-                GameButton(viewModel.uiState.board[0][i].toString()) { viewModel.gameButtonClickHandler(0, i) }
-            }
-        }
-        Row {
-            for (i in 0..2) {
-                GameButton(viewModel.uiState.board[1][i].toString()) { viewModel.gameButtonClickHandler(1, i) }
-            }
-        }
-        Row {
-            for (i in 0..2) {
-                GameButton(viewModel.uiState.board[2][i].toString()) { viewModel.gameButtonClickHandler(2, i) }
+        val board = viewModel.uiState.board
+        for (row in 0 until board.size()) {
+            Row {
+                for (col in 0 until board.size()) {
+                    GameButton(board.get(row, col).token().toString()) { viewModel.gameButtonClickHandler(row, col) }
+                }
             }
         }
     }
@@ -151,6 +216,38 @@ fun NewGameButton(viewModel: ViewModel) {
     }
 }
 
+/**
+ * A Composable function that renders the undo and redo buttons side by side.
+ *
+ * Each button is only enabled while the history has a turn to take back or play again. Clicking them invokes the
+ * ViewModel's `undoClickHandler` and `redoClickHandler` methods.
+ *
+ * @param viewModel The ViewModel instance that manages the UI state and handles the history navigation.
+ */
+@Composable
+fun UndoRedoButtons(viewModel: ViewModel) {
+    Row(
+        modifier = Modifier.padding(2.dp),
+        verticalAlignment = Alignment.CenterVertically,
+        horizontalArrangement = Arrangement.Center
+    ) {
+        Button(
+            onClick = viewModel::undoClickHandler,
+            enabled = viewModel.uiState.canUndo,
+            modifier = Modifier.padding(start = 2.5.dp, end = 2.5.dp)
+        ) {
+            Text("Undo")
+        }
+        Button(
+            onClick = viewModel::redoClickHandler,
+            enabled = viewModel.uiState.canRedo,
+            modifier = Modifier.padding(start = 2.5.dp, end = 2.5.dp)
+        ) {
+            Text("Redo")
+        }
+    }
+}
+
 /**
  * A Composable function that displays the winning status of the game.
  *
@@ -204,4 +301,125 @@ fun ResetStatsButton(viewModel: ViewModel) {
     Button(onClick = viewModel::resetStatsClickHandler) {
         Text("Reset statistics")
     }
-}
\ No newline at end of file
+}
+
+/**
+ * A Composable function that renders one button per available computer strategy.
+ *
+ * The currently selected strategy is shown disabled. Clicking another one triggers the
+ * `strategyClickHandler` function in the provided `viewModel`.
+ *
+ * @param viewModel The ViewModel instance that lists the strategies and handles the selection.
+ */
+@Composable
+fun StrategySelector(viewModel: ViewModel) {
+    Row(
+        modifier = Modifier.padding(2.dp),
+        verticalAlignment = Alignment.CenterVertically,
+        horizontalArrangement = Arrangement.Center
+    ) {
+        for (name in viewModel.strategies) {
+            Button(
+                onClick = { viewModel.strategyClickHandler(name) },
+                enabled = name != viewModel.uiState.strategy,
+                modifier = Modifier.padding(start = 2.5.dp, end = 2.5.dp)
+            ) {
+                Text(name)
+            }
+        }
+    }
+}
+
+/**
+ * A Composable function that renders the side controls: which token opens new games and whether each token is
+ * played by a human or the AI.
+ *
+ * Clicking a token's opener button triggers the `firstMoverClickHandler` function, and clicking its controller
+ * button triggers the `controllerClickHandler` function in the provided `viewModel`.
+ *
+ * @param viewModel The ViewModel instance that holds the side settings and handles their changes.
+ */
+@Composable
+fun SideSelector(viewModel: ViewModel) {
+    val state = viewModel.uiState
+
+    for ((side, human) in listOf(ECharToken.PLAYER to state.playerHuman, ECharToken.COMPUTER to state.computerHuman)) {
+        Row(
+            modifier = Modifier.padding(2.dp),
+            verticalAlignment = Alignment.CenterVertically,
+            horizontalArrangement = Arrangement.Center
+        ) {
+            Text(
+                text = "${side.token()}:",
+                color = MaterialTheme.colorScheme.onBackground,
+                modifier = Modifier.padding(start = 2.5.dp, end = 2.5.dp)
+            )
+            Button(
+                onClick = { viewModel.controllerClickHandler(side) },
+                modifier = Modifier.padding(start = 2.5.dp, end = 2.5.dp)
+            ) {
+                Text(if (human) "Human" else "AI")
+            }
+            Button(
+                onClick = { viewModel.firstMoverClickHandler(side) },
+                enabled = state.firstMover != side,
+                modifier = Modifier.padding(start = 2.5.dp, end = 2.5.dp)
+            ) {
+                Text("Moves first")
+            }
+        }
+    }
+}
+
+/**
+ * A Composable function that renders the statistics profiles as buttons, with a text field to add a new one.
+ *
+ * The current profile is shown disabled. Clicking another profile, or adding one by name, triggers the
+ * `profileClickHandler` function in the provided `viewModel`.
+ *
+ * @param viewModel The ViewModel instance that lists the profiles and handles switching between them.
+ */
+@Composable
+fun ProfileSelector(viewModel: ViewModel) {
+    var newProfile by remember { mutableStateOf("") }
+
+    Row(
+        modifier = Modifier.padding(2.dp),
+        verticalAlignment = Alignment.CenterVertically,
+        horizontalArrangement = Arrangement.Center
+    ) {
+        for (name in viewModel.uiState.profiles) {
+            Button(
+                onClick = { viewModel.profileClickHandler(name) },
+                enabled = name != viewModel.uiState.profile,
+                modifier = Modifier.padding(start = 2.5.dp, end = 2.5.dp)
+            ) {
+                Text(name)
+            }
+        }
+    }
+    Row(
+        modifier = Modifier.padding(2.dp),
+        verticalAlignment = Alignment.CenterVertically,
+        horizontalArrangement = Arrangement.Center
+    ) {
+        OutlinedTextField(
+            value = newProfile,
+            onValueChange = { newProfile = it },
+            label = { Text("Profile") },
+            singleLine = true,
+            modifier = Modifier.padding(start = 2.5.dp, end = 2.5.dp)
+        )
+        Button(
+            onClick = {
+                viewModel.profileClickHandler(newProfile)
+                newProfile = ""
+            },
+            enabled = newProfile.isNotBlank()
+                    && newProfile.trim().toByteArray().size <= ProfileStore.MAX_ID_BYTES,
+            modifier = Modifier.padding(start = 2.5.dp, end = 2.5.dp)
+        ) {
+            Text("Switch")
+        }
+    }
+}
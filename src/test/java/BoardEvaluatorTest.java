@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import repository.BoardEvaluator;
+import repository.BoardGeometry;
+import repository.EWinner;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardEvaluatorTest {
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3, 3);
+
+    @Test
+    @DisplayName("Classifies wins, ties and running games")
+    void classifies() {
+        long[] player = {0b000_000_111, 0b000_000_011, 0b010_110_001, 0b000_000_001, 0b100_010_001};
+        long[] computer = {0b000_011_000, 0b111_000_000, 0b101_001_110, 0b000_000_010, 0b011_001_000};
+        byte[] winners = new byte[player.length];
+
+        BoardEvaluator.winners(GEOMETRY, player, computer, winners, player.length);
+
+        assertEquals(EWinner.PLAYER.ordinal(), winners[0]);
+        assertEquals(EWinner.COMPUTER.ordinal(), winners[1]);
+        assertEquals(EWinner.TIE.ordinal(), winners[2]);
+        assertEquals(EWinner.NONE.ordinal(), winners[3]);
+        assertEquals(EWinner.PLAYER.ordinal(), winners[4]);
+    }
+
+    @Test
+    @DisplayName("Vector and scalar paths agree on random boards of every size")
+    void vectorMatchesScalar() {
+        SplittableRandom random = new SplittableRandom(3);
+
+        for (int size = 3; size <= 5; size++) {
+            BoardGeometry geometry = BoardGeometry.of(size, 3);
+            // Not a multiple of any vector width, so the tail loop runs too
+            int count = 10_007;
+            long[] player = new long[count];
+            long[] computer = new long[count];
+
+            for (int i = 0; i < count; i++) {
+                long occupied = random.nextLong() & geometry.fullMask();
+                long split = random.nextLong();
+                player[i] = occupied & split;
+                computer[i] = occupied & ~split;
+            }
+
+            byte[] expected = new byte[count];
+            byte[] actual = new byte[count];
+            BoardEvaluator.winnersScalar(geometry, player, computer, expected, count);
+            BoardEvaluator.winners(geometry, player, computer, actual, count);
+
+            assertArrayEquals(expected, actual, "size " + size + ", vectorized " + BoardEvaluator.isVectorized());
+        }
+    }
+
+    @Test
+    @DisplayName("Rejects a count larger than the arrays")
+    void rejectsBadCount() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BoardEvaluator.winners(GEOMETRY, new long[2], new long[2], new byte[1], 2));
+    }
+}
@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import repository.Cli;
+import repository.Repository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CliTest {
+    private static String[] serve(String commands, Repository repository) throws IOException {
+        StringWriter out = new StringWriter();
+        long answered = Cli.serve(new BufferedReader(new StringReader(commands)), out, repository);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(answered, lines.length);
+        return lines;
+    }
+
+    @Test
+    @DisplayName("Answers every command with one line")
+    void protocol() throws IOException {
+        Repository repository = Repository.inMemory(1);
+
+        String[] answers = serve("""
+                m 4
+                # comments and blank lines get no answer
+
+                m 4
+                u
+                r
+                b
+                s nonsense
+                x
+                t
+                q
+                m 0
+                """, repository);
+
+        assertEquals(8, answers.length);
+        assertTrue(answers[0].matches("[.O]{4}X[.O]{4} -") && answers[0].indexOf('O') >= 0, answers[0]);
+        assertEquals("? illegal move 4", answers[1]);
+        assertEquals("......... -", answers[2]);
+        assertEquals(answers[0], answers[3]);
+        assertEquals(answers[0], answers[4]);
+        assertTrue(answers[5].startsWith("? strategies: "), answers[5]);
+        assertEquals("? unknown command x", answers[6]);
+        assertEquals("t 0 0 0", answers[7]);
+    }
+
+    @Test
+    @DisplayName("Plays a batch of games through to the end")
+    void batch() throws IOException {
+        Repository repository = Repository.inMemory(2);
+        repository.setStrategy("random");
+
+        StringBuilder commands = new StringBuilder();
+        int games = 200;
+        for (int game = 0; game < games; game++) {
+            commands.append("n\n");
+            for (int cell = 0; cell < 9; cell++) {
+                commands.append("m ").append((cell + game) % 9).append('\n');
+            }
+        }
+        commands.append("t\n");
+
+        String[] answers = serve(commands.toString(), repository);
+
+        assertEquals(games * 10 + 1, answers.length);
+        for (int game = 0; game < games; game++) {
+            // Trying every cell in turn always finishes the game
+            assertFalse(answers[game * 10 + 9].endsWith(" -"), answers[game * 10 + 9]);
+        }
+        String[] totals = answers[answers.length - 1].split(" ");
+        assertEquals(games, Integer.parseInt(totals[1]) + Integer.parseInt(totals[2]) + Integer.parseInt(totals[3]));
+    }
+}
@@ -0,0 +1,94 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import repository.EWinner;
+import repository.GameBatch;
+import repository.Repository;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameBatchTest {
+    @Test
+    @DisplayName("Batch outcomes match playing each game through addPlayerMove")
+    void matchesAddPlayerMove() {
+        int games = 500;
+        byte[] moves = new byte[games * 9];
+        int[] offsets = new int[games + 1];
+        shuffledGames(moves, offsets, new SplittableRandom(7));
+
+        // The search never draws on the random source, so both paths play identical replies
+        Repository batch = new Repository(1);
+        Repository single = new Repository(1);
+        batch.setStrategy("search");
+        single.setStrategy("search");
+
+        GameBatch.Result result = batch.playBatch(moves, offsets);
+
+        long[] counts = new long[EWinner.values().length];
+        for (int game = 0; game < games; game++) {
+            single.resetBoard();
+            for (int i = offsets[game]; i < offsets[game + 1] && !single.isGameOver(); i++) {
+                single.addPlayerMove(moves[i] / 3, moves[i] % 3);
+            }
+
+            assertEquals(single.getWinner(), result.winner(game), "game " + game);
+            counts[single.getWinner().ordinal()]++;
+        }
+
+        assertArrayEquals(counts, result.counts());
+        assertEquals(0, result.count(EWinner.PLAYER));
+    }
+
+    @Test
+    @DisplayName("Skips occupied cells and leaves short games unfinished")
+    void skipsInvalidMoves() {
+        // Game 0 repeats the center, game 1 has no moves at all
+        byte[] moves = {4, 4, 4};
+        int[] offsets = {0, 3, 3};
+
+        GameBatch.Result result = new Repository(1).playBatch(moves, offsets);
+
+        assertEquals(EWinner.NONE, result.winner(0));
+        assertEquals(2, result.moves()[0]);
+        assertEquals(EWinner.NONE, result.winner(1));
+        assertEquals(0, result.moves()[1]);
+        assertEquals(2, result.count(EWinner.NONE));
+    }
+
+    @Test
+    @DisplayName("Rejects out of range cells")
+    void rejectsBadCells() {
+        Repository repository = new Repository(1);
+
+        assertThrows(IllegalArgumentException.class, () -> repository.playBatch(new byte[]{9}, new int[]{0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> repository.playBatch(new byte[]{0}, new int[]{0, 2}));
+    }
+
+    @Test
+    @DisplayName("Rejects offsets that decrease or run past the moves in the middle of the batch")
+    void rejectsBadOffsets() {
+        Repository repository = new Repository(1);
+        byte[] moves = {0, 1, 2, 3};
+
+        assertThrows(IllegalArgumentException.class, () -> repository.playBatch(moves, new int[]{0, 3, 1, 4}));
+        assertThrows(IllegalArgumentException.class, () -> repository.playBatch(moves, new int[]{0, 9, 4}));
+        assertThrows(IllegalArgumentException.class, () -> repository.playBatch(moves, new int[]{2, 0, 4}));
+    }
+
+    /**
+     * Fills {@code moves} with one random permutation of the 9 cells per game.
+     */
+    static void shuffledGames(byte[] moves, int[] offsets, SplittableRandom random) {
+        int games = offsets.length - 1;
+        for (int game = 0; game < games; game++) {
+            offsets[game] = game * 9;
+            for (int i = 0; i < 9; i++) {
+                int j = random.nextInt(i + 1);
+                moves[game * 9 + i] = moves[game * 9 + j];
+                moves[game * 9 + j] = (byte) i;
+            }
+        }
+        offsets[games] = games * 9;
+    }
+}
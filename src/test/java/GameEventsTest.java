@@ -0,0 +1,187 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import repository.ECharToken;
+import repository.EWinner;
+import repository.GameEvent;
+import repository.GameSnapshot;
+import repository.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameEventsTest {
+    /**
+     * Records everything it is handed, on the calling thread, and requests nothing by itself.
+     */
+    private static final class Recorder implements Flow.Subscriber<GameEvent> {
+        final List<GameEvent> events = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(GameEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private static Recorder subscribe(Repository repo, int bufferSize) {
+        Recorder recorder = new Recorder();
+        repo.getEvents().subscribe(recorder, Runnable::run, bufferSize);
+        return recorder;
+    }
+
+    /**
+     * Plays the first empty cell until the game is over.
+     */
+    private static void playOut(Repository repo) {
+        while (repo.getWinner() == EWinner.NONE) {
+            int cell = 0;
+            while (repo.getBoardSnapshot().get(cell / 3, cell % 3) != ECharToken.EMPTY) {
+                cell++;
+            }
+            repo.addPlayerMove(cell / 3, cell % 3);
+        }
+    }
+
+    @Test
+    @DisplayName("Moves, the result and the new statistics are published in order")
+    void order() {
+        Repository repo = Repository.inMemory(7);
+        Recorder recorder = subscribe(repo, 64);
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        playOut(repo);
+
+        List<GameEvent> events = recorder.events;
+        int moves = events.size() - 2;
+        for (int ply = 0; ply < moves; ply++) {
+            GameEvent.MoveMade move = assertInstanceOf(GameEvent.MoveMade.class, events.get(ply));
+            assertEquals(ply % 2 == 0 ? ECharToken.PLAYER : ECharToken.COMPUTER, move.side());
+            assertEquals(move.side(), repo.getBoardSnapshot().get(move.cell() / 3, move.cell() % 3));
+        }
+        assertEquals(repo.getBoardSnapshot().version(), ((GameEvent.MoveMade) events.get(moves - 1)).version());
+        assertEquals(new GameEvent.GameOver(repo.getWinner()), events.get(moves));
+        assertEquals(GameEvent.StatsChanged.of(repo.getStats(), repo.getStatsHistory()), events.get(moves + 1));
+        GameEvent.StatsChanged stats = (GameEvent.StatsChanged) events.get(moves + 1);
+        assertEquals(1, stats.recent().recent(repo.getWinner()));
+        assertEquals(1, stats.recent().recentGames());
+
+        recorder.events.clear();
+        repo.undo();
+        assertEquals(List.of(GameEvent.StatsChanged.of(repo.getStats(), repo.getStatsHistory()),
+                new GameEvent.BoardChanged(repo.getBoardSnapshot())), recorder.events);
+        recorder.events.clear();
+        repo.redo();
+        assertInstanceOf(GameEvent.MoveMade.class, recorder.events.get(0));
+        assertEquals(new GameEvent.GameOver(repo.getWinner()), recorder.events.get(recorder.events.size() - 2));
+    }
+
+    @Test
+    @DisplayName("New games, undone turns and restored games publish the new board")
+    void boardChanges() {
+        Repository repo = Repository.inMemory(11);
+        Recorder recorder = subscribe(repo, 64);
+        recorder.subscription.request(Long.MAX_VALUE);
+
+        repo.addPlayerMove(1, 1);
+        GameSnapshot game = repo.snapshotGame();
+        long player = repo.getBoardSnapshot().mask(ECharToken.PLAYER);
+        long computer = repo.getBoardSnapshot().mask(ECharToken.COMPUTER);
+
+        recorder.events.clear();
+        repo.undo();
+        GameEvent.BoardChanged undone = assertInstanceOf(GameEvent.BoardChanged.class, recorder.events.get(0));
+        assertEquals(repo.getBoardSnapshot().version(), undone.board().version());
+        assertEquals(ECharToken.EMPTY, undone.board().get(1, 1));
+
+        repo.resetBoard();
+        assertEquals(new GameEvent.BoardChanged(repo.getBoardSnapshot()), recorder.events.get(1));
+
+        repo.restoreGame(game);
+        GameEvent.BoardChanged restored = assertInstanceOf(GameEvent.BoardChanged.class, recorder.events.get(2));
+        assertEquals(player, restored.board().mask(ECharToken.PLAYER));
+        assertEquals(computer, restored.board().mask(ECharToken.COMPUTER));
+        assertEquals(3, recorder.events.size());
+    }
+
+    @Test
+    @DisplayName("Nothing is delivered beyond the subscriber's demand, and late statistics are conflated")
+    void backpressure() {
+        Repository repo = Repository.inMemory(8);
+        Recorder recorder = subscribe(repo, 64);
+
+        repo.addPlayerMove(1, 1);
+        repo.resetStats();
+        repo.resetStats();
+        assertTrue(recorder.events.isEmpty());
+
+        recorder.subscription.request(1);
+        assertEquals(1, recorder.events.size());
+        assertEquals(ECharToken.PLAYER, ((GameEvent.MoveMade) recorder.events.get(0)).side());
+
+        recorder.subscription.request(10);
+        // The computer's reply, then only one of the two resets
+        assertEquals(3, recorder.events.size());
+        assertInstanceOf(GameEvent.MoveMade.class, recorder.events.get(1));
+        GameEvent.StatsChanged stats = assertInstanceOf(GameEvent.StatsChanged.class, recorder.events.get(2));
+        assertEquals(0, stats.wins() + stats.loses() + stats.ties());
+        assertEquals(0, stats.recent().recentGames());
+        assertEquals(0, repo.getEvents().dropped());
+    }
+
+    @Test
+    @DisplayName("A subscriber a whole buffer behind loses the oldest events")
+    void overflow() {
+        Repository repo = Repository.inMemory(9);
+        Recorder recorder = subscribe(repo, 2);
+
+        repo.addPlayerMove(0, 0);
+        repo.addPlayerMove(repo.getBoardSnapshot().get(2, 2) == ECharToken.EMPTY ? 2 : 0, 2);
+        assertEquals(2, repo.getEvents().dropped());
+
+        recorder.subscription.request(Long.MAX_VALUE);
+        assertEquals(2, recorder.events.size());
+        assertEquals(repo.getBoardSnapshot().version(), ((GameEvent.MoveMade) recorder.events.get(1)).version());
+    }
+
+    @Test
+    @DisplayName("Cancelling unsubscribes, and a bad request fails the subscription")
+    void cancel() {
+        Repository repo = Repository.inMemory(10);
+        assertFalse(repo.getEvents().hasSubscribers());
+
+        Recorder cancelled = subscribe(repo, 8);
+        Recorder failed = subscribe(repo, 8);
+        assertEquals(2, repo.getEvents().subscribers());
+
+        cancelled.subscription.cancel();
+        failed.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, failed.error);
+        assertFalse(repo.getEvents().hasSubscribers());
+
+        repo.addPlayerMove(1, 1);
+        cancelled.subscription.request(1);
+        failed.subscription.request(1);
+        assertTrue(cancelled.events.isEmpty());
+        assertTrue(failed.events.isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> repo.getEvents().subscribe(new Recorder(), Runnable::run, 0));
+    }
+}
@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import repository.ECharToken;
+import repository.GameSnapshot;
+import repository.Repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameSnapshotTest {
+    @Test
+    @DisplayName("Restoring a snapshot resumes the game with its undo and redo history")
+    void restore() {
+        Repository played = new Repository(1);
+        played.addPlayerMove(0, 0);
+        played.addPlayerMove(2, 2);
+        played.addPlayerMove(0, 2);
+        played.undo();
+        GameSnapshot snapshot = played.snapshotGame();
+
+        assertEquals(ECharToken.PLAYER, snapshot.opener());
+        assertEquals(6, snapshot.plies());
+        assertEquals(3, snapshot.turns());
+        assertEquals(2, snapshot.turn());
+        assertEquals(4, snapshot.pliesOnBoard());
+
+        Repository restored = new Repository(2);
+        restored.restoreGame(GameSnapshot.fromBytes(snapshot.toBytes()));
+
+        assertEquals(played.getBoard(), restored.getBoard());
+        assertEquals(played.getSideToMove(), restored.getSideToMove());
+        assertArrayEquals(played.getMoveHistory(), restored.getMoveHistory());
+        assertEquals(snapshot, restored.snapshotGame());
+
+        played.redo();
+        restored.redo();
+        assertEquals(played.getBoard(), restored.getBoard());
+        for (int i = 0; i < 3; i++) {
+            played.undo();
+            restored.undo();
+            assertEquals(played.getBoard(), restored.getBoard());
+        }
+        assertFalse(restored.canUndo());
+    }
+
+    @Test
+    @DisplayName("Encodes a game in at most nine bytes")
+    void compact() {
+        Repository repository = new Repository(3);
+        repository.setFirstMover(ECharToken.COMPUTER);
+        assertEquals(4, repository.snapshotGame().toBytes().length);
+
+        repository.setHuman(ECharToken.PLAYER, false);
+        repository.playAiMoves();
+        GameSnapshot full = repository.snapshotGame();
+
+        assertEquals(ECharToken.COMPUTER, full.opener());
+        assertTrue(full.toBytes().length <= GameSnapshot.MAX_ENCODED_SIZE);
+        assertEquals(full, GameSnapshot.fromBytes(full.toBytes()));
+        assertThrows(IllegalArgumentException.class, () -> new Repository(3).restoreGame(full));
+    }
+
+    @Test
+    @DisplayName("Rejects bytes that don't hold a legal game")
+    void rejectsCorruptBytes() {
+        Repository repository = new Repository(4);
+        repository.addPlayerMove(1, 1);
+        byte[] bytes = repository.snapshotGame().toBytes();
+
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.fromBytes(new byte[3]));
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.fromBytes(Arrays.copyOf(bytes, 6)));
+
+        byte[] version = bytes.clone();
+        version[0] = 0x20;
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.fromBytes(version));
+
+        byte[] repeated = bytes.clone();
+        repeated[4] = (byte) (repeated[4] & 0x0F | (repeated[4] & 0x0F) << 4);
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.fromBytes(repeated));
+
+        byte[] turn = bytes.clone();
+        turn[1] = (byte) (turn[1] & 0xF0 | 2);
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.fromBytes(turn));
+    }
+
+    @Test
+    @DisplayName("Saves a game in progress and loads it into a new repository")
+    void saveAndLoad() throws IOException {
+        Path file = Path.of("game.bin");
+        Files.deleteIfExists(file);
+
+        Repository repository = new Repository(5);
+        repository.addPlayerMove(1, 1);
+        repository.saveGame();
+        assertTrue(Files.exists(file));
+
+        Repository resumed = new Repository(6);
+        assertTrue(resumed.loadGame());
+        assertEquals(repository.getBoard(), resumed.getBoard());
+
+        repository.resetBoard();
+        repository.saveGame();
+        assertTrue(Files.notExists(file));
+        assertFalse(new Repository(7).loadGame());
+    }
+}
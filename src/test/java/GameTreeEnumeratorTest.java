@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import repository.BoardGeometry;
+import repository.EWinner;
+import repository.GameTreeEnumerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameTreeEnumeratorTest {
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3, 3);
+
+    @Test
+    @DisplayName("Finds the known 3x3 game tree on one thread")
+    void singleThreaded() {
+        assertKnownTree(GameTreeEnumerator.enumerate(GEOMETRY));
+    }
+
+    @Test
+    @DisplayName("Finds the known 3x3 game tree in parallel")
+    void parallel() {
+        assertKnownTree(GameTreeEnumerator.enumerate(GEOMETRY, GEOMETRY.cells(), 4));
+    }
+
+    @Test
+    @DisplayName("Depth limit cuts the tree into unfinished leaves")
+    void depthLimit() {
+        GameTreeEnumerator.Result result = GameTreeEnumerator.enumerate(GEOMETRY, 4, 2);
+
+        assertEquals(1 + 9 + 72 + 504 + 3024, result.nodes());
+        assertEquals(0, result.games());
+        assertEquals(3024, result.games(EWinner.NONE));
+    }
+
+    @Test
+    @DisplayName("Rejects boards whose positions can't be keyed")
+    void tooLarge() {
+        assertThrows(IllegalArgumentException.class,
+                () -> GameTreeEnumerator.enumerate(BoardGeometry.of(7, 4), 1, 1));
+    }
+
+    private static void assertKnownTree(GameTreeEnumerator.Result result) {
+        assertEquals(549_946, result.nodes());
+        assertEquals(255_168, result.games());
+        assertEquals(131_184, result.games(EWinner.PLAYER));
+        assertEquals(77_904, result.games(EWinner.COMPUTER));
+        assertEquals(46_080, result.games(EWinner.TIE));
+        assertEquals(0, result.games(EWinner.NONE));
+        assertEquals(5_478, result.positions());
+        assertTrue(result.nodesPerSecond() > 0);
+    }
+}
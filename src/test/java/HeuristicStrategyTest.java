@@ -0,0 +1,49 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import repository.ECharToken;
+import repository.HeuristicStrategy;
+import repository.MoveStrategy;
+import repository.PackedBoard;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeuristicStrategyTest {
+    private final MoveStrategy strategy = new HeuristicStrategy();
+
+    @Test
+    @DisplayName("Creates a fork when one is available")
+    void createsFork() {
+        // O X _ / _ O _ / _ _ X with O to move: 3 and 6 both fork
+        PackedBoard board = new PackedBoard(3, 0b100_000_010, 0b000_010_001);
+        int cell = strategy.selectMove(board, ECharToken.COMPUTER, new SplittableRandom(1));
+
+        assertTrue(cell == 3 || cell == 6, "played " + cell);
+    }
+
+    @Test
+    @DisplayName("Answers opposite corners with a side instead of a corner")
+    void blocksDoubleFork() {
+        // X _ _ / _ O _ / _ _ X, any corner loses to a fork
+        PackedBoard board = new PackedBoard(3, 0b100_000_001, 0b000_010_000);
+
+        for (long seed = 0; seed < 20; seed++) {
+            int cell = strategy.selectMove(board, ECharToken.COMPUTER, new SplittableRandom(seed));
+            assertTrue(cell == 1 || cell == 3 || cell == 5 || cell == 7, "played " + cell);
+        }
+    }
+
+    @Test
+    @DisplayName("Takes a win, else blocks one, on other board sizes")
+    void threatsOnLargerBoards() {
+        // 4x4, four in a row: X holds 0-2 of the top row, O holds 4-6 of the second
+        PackedBoard board = new PackedBoard(4, 0b0111, 0b0111_0000);
+
+        assertEquals(3, strategy.selectMove(board, ECharToken.PLAYER, new SplittableRandom(1)));
+        assertEquals(7, strategy.selectMove(board, ECharToken.COMPUTER, new SplittableRandom(1)));
+
+        PackedBoard blocking = new PackedBoard(4, 0b0111, 0b1000_0000);
+        assertEquals(3, strategy.selectMove(blocking, ECharToken.COMPUTER, new SplittableRandom(1)));
+    }
+}
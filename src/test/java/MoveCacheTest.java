@@ -0,0 +1,158 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import repository.ECharToken;
+import repository.MoveCache;
+import repository.MoveStrategies;
+import repository.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveCacheTest {
+    @Test
+    @DisplayName("Caches moves and counts hits and misses")
+    void getPut() {
+        MoveCache cache = new MoveCache(64, MoveCache.Policy.LRU);
+        assertEquals(MoveCache.MISS, cache.get(7));
+
+        cache.put(7, 4);
+        cache.put(8, 0);
+        assertEquals(4, cache.get(7));
+        assertEquals(0, cache.get(8));
+        cache.put(7, 5);
+        assertEquals(5, cache.get(7));
+
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(0.75, cache.hitRate());
+        assertThrows(IllegalArgumentException.class, () -> cache.put(9, -1));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(MoveCache.MISS, cache.get(7));
+    }
+
+    @Test
+    @DisplayName("LRU evicts the least recently used move")
+    void lru() {
+        MoveCache cache = new MoveCache(3, MoveCache.Policy.LRU, 1);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        cache.get(1);
+
+        cache.put(4, 4);
+        assertEquals(MoveCache.MISS, cache.get(2));
+        assertEquals(1, cache.get(1));
+        assertEquals(3, cache.get(3));
+        assertEquals(4, cache.get(4));
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    @DisplayName("LFU evicts a rarely used move")
+    void lfu() {
+        MoveCache cache = new MoveCache(3, MoveCache.Policy.LFU, 1);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        for (int i = 0; i < 5; i++) {
+            cache.get(1);
+            cache.get(3);
+        }
+
+        cache.put(4, 4);
+        assertEquals(MoveCache.MISS, cache.get(2));
+        assertEquals(1, cache.get(1));
+        assertEquals(3, cache.get(3));
+    }
+
+    @Test
+    @DisplayName("TinyLFU keeps popular moves over one-off positions")
+    void tinyLfu() {
+        MoveCache cache = new MoveCache(2, MoveCache.Policy.TINY_LFU, 1);
+        for (int i = 0; i < 5; i++) {
+            if (cache.get(1) == MoveCache.MISS) {
+                cache.put(1, 1);
+            }
+            if (cache.get(2) == MoveCache.MISS) {
+                cache.put(2, 2);
+            }
+        }
+
+        assertEquals(MoveCache.MISS, cache.get(3));
+        cache.put(3, 3);
+        assertEquals(1, cache.rejections());
+        assertEquals(1, cache.get(1));
+        assertEquals(2, cache.get(2));
+
+        // Once it is looked up more often than the least recent entry, it gets in
+        for (int i = 0; i < 10; i++) {
+            cache.get(3);
+        }
+        cache.put(3, 3);
+        assertEquals(3, cache.get(3));
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    @DisplayName("Stays bounded and consistent under concurrent use")
+    void concurrent() throws InterruptedException {
+        for (MoveCache.Policy policy : MoveCache.Policy.values()) {
+            MoveCache cache = new MoveCache(500, policy, 8);
+            AtomicInteger wrong = new AtomicInteger();
+            List<Thread> threads = new ArrayList<>();
+
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    for (int i = 0; i < 100_000; i++) {
+                        long key = random.nextInt(2000);
+                        int move = cache.get(key);
+                        if (move == MoveCache.MISS) {
+                            cache.put(key, (int) key % 49);
+                        } else if (move != key % 49) {
+                            wrong.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(0, wrong.get(), policy.name());
+            assertTrue(cache.size() <= cache.capacity(), policy.name());
+            assertTrue(cache.hitRate() > 0.1, policy + " hit rate " + cache.hitRate());
+        }
+    }
+
+    @Test
+    @DisplayName("Repository answers repeated positions from the cache")
+    void repository() {
+        MoveCache cache = new MoveCache(1024, MoveCache.Policy.LRU);
+        Repository repository = new Repository(3);
+        repository.setMoveCache(cache);
+        repository.setStrategy(ECharToken.PLAYER, MoveStrategies.get("heuristic"));
+        repository.setHuman(ECharToken.PLAYER, false);
+        repository.resetStats();
+
+        int moves = repository.playAiMoves();
+        assertEquals(moves, cache.misses());
+        int[] first = repository.getMoveHistory();
+
+        repository.resetBoard();
+        repository.playAiMoves();
+        assertArrayEquals(first, repository.getMoveHistory());
+        assertEquals(moves, cache.hits());
+        assertEquals(moves, cache.misses());
+
+        repository.resetStats();
+    }
+}
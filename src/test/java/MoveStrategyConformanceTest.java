@@ -0,0 +1,210 @@
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import repository.BoardGeometry;
+import repository.BoardView;
+import repository.ECharToken;
+import repository.MoveStrategies;
+import repository.MoveStrategy;
+import repository.PackedBoard;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Conformance kit every discovered {@link MoveStrategy} has to pass. Their speed is measured by the JMH
+ * {@code StrategyMoveBenchmark} instead, where a loaded machine or a cold JIT can't fail the build.
+ */
+public class MoveStrategyConformanceTest {
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3, 3);
+
+    // Every reachable position where the game is still running, with the side to move
+    private static final List<PackedBoard> positions = new ArrayList<>();
+    private static final List<ECharToken> sides = new ArrayList<>();
+    private static final RandomGenerator random = new SplittableRandom(42);
+
+    @BeforeAll
+    static void enumeratePositions() {
+        Set<Long> seen = new HashSet<>();
+        collect(0, 0, ECharToken.PLAYER, seen);
+    }
+
+    @Test
+    @DisplayName("Built-in strategies are discovered")
+    void discovered() {
+        assertTrue(MoveStrategies.names().contains("heuristic"));
+        assertTrue(MoveStrategies.names().contains("random"));
+        assertEquals(MoveStrategies.DEFAULT, MoveStrategies.defaultStrategy().name());
+        assertThrows(IllegalArgumentException.class, () -> MoveStrategies.get("no such strategy"));
+
+        for (String name : MoveStrategies.names()) {
+            assertEquals(name, MoveStrategies.get(name).name());
+        }
+    }
+
+    @Test
+    @DisplayName("Every strategy plays an empty cell in every reachable position")
+    void playsEmptyCell() {
+        for (String name : MoveStrategies.names()) {
+            MoveStrategy strategy = MoveStrategies.get(name);
+
+            for (int i = 0; i < positions.size(); i++) {
+                PackedBoard board = positions.get(i);
+                int cell = strategy.selectMove(board, sides.get(i), random);
+
+                assertTrue(cell >= 0 && cell < 9, name + " played out of range cell " + cell + " on " + board);
+                assertEquals(ECharToken.EMPTY, board.get(cell), name + " played an occupied cell on " + board);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Every strategy returns -1 on a full board")
+    void fullBoard() {
+        PackedBoard full = new PackedBoard(3, 0b010_110_001, 0b101_001_110);
+
+        for (String name : MoveStrategies.names()) {
+            assertEquals(-1, MoveStrategies.get(name).selectMove(full, ECharToken.COMPUTER, random), name);
+        }
+    }
+
+    @Test
+    @DisplayName("Every strategy takes an immediate win")
+    void takesWin() {
+        // O O _ / X X _ / X _ _ with O to move
+        PackedBoard board = new PackedBoard(3, 0b001_011_000, 0b000_000_011);
+
+        for (String name : MoveStrategies.names()) {
+            if (name.equals("random")) {
+                continue;
+            }
+            assertEquals(2, MoveStrategies.get(name).selectMove(board, ECharToken.COMPUTER, random), name);
+        }
+    }
+
+    @Test
+    @DisplayName("Every strategy but random never loses, moving first or second, against every line of play")
+    void neverLoses() {
+        for (String name : MoveStrategies.names()) {
+            if (name.equals("random")) {
+                continue;
+            }
+            MoveStrategy strategy = MoveStrategies.get(name);
+
+            for (long seed = 0; seed < 20; seed++) {
+                RandomGenerator seeded = new SplittableRandom(seed);
+                assertFalse(opponentCanWin(strategy, 0, 0, true, seeded), name + " moving second, seed " + seed);
+                assertFalse(opponentCanWin(strategy, 0, 0, false, seeded), name + " moving first, seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Every strategy is allocation free")
+    void allocationFree() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeAllocationCounting(threads);
+
+        BoardView[] boards = positions.toArray(new BoardView[0]);
+        ECharToken[] toMove = sides.toArray(new ECharToken[0]);
+
+        for (String name : MoveStrategies.names()) {
+            MoveStrategy strategy = MoveStrategies.get(name);
+
+            // Warm up so that lazily initialised state is out of the way
+            int sink = play(strategy, boards, toMove, 20);
+
+            long before = threads.getCurrentThreadAllocatedBytes();
+            sink += play(strategy, boards, toMove, 20);
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+            assertTrue(allocated < 1024, name + " allocated " + allocated + " bytes (" + sink + ")");
+        }
+    }
+
+    private static int play(MoveStrategy strategy, BoardView[] boards, ECharToken[] toMove, int rounds) {
+        int sink = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < boards.length; i++) {
+                sink += strategy.selectMove(boards[i], toMove[i], random);
+            }
+        }
+        return sink;
+    }
+
+    private static void assumeAllocationCounting(ThreadMXBean threads) {
+        if (threads.isThreadAllocatedMemorySupported() && !threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        assumeTrue(threads.isThreadAllocatedMemoryEnabled());
+    }
+
+    private static void collect(int player, int computer, ECharToken toMove, Set<Long> seen) {
+        if (!seen.add(((long) player << 9) | computer) || isWon(player) || isWon(computer)) {
+            return;
+        }
+
+        int empty = ~(player | computer) & 0x1FF;
+        if (empty == 0) {
+            return;
+        }
+
+        positions.add(new PackedBoard(3, player, computer));
+        sides.add(toMove);
+
+        for (int cell = 0; cell < 9; cell++) {
+            if ((empty & (1 << cell)) != 0) {
+                if (toMove == ECharToken.PLAYER) {
+                    collect(player | 1 << cell, computer, ECharToken.COMPUTER, seen);
+                } else {
+                    collect(player, computer | 1 << cell, ECharToken.PLAYER, seen);
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks every opponent reply, with {@code strategy} answering as {@link ECharToken#COMPUTER}.
+     *
+     * @return {@code true} if any line of play ends with the opponent winning
+     */
+    private static boolean opponentCanWin(MoveStrategy strategy, int opponent, int computer, boolean opponentToMove,
+                                          RandomGenerator random) {
+        if (isWon(computer)) {
+            return false;
+        }
+        if (isWon(opponent)) {
+            return true;
+        }
+
+        int empty = ~(opponent | computer) & 0x1FF;
+        if (empty == 0) {
+            return false;
+        }
+
+        if (!opponentToMove) {
+            int cell = strategy.selectMove(new PackedBoard(3, opponent, computer), ECharToken.COMPUTER, random);
+            return opponentCanWin(strategy, opponent, computer | 1 << cell, true, random);
+        }
+
+        for (int cell = 0; cell < 9; cell++) {
+            if ((empty & 1 << cell) != 0 && opponentCanWin(strategy, opponent | 1 << cell, computer, false, random)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWon(int mask) {
+        return GEOMETRY.isWin(mask);
+    }
+}
@@ -0,0 +1,98 @@
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.PositionStore;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionStoreTest {
+    @Test
+    @DisplayName("Can put, get and compute values")
+    void putGetCompute() {
+        try (PositionStore store = new PositionStore(4)) {
+            long key = PositionStore.encode(0b000_010_000, 0b000_000_001);
+            assertFalse(store.contains(key));
+            assertEquals(-7, store.getOrDefault(key, -7));
+
+            store.put(key, PositionStore.pack(-12, 3, 5));
+            int value = store.getOrDefault(key, 0);
+            assertEquals(-12, PositionStore.score(value));
+            assertEquals(3, PositionStore.move(value));
+            assertEquals(5, PositionStore.flags(value));
+
+            int updated = store.compute(key, (k, old, present) -> present ? PositionStore.pack(PositionStore.score(old) + 1, -1, 0) : 0);
+            assertEquals(-11, PositionStore.score(updated));
+            assertEquals(-1, PositionStore.move(updated));
+
+            store.compute(0, (k, old, present) -> present ? 1 : 2);
+            assertEquals(2, store.getOrDefault(0, 0));
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Keys are distinct base-3 board encodings")
+    void encoding() {
+        assertEquals(0, PositionStore.encode(0, 0));
+        assertEquals(1, PositionStore.encode(1, 0));
+        assertEquals(2, PositionStore.encode(0, 1));
+        assertEquals(3 + 2 * 9, PositionStore.encode(0b010, 0b100));
+        assertThrows(IllegalArgumentException.class, () -> PositionStore.encode(1L << 40, 0));
+
+        try (PositionStore store = new PositionStore(1)) {
+            assertThrows(IllegalArgumentException.class, () -> store.put(-1, 0));
+        }
+    }
+
+    @Test
+    @DisplayName("Grows off-heap without allocating on the heap")
+    void growsOffHeap() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int entries = 1_000_000;
+
+        try (PositionStore store = new PositionStore(16)) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < entries; i++) {
+                store.put(i * 7L, i);
+            }
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+            assertEquals(entries, store.size());
+            assertTrue(store.offHeapBytes() >= entries * 16L);
+            assertTrue(allocated < 64 * 1024, "allocated " + allocated + " heap bytes");
+
+            for (int i = 0; i < entries; i++) {
+                assertEquals(i, store.getOrDefault(i * 7L, -1));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Round trips through an exported file")
+    void exportImport(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("positions.bin");
+
+        try (PositionStore store = new PositionStore(100)) {
+            for (int i = 0; i < 1000; i++) {
+                store.put(PositionStore.encode(i, (long) i << 10), PositionStore.pack(i, i % 9, 1));
+            }
+            store.exportTo(file);
+        }
+
+        try (PositionStore store = PositionStore.importFrom(file)) {
+            assertEquals(1000, store.size());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, PositionStore.score(store.getOrDefault(PositionStore.encode(i, (long) i << 10), -1)));
+            }
+        }
+
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> PositionStore.importFrom(file));
+    }
+}
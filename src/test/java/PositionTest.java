@@ -0,0 +1,123 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import repository.BoardGeometry;
+import repository.ECharToken;
+import repository.EWinner;
+import repository.PackedBoard;
+import repository.Position;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionTest {
+    // Positions reached at each ply of 3x3 games, stopping at wins: 549,946 nodes with the root
+    private static final long[] PERFT_3X3 = {1, 9, 72, 504, 3_024, 15_120, 54_720, 148_176, 200_448, 127_872};
+
+    @Test
+    @DisplayName("Perft node counts match the known 3x3 game tree")
+    void perft() {
+        Position position = new Position(BoardGeometry.of(3, 3));
+
+        for (int depth = 0; depth < PERFT_3X3.length; depth++) {
+            assertEquals(PERFT_3X3[depth], perft(position, depth), "depth " + depth);
+        }
+        assertEquals(0, position.mask(ECharToken.PLAYER) | position.mask(ECharToken.COMPUTER));
+        assertEquals(0, position.hash());
+    }
+
+    @Test
+    @DisplayName("Unmaking moves restores hash, line counts and winner")
+    void unmakeRestores() {
+        Position position = new Position(BoardGeometry.of(4, 3));
+        int[] moves = {5, 0, 6, 1, 7};
+
+        for (int move : moves) {
+            position.makeMove(move, position.sideToMove());
+            assertEquals(Position.hash(position.mask(ECharToken.PLAYER), position.mask(ECharToken.COMPUTER),
+                    position.sideToMove()), position.hash());
+        }
+        assertEquals(EWinner.PLAYER, position.winner());
+        assertTrue(position.hasWon(ECharToken.PLAYER));
+
+        for (int i = moves.length - 1; i >= 0; i--) {
+            position.unmakeMove(moves[i]);
+        }
+        assertEquals(EWinner.NONE, position.winner());
+        assertEquals(ECharToken.PLAYER, position.sideToMove());
+        assertEquals(0, position.hash());
+        for (int line = 0; line < position.geometry().lineCount(); line++) {
+            assertEquals(0, position.lineTokens(line, ECharToken.PLAYER));
+            assertEquals(0, position.lineTokens(line, ECharToken.COMPUTER));
+        }
+    }
+
+    @Test
+    @DisplayName("Loading a board matches playing its moves")
+    void loadMatchesMoves() {
+        Position played = new Position(BoardGeometry.of(3, 3));
+        played.makeMove(4, ECharToken.PLAYER);
+        played.makeMove(0, ECharToken.COMPUTER);
+        played.makeMove(8, ECharToken.PLAYER);
+
+        Position loaded = Position.of(new PackedBoard(3, 0b100_010_000, 0b000_000_001), ECharToken.COMPUTER);
+        assertEquals(played.hash(), loaded.hash());
+        for (int line = 0; line < played.geometry().lineCount(); line++) {
+            assertEquals(played.lineTokens(line, ECharToken.PLAYER), loaded.lineTokens(line, ECharToken.PLAYER));
+            assertEquals(played.lineTokens(line, ECharToken.EMPTY), loaded.lineTokens(line, ECharToken.EMPTY));
+        }
+    }
+
+    @Test
+    @DisplayName("Rejects moves on taken cells and unmaking empty cells")
+    void rejectsInvalidMoves() {
+        Position position = new Position(BoardGeometry.of(3, 3));
+        position.makeMove(4, ECharToken.PLAYER);
+
+        assertThrows(IllegalArgumentException.class, () -> position.makeMove(4, ECharToken.COMPUTER));
+        assertThrows(IllegalArgumentException.class, () -> position.makeMove(9, ECharToken.COMPUTER));
+        assertThrows(IllegalArgumentException.class, () -> position.makeMove(0, ECharToken.EMPTY));
+        assertThrows(IllegalArgumentException.class, () -> position.unmakeMove(0));
+    }
+
+    @Test
+    @DisplayName("Generated line tables hold every straight run of each geometry")
+    void lineTables() {
+        for (int size = 1; size <= BoardGeometry.MAX_SIZE; size++) {
+            for (int winLength = 1; winLength <= size; winLength++) {
+                BoardGeometry geometry = BoardGeometry.of(size, winLength);
+                int runs = size - winLength + 1;
+                assertEquals(2 * size * runs + 2 * runs * runs, geometry.lineCount(), size + "x" + size);
+
+                for (int line = 0; line < geometry.lineCount(); line++) {
+                    long mask = 0;
+                    int first = geometry.lineCell(line, 0);
+                    int step = winLength == 1 ? 0 : geometry.lineCell(line, 1) - first;
+                    for (int i = 0; i < winLength; i++) {
+                        assertEquals(first + i * step, geometry.lineCell(line, i));
+                        mask |= 1L << geometry.lineCell(line, i);
+                    }
+                    assertEquals(geometry.line(line), mask);
+                    assertEquals(winLength, Long.bitCount(mask));
+                }
+            }
+        }
+    }
+
+    private static long perft(Position position, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (position.winner() != EWinner.NONE) {
+            return 0;
+        }
+
+        long nodes = 0;
+        ECharToken side = position.sideToMove();
+        for (long empty = position.mask(ECharToken.EMPTY); empty != 0; empty &= empty - 1) {
+            int cell = Long.numberOfTrailingZeros(empty);
+            position.makeMove(cell, side);
+            nodes += perft(position, depth - 1);
+            position.unmakeMove(cell);
+        }
+        return nodes;
+    }
+}
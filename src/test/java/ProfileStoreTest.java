@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.ProfileStore;
+import repository.Statistics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfileStoreTest {
+    @Test
+    @DisplayName("Stores and reloads the counters of each profile")
+    void putGetReopen(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("profiles.bin");
+        try (ProfileStore store = ProfileStore.open(file)) {
+            assertEquals(0, store.size());
+            assertFalse(store.contains("alice"));
+            assertEquals(0, store.get("alice").wins);
+
+            store.put("alice", new Statistics(3, 1, 2, 2, 1));
+            store.put("bob", new Statistics(0, 4, 0, 1, 3));
+            store.put("alice", new Statistics(4, 1, 2, 3, 1));
+            assertEquals(2, store.size());
+        }
+
+        try (ProfileStore store = ProfileStore.open(file)) {
+            Statistics alice = store.get("alice");
+            assertEquals(4, alice.wins);
+            assertEquals(1, alice.loses);
+            assertEquals(2, alice.ties);
+            assertEquals(3, alice.openerWins);
+            assertEquals(1, alice.responderWins);
+            assertEquals(4, store.get("bob").loses);
+            assertEquals(List.of("alice", "bob"), store.profiles());
+        }
+    }
+
+    @Test
+    @DisplayName("Updates in place without changing the file size")
+    void updatesInPlace(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("profiles.bin");
+        try (ProfileStore store = ProfileStore.open(file)) {
+            store.put("carol", new Statistics());
+            long size = Files.size(file);
+
+            for (int i = 1; i <= 100; i++) {
+                store.put("carol", new Statistics(i, 0, 0, 0, 0));
+            }
+            assertEquals(size, Files.size(file));
+            assertEquals(100, store.get("carol").wins);
+        }
+    }
+
+    @Test
+    @DisplayName("Grows past its initial capacity and keeps every profile")
+    void grows(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("profiles.bin");
+        int profiles = 5_000;
+        try (ProfileStore store = ProfileStore.open(file)) {
+            for (int i = 0; i < profiles; i++) {
+                store.put("user" + i, new Statistics(i, i + 1, 0, 0, 0));
+            }
+        }
+
+        try (ProfileStore store = ProfileStore.open(file)) {
+            assertEquals(profiles, store.size());
+            for (int i = 0; i < profiles; i++) {
+                assertEquals(i, store.get("user" + i).wins);
+                assertEquals(i + 1, store.get("user" + i).loses);
+            }
+        }
+        assertFalse(Files.exists(dir.resolve("profiles.bin.tmp")));
+    }
+
+    @Test
+    @DisplayName("Stores sharing the file see each other's profiles, also after another store grew it")
+    void sharedFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("profiles.bin");
+        try (ProfileStore first = ProfileStore.open(file); ProfileStore second = ProfileStore.open(file)) {
+            first.put("alice", new Statistics(1, 0, 0, 0, 0));
+            second.put("bob", new Statistics(2, 0, 0, 0, 0));
+            assertEquals(2, first.get("bob").wins);
+
+            // Grows the table, replacing the file the second store has open
+            for (int i = 0; i < 1_000; i++) {
+                first.put("user" + i, new Statistics(i, 0, 0, 0, 0));
+            }
+            assertEquals(999, second.get("user999").wins);
+            second.put("carol", new Statistics(3, 0, 0, 0, 0));
+            second.put("alice", new Statistics(4, 0, 0, 0, 0));
+            assertEquals(1_003, second.size());
+        }
+
+        try (ProfileStore store = ProfileStore.open(file)) {
+            assertEquals(1_003, store.size());
+            assertEquals(4, store.get("alice").wins);
+            assertEquals(2, store.get("bob").wins);
+            assertEquals(3, store.get("carol").wins);
+            assertEquals(500, store.get("user500").wins);
+        }
+    }
+
+    @Test
+    @DisplayName("Rejects bad profile IDs and files that aren't stores")
+    void rejectsBadInput(@TempDir Path dir) throws IOException {
+        try (ProfileStore store = ProfileStore.open(dir.resolve("profiles.bin"))) {
+            assertThrows(IllegalArgumentException.class, () -> store.get(""));
+            assertThrows(IllegalArgumentException.class, () -> store.put("x".repeat(33), new Statistics()));
+        }
+
+        Path other = dir.resolve("other.bin");
+        Files.writeString(other, "not a profile store, but long enough to hold a whole header of 64 bytes");
+        assertThrows(IOException.class, () -> ProfileStore.open(other));
+    }
+}
@@ -1,10 +1,16 @@
 import com.google.common.collect.ImmutableList;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import repository.BoardSnapshot;
 import repository.ECharToken;
 import repository.EWinner;
+import repository.MoveStrategies;
 import repository.Repository;
+import repository.Statistics;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -62,6 +68,34 @@ public class RepositoryTest {
         assertThrows(UnsupportedOperationException.class, () -> board.get(1).set(1, ECharToken.PLAYER.token()));
     }
 
+    @Test
+    @DisplayName("Board snapshot is reused until the board changes")
+    void boardSnapshot() {
+        Repository repository = new Repository(1);
+        BoardSnapshot empty = repository.getBoardSnapshot();
+
+        assertSame(empty, repository.getBoardSnapshot());
+        assertEquals(3, empty.size());
+
+        repository.addPlayerMove(1, 1);
+        BoardSnapshot played = repository.getBoardSnapshot();
+
+        assertNotSame(empty, played);
+        assertTrue(played.version() > empty.version());
+        assertEquals(ECharToken.EMPTY, empty.get(1, 1));
+        assertEquals(ECharToken.PLAYER, played.get(1, 1));
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                assertEquals(repository.getBoard().get(row).get(col), played.get(row, col).token());
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> played.get(3, 0));
+
+        repository.undo();
+        assertEquals(empty.mask(ECharToken.EMPTY), repository.getBoardSnapshot().mask(ECharToken.EMPTY));
+        assertNotEquals(empty, repository.getBoardSnapshot());
+    }
+
     @Test
     @DisplayName("Can reset board")
     void resetBoard() {
@@ -173,6 +207,277 @@ public class RepositoryTest {
         repository.resetStats();
     }
 
+    @Test
+    @DisplayName("Profiles keep separate statistics")
+    void profiles() throws IOException {
+        Repository repository = new Repository(7);
+        repository.setProfile("profile-test");
+        repository.resetStats();
+        repository.setHuman(ECharToken.PLAYER, false);
+        repository.playAiMoves();
+        assertEquals(1, total(repository));
+
+        repository.setProfile(Repository.DEFAULT_PROFILE);
+        assertFalse(repository.isGameOver());
+        assertTrue(repository.getProfiles().contains("profile-test"));
+
+        repository.setProfile("profile-test");
+        assertEquals(1, total(repository));
+        assertThrows(IllegalArgumentException.class, () -> repository.setProfile(""));
+        assertEquals("profile-test", repository.getProfile());
+
+        assertEquals(1, repository.getStatsHistory().recentGames());
+
+        repository.setProfile(Repository.DEFAULT_PROFILE);
+        Files.deleteIfExists(Path.of("profiles.bin"));
+        Files.deleteIfExists(Path.of("history-70726f66696c652d74657374.bin"));
+    }
+
+    @Test
+    @DisplayName("Same seed and player moves replay the same game")
+    void replayFromSeed() {
+        Repository first = new Repository(1234);
+        Repository second = new Repository(first.getSeed());
+        first.setStrategy("random");
+        second.setStrategy("random");
+
+        for (int i = 0; i < 5; i++) {
+            while (!first.isGameOver()) {
+                int[] pair = getFirstEmpty(first.getBoard());
+                first.addPlayerMove(pair[0], pair[1]);
+                second.addPlayerMove(pair[0], pair[1]);
+
+                assertEquals(first.getImmutableBoard(), second.getImmutableBoard());
+            }
+
+            assertEquals(first.getWinner(), second.getWinner());
+
+            first.resetBoard();
+            second.resetBoard();
+        }
+    }
+
+    @Test
+    @DisplayName("Can undo and redo a turn")
+    void undoRedo() {
+        Repository repository = new Repository(42);
+        ImmutableList<ImmutableList<Character>> empty = repository.getImmutableBoard();
+        assertFalse(repository.canUndo());
+        assertFalse(repository.undo());
+
+        repository.addPlayerMove(1, 1);
+        ImmutableList<ImmutableList<Character>> afterFirst = repository.getImmutableBoard();
+        repository.addPlayerMove(getFirstEmpty(repository.getBoard())[0], getFirstEmpty(repository.getBoard())[1]);
+        ImmutableList<ImmutableList<Character>> afterSecond = repository.getImmutableBoard();
+
+        assertTrue(repository.undo());
+        assertEquals(afterFirst, repository.getImmutableBoard());
+        assertTrue(repository.undo());
+        assertEquals(empty, repository.getImmutableBoard());
+        assertFalse(repository.canUndo());
+
+        assertTrue(repository.redo());
+        assertTrue(repository.redo());
+        assertEquals(afterSecond, repository.getImmutableBoard());
+        assertFalse(repository.redo());
+    }
+
+    @Test
+    @DisplayName("A new move drops the turns that were taken back")
+    void newMoveDropsRedo() {
+        Repository repository = new Repository(42);
+
+        repository.addPlayerMove(0, 0);
+        repository.undo();
+        assertTrue(repository.canRedo());
+
+        repository.addPlayerMove(2, 2);
+        assertFalse(repository.canRedo());
+        assertEquals(ECharToken.PLAYER.token(), repository.getBoard().get(2).get(2));
+        assertEquals(ECharToken.EMPTY.token(), repository.getBoard().get(0).get(0));
+    }
+
+    @Test
+    @DisplayName("Undoing the last turn of a game rolls back the statistics")
+    void undoRollsBackStats() {
+        Repository repository = new Repository(7);
+        repository.resetStats();
+
+        while (!repository.isGameOver()) {
+            int[] pair = getFirstEmpty(repository.getBoard());
+            repository.addPlayerMove(pair[0], pair[1]);
+        }
+        EWinner winner = repository.getWinner();
+        int[] moves = repository.getMoveHistory();
+        assertEquals(1, total(repository));
+
+        assertEquals(1, repository.getStatsHistory().recent(winner));
+
+        repository.undo();
+        assertEquals(EWinner.NONE, repository.getWinner());
+        assertEquals(0, total(repository));
+        assertEquals(0, repository.getStatsHistory().recentGames());
+
+        repository.redo();
+        assertEquals(winner, repository.getWinner());
+        assertEquals(1, total(repository));
+        assertEquals(1, repository.getStatsHistory().recentGames());
+        assertArrayEquals(moves, repository.getMoveHistory());
+
+        repository.resetStats();
+    }
+
+    @Test
+    @DisplayName("Undoing a game finished before the statistics were reset leaves the history alone")
+    void undoAfterResetStats() {
+        Repository repository = Repository.inMemory(7);
+        while (!repository.isGameOver()) {
+            int[] pair = getFirstEmpty(repository.getBoard());
+            repository.addPlayerMove(pair[0], pair[1]);
+        }
+        repository.resetStats();
+
+        assertTrue(repository.undo());
+        assertEquals(0, repository.getStatsHistory().recentGames());
+
+        repository.redo();
+        assertEquals(1, repository.getStatsHistory().recentGames());
+        repository.undo();
+        assertEquals(0, repository.getStatsHistory().recentGames());
+    }
+
+    @Test
+    @DisplayName("Undoing a game finished before the statistics were reset keeps them at zero")
+    void undoAfterResetStatsKeepsCounts() {
+        Repository repository = Repository.inMemory(11);
+        while (!repository.isGameOver()) {
+            int[] pair = getFirstEmpty(repository.getBoard());
+            repository.addPlayerMove(pair[0], pair[1]);
+        }
+        repository.resetStats();
+
+        repository.undo();
+        Statistics stats = repository.getStats();
+        assertEquals(0, total(repository));
+        assertEquals(0, stats.openerWins + stats.responderWins);
+
+        repository.redo();
+        assertEquals(1, total(repository));
+        repository.undo();
+        assertEquals(0, total(repository));
+    }
+
+    @Test
+    @DisplayName("Move history lists every token in play order")
+    void moveHistory() {
+        Repository repository = new Repository(3);
+
+        repository.addPlayerMove(1, 1);
+        repository.addPlayerMove(getFirstEmpty(repository.getBoard())[0], getFirstEmpty(repository.getBoard())[1]);
+        int[] moves = repository.getMoveHistory();
+
+        assertEquals(4, moves.length);
+        assertEquals(4, moves[0]);
+        for (int i = 0; i < moves.length; i++) {
+            char expected = i % 2 == 0 ? ECharToken.PLAYER.token() : ECharToken.COMPUTER.token();
+            assertEquals(expected, repository.getBoard().get(moves[i] / 3).get(moves[i] % 3));
+        }
+    }
+
+    @Test
+    @DisplayName("Computer can open the game")
+    void computerOpens() {
+        Repository repository = new Repository(11);
+        repository.setFirstMover(ECharToken.COMPUTER);
+
+        assertEquals(ECharToken.COMPUTER, repository.getSideToMove());
+        assertEquals(1, repository.playAiMoves());
+        assertEquals(ECharToken.PLAYER, repository.getSideToMove());
+        assertEquals(0, repository.playAiMoves());
+
+        int[] pair = getFirstEmpty(repository.getBoard());
+        repository.addPlayerMove(pair[0], pair[1]);
+        assertEquals(3, repository.getMoveHistory().length);
+        assertEquals(ECharToken.PLAYER, repository.getSideToMove());
+
+        repository.undo();
+        assertEquals(1, repository.getMoveHistory().length);
+        assertEquals(ECharToken.PLAYER, repository.getSideToMove());
+    }
+
+    @Test
+    @DisplayName("The computer's opening turn can't be taken back")
+    void computerOpeningStays() {
+        Repository repository = Repository.inMemory(11);
+        repository.setFirstMover(ECharToken.COMPUTER);
+        repository.playAiMoves();
+        assertFalse(repository.canUndo());
+        assertFalse(repository.undo());
+
+        int[] pair = getFirstEmpty(repository.getBoard());
+        repository.addPlayerMove(pair[0], pair[1]);
+        assertTrue(repository.undo());
+        assertFalse(repository.canUndo());
+        assertEquals(1, repository.getMoveHistory().length);
+        assertEquals(ECharToken.PLAYER, repository.getSideToMove());
+        assertTrue(repository.isHuman(repository.getSideToMove()));
+    }
+
+    @Test
+    @DisplayName("Two AI sides play whole games and count per side")
+    void aiVersusAi() {
+        Repository repository = new Repository(5);
+        repository.resetStats();
+        repository.setHuman(ECharToken.PLAYER, false);
+        repository.setStrategy(ECharToken.PLAYER, MoveStrategies.get("random"));
+        repository.setStrategy(ECharToken.COMPUTER, MoveStrategies.get("random"));
+
+        for (int game = 0; game < 200; game++) {
+            repository.setFirstMover(game % 2 == 0 ? ECharToken.PLAYER : ECharToken.COMPUTER);
+            repository.resetBoard();
+            repository.playAiMoves();
+            assertTrue(repository.isGameOver());
+        }
+
+        Statistics stats = repository.getStats();
+        assertEquals(200, stats.wins + stats.loses + stats.ties);
+        assertEquals(stats.wins + stats.loses, stats.openerWins + stats.responderWins);
+        assertTrue(stats.openerWins > stats.responderWins);
+
+        repository.resetStats();
+    }
+
+    @Test
+    @DisplayName("Human moves are ignored while the AI is to move")
+    void humanWaitsForAi() {
+        Repository repository = new Repository(1);
+        repository.setFirstMover(ECharToken.COMPUTER);
+
+        repository.addPlayerMove(1, 1);
+        assertEquals(ECharToken.EMPTY.token(), repository.getBoard().get(1).get(1));
+
+        repository.setHuman(ECharToken.COMPUTER, true);
+        repository.addPlayerMove(1, 1);
+        assertEquals(ECharToken.COMPUTER.token(), repository.getBoard().get(1).get(1));
+        assertEquals(ECharToken.PLAYER, repository.getSideToMove());
+    }
+
+    private int total(Repository repository) {
+        return repository.getStats().wins + repository.getStats().loses + repository.getStats().ties;
+    }
+
+    private int[] getFirstEmpty(List<List<Character>> board) {
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                if (board.get(row).get(col) == ECharToken.EMPTY.token()) {
+                    return new int[]{row, col};
+                }
+            }
+        }
+
+        throw new IllegalStateException("Board is full");
+    }
+
     private int[] getRandomMove(List<List<Character>> board) {
         List<int[]> moves = new ArrayList<>();
 
@@ -0,0 +1,84 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import repository.BoardView;
+import repository.ECharToken;
+import repository.PackedBoard;
+import repository.SearchStrategy;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchStrategyTest {
+    private final SearchStrategy strategy = new SearchStrategy(1, Duration.ofSeconds(10), 1 << 16);
+
+    @Test
+    @DisplayName("Solves the empty 3x3 board as a draw")
+    void solvesEmptyBoard() {
+        SearchStrategy.Result result = strategy.analyse(new PackedBoard(3, 0, 0), ECharToken.PLAYER);
+
+        assertTrue(result.complete());
+        assertEquals(9, result.depth());
+        assertEquals(0, result.score());
+    }
+
+    @Test
+    @DisplayName("Wins and blocks on a 4x4 board")
+    void winsAndBlocks4x4() {
+        // X X X _ / O O O _ / ...: the side to move completes its own row rather than blocking
+        BoardView board = new PackedBoard(4, 0b0000_0000_0000_0111, 0b0000_0000_0111_0000);
+        assertEquals(3, strategy.selectMove(board, ECharToken.PLAYER, new SplittableRandom(1)));
+        assertEquals(7, strategy.selectMove(board, ECharToken.COMPUTER, new SplittableRandom(1)));
+
+        // Only X threatens, O has to block cell 3
+        board = new PackedBoard(4, 0b0000_0000_0000_0111, 0b0001_0000_0001_0000);
+        assertEquals(3, strategy.selectMove(board, ECharToken.COMPUTER, new SplittableRandom(1)));
+    }
+
+    @Test
+    @DisplayName("Positions with equal masks on different board sizes don't share table entries")
+    void geometriesDontCollide() {
+        // X on cells 4, 5 and 6, O on 0 and 1: on 4x4 X completes row 1 at 7, on 3x3 X wins at 2 or 3
+        long player = 0b111_0000;
+        long computer = 0b11;
+
+        SearchStrategy.Result large = strategy.analyse(new PackedBoard(4, player, computer), ECharToken.PLAYER);
+        assertTrue(large.complete());
+        assertEquals(7, large.move());
+
+        SearchStrategy.Result small = strategy.analyse(new PackedBoard(3, player, computer), ECharToken.PLAYER);
+        assertTrue(small.move() == 2 || small.move() == 3, "played " + small.move());
+        assertTrue(SearchStrategy.isForcedWin(small.score()));
+    }
+
+    @Test
+    @DisplayName("Parallel search agrees with the single-threaded search")
+    void parallelAgrees() {
+        SearchStrategy parallel = new SearchStrategy(4, Duration.ofSeconds(10), 1 << 16);
+        BoardView board = new PackedBoard(4, 0b0100_0001_1000_0110, 0b0010_0100_0011_1000);
+
+        SearchStrategy.Result single = strategy.analyse(board, ECharToken.PLAYER);
+        SearchStrategy.Result multi = parallel.analyse(board, ECharToken.PLAYER);
+
+        assertTrue(single.complete());
+        assertTrue(multi.complete());
+        assertEquals(single.score(), multi.score());
+    }
+
+    @Test
+    @DisplayName("Stops at the time budget on a large board")
+    void respectsBudget() {
+        SearchStrategy quick = new SearchStrategy(2, Duration.ofMillis(50), 1 << 16);
+        BoardView board = new PackedBoard(6, 0, 0);
+
+        long start = System.nanoTime();
+        SearchStrategy.Result result = quick.analyse(board, ECharToken.PLAYER);
+        long elapsed = System.nanoTime() - start;
+
+        assertFalse(result.complete());
+        assertTrue(result.depth() >= 1);
+        assertEquals(ECharToken.EMPTY, board.get(result.move()));
+        assertTrue(elapsed < Duration.ofSeconds(2).toNanos(), "took " + elapsed + " ns");
+    }
+}
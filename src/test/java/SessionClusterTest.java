@@ -0,0 +1,172 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import repository.ConsistentHashRing;
+import repository.ECharToken;
+import repository.EWinner;
+import repository.GameSnapshot;
+import repository.SessionCluster;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionClusterTest {
+    private static final int GAMES = 2000;
+
+    /**
+     * Plays the first empty cell of the game.
+     */
+    private static EWinner playFirstEmpty(SessionCluster cluster, String gameId) {
+        GameSnapshot snapshot = cluster.snapshot(gameId);
+        long taken = 0;
+        for (int ply = 0; snapshot != null && ply < snapshot.pliesOnBoard(); ply++) {
+            taken |= 1L << snapshot.cell(ply);
+        }
+        int cell = Long.numberOfTrailingZeros(~taken);
+        return cluster.play(gameId, cell / 3, cell % 3);
+    }
+
+    private static long finished(SessionCluster cluster) {
+        long total = 0;
+        for (String name : cluster.nodes()) {
+            for (EWinner winner : List.of(EWinner.PLAYER, EWinner.COMPUTER, EWinner.TIE)) {
+                total += cluster.node(name).finished(winner);
+            }
+        }
+        return total;
+    }
+
+    @Test
+    @DisplayName("The ring spreads keys evenly and moves few of them on a join")
+    void ring() {
+        ConsistentHashRing ring = new ConsistentHashRing(SessionCluster.VIRTUAL_NODES);
+        for (int node = 0; node < 4; node++) {
+            ring.add("node-" + node);
+        }
+
+        Map<String, Integer> shares = new HashMap<>();
+        Map<String, String> owners = new HashMap<>();
+        for (int key = 0; key < 40_000; key++) {
+            String owner = ring.nodeFor("game-" + key);
+            shares.merge(owner, 1, Integer::sum);
+            owners.put("game-" + key, owner);
+        }
+        for (int share : shares.values()) {
+            assertTrue(share > 7_000 && share < 13_000, "share " + share);
+        }
+
+        ring.add("node-4");
+        int moved = 0;
+        for (Map.Entry<String, String> owner : owners.entrySet()) {
+            String now = ring.nodeFor(owner.getKey());
+            if (!now.equals(owner.getValue())) {
+                assertEquals("node-4", now);
+                moved++;
+            }
+        }
+        assertTrue(moved > 5_000 && moved < 11_000, "moved " + moved);
+
+        ring.remove("node-4");
+        owners.forEach((key, owner) -> assertEquals(owner, ring.nodeFor(key)));
+    }
+
+    @Test
+    @DisplayName("Games migrate between nodes as snapshots and resume where they were")
+    void migration() {
+        SessionCluster cluster = new SessionCluster(1);
+        cluster.addNode("a");
+        cluster.addNode("b");
+
+        Map<String, GameSnapshot> before = new HashMap<>();
+        for (int game = 0; game < GAMES; game++) {
+            String gameId = "game-" + game;
+            cluster.play(gameId, 1, 1);
+            before.put(gameId, cluster.snapshot(gameId));
+        }
+
+        cluster.addNode("c");
+        assertTrue(cluster.migrations() > GAMES / 5 && cluster.migrations() < GAMES / 2, "" + cluster.migrations());
+        assertTrue(cluster.node("c").sessions() > 0);
+        assertTrue(cluster.migratedBytes() <= cluster.migrations() * GameSnapshot.MAX_ENCODED_SIZE);
+
+        cluster.removeNode("a");
+        assertNull(cluster.node("a"));
+        assertEquals(GAMES, cluster.node("b").sessions() + cluster.node("c").sessions());
+        before.forEach((gameId, snapshot) -> assertEquals(snapshot, cluster.snapshot(gameId)));
+
+        for (int game = 0; game < GAMES; game++) {
+            String gameId = "game-" + game;
+            while (playFirstEmpty(cluster, gameId) == EWinner.NONE) {
+                // Until the game is over
+            }
+        }
+        assertEquals(GAMES, finished(cluster));
+        assertEquals(0, cluster.node("b").sessions() + cluster.node("c").sessions());
+        // The heuristic never loses
+        assertEquals(0, cluster.node("b").finished(EWinner.PLAYER) + cluster.node("c").finished(EWinner.PLAYER));
+    }
+
+    @Test
+    @DisplayName("Rejects illegal moves and removing the last node with games")
+    void errors() {
+        SessionCluster cluster = new SessionCluster(2);
+        assertThrows(IllegalStateException.class, () -> cluster.play("game", 0, 0));
+
+        cluster.addNode("a");
+        assertThrows(IllegalArgumentException.class, () -> cluster.addNode("a"));
+        cluster.play("game", 0, 0);
+        assertThrows(IllegalArgumentException.class, () -> cluster.play("game", 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> cluster.play("game", 3, 0));
+        assertThrows(IllegalStateException.class, () -> cluster.removeNode("a"));
+        assertThrows(IllegalArgumentException.class, () -> cluster.removeNode("b"));
+        assertEquals(ECharToken.PLAYER, cluster.snapshot("game").side(0));
+    }
+
+    @Test
+    @DisplayName("Nodes join and leave while clients play concurrently")
+    void concurrentMembership() throws Exception {
+        SessionCluster cluster = new SessionCluster(3);
+        cluster.addNode("node-0");
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        AtomicInteger played = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int client = 0; client < 4; client++) {
+            int id = client;
+            futures.add(clients.submit(() -> {
+                for (int game = 0; game < GAMES / 4; game++) {
+                    String gameId = id + "-" + game;
+                    while (playFirstEmpty(cluster, gameId) == EWinner.NONE) {
+                        Thread.yield();
+                    }
+                    played.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        for (int node = 1; !futures.stream().allMatch(Future::isDone); node++) {
+            cluster.addNode("node-" + node);
+            if (node > 3) {
+                cluster.removeNode("node-" + (node - 3));
+            }
+            Thread.sleep(1);
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        clients.shutdown();
+
+        assertEquals(GAMES, played.get());
+        for (String name : cluster.nodes()) {
+            assertEquals(0, cluster.node(name).sessions());
+        }
+    }
+}
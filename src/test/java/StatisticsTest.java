@@ -1,14 +1,20 @@
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import repository.EWinner;
+import repository.Repository;
 import repository.Statistics;
+import repository.StatsHistory;
+import repository.StatsStorage;
 
 import javax.xml.bind.JAXBException;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class StatisticsTest {
     @Test
@@ -126,4 +132,53 @@ public class StatisticsTest {
             throw new RuntimeException(e);
         }
     }
+
+    @Test
+    @DisplayName("Binary encoding round-trips every counter")
+    public void binaryRoundTrip() {
+        Statistics statistics = Statistics.fromBytes(new Statistics(1, 2, 3, 4, 5).toBytes());
+
+        assertEquals(1, statistics.wins);
+        assertEquals(2, statistics.loses);
+        assertEquals(3, statistics.ties);
+        assertEquals(4, statistics.openerWins);
+        assertEquals(5, statistics.responderWins);
+        assertThrows(IllegalArgumentException.class, () -> Statistics.fromBytes(new byte[8]));
+        assertThrows(IllegalArgumentException.class,
+                () -> Statistics.fromBytes(Arrays.copyOf(statistics.toBytes(), 12)));
+    }
+
+    @Test
+    @DisplayName("Binary storage saves, loads and deletes")
+    public void binaryStorage() throws IOException {
+        Path filePath = Paths.get("stats-binary-test.bin");
+        StatsStorage storage = StatsStorage.binary(filePath);
+
+        assertEquals(0, storage.load().wins);
+
+        storage.save(new Statistics(1, 2, 3));
+        assertEquals(3, storage.load().ties);
+
+        storage.delete();
+        assert (Files.notExists(filePath));
+    }
+
+    @Test
+    @DisplayName("The history of a repository is kept beside its storage")
+    public void historyBesideStorage() throws IOException {
+        Path filePath = Paths.get("stats-history-test.bin");
+        Path historyPath = Paths.get("stats-history-test-history.bin");
+        StatsStorage storage = StatsStorage.binary(filePath);
+
+        StatsHistory history = new StatsHistory();
+        history.record(EWinner.TIE, 0);
+        storage.saveHistory(history);
+        assert (Files.exists(historyPath));
+
+        Repository repository = new Repository(1, storage);
+        assertEquals(1, repository.getStatsHistory().recent(EWinner.TIE));
+        repository.resetStats();
+        assert (Files.notExists(historyPath));
+        assertEquals(0, storage.loadHistory().recentGames());
+    }
 }
@@ -0,0 +1,137 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.EWinner;
+import repository.StatsHistory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatsHistoryTest {
+    private static final long HOUR = 3_600_000L;
+    private static final long DAY = 24 * HOUR;
+
+    @Test
+    @DisplayName("Keeps the win rate of the last games only")
+    void recentWindow() {
+        StatsHistory history = new StatsHistory();
+        assertEquals(0, history.recentWinRate());
+
+        for (int i = 0; i < StatsHistory.GAMES; i++) {
+            history.record(EWinner.COMPUTER, 0);
+        }
+        for (int i = 0; i < StatsHistory.GAMES / 4; i++) {
+            history.record(EWinner.PLAYER, 0);
+        }
+
+        assertEquals(StatsHistory.GAMES, history.recentGames());
+        assertEquals(StatsHistory.GAMES / 4, history.recent(EWinner.PLAYER));
+        assertEquals(0.25, history.recentWinRate());
+
+        history.record(EWinner.NONE, 0);
+        assertEquals(StatsHistory.GAMES, history.recentGames());
+    }
+
+    @Test
+    @DisplayName("Rolls hourly and daily buckets over as time passes")
+    void rollover() {
+        StatsHistory history = new StatsHistory();
+        long start = 1000 * DAY;
+
+        history.record(EWinner.PLAYER, start);
+        history.record(EWinner.TIE, start + 10);
+        history.record(EWinner.PLAYER, start + 2 * HOUR);
+
+        StatsHistory.Buckets hourly = history.hourly();
+        long now = start + 2 * HOUR;
+        assertEquals(1, hourly.count(0, EWinner.PLAYER, now));
+        assertEquals(0, hourly.games(1, now));
+        assertEquals(2, hourly.games(2, now));
+        assertEquals(3, history.daily().games(0, now));
+
+        // A day later the old hours are gone, the daily bucket isn't
+        history.record(EWinner.COMPUTER, start + DAY + 2 * HOUR);
+        now = start + DAY + 2 * HOUR;
+        assertEquals(1, hourly.games(0, now));
+        for (int ago = 1; ago < hourly.size(); ago++) {
+            assertEquals(0, hourly.games(ago, now));
+        }
+        assertEquals(3, history.daily().games(1, now));
+        assertEquals(1, history.daily().count(0, EWinner.COMPUTER, now));
+
+        // Buckets that weren't rolled over yet read as empty once they are out of the window
+        assertEquals(0, hourly.games(0, now + 30 * DAY));
+        assertEquals(0, history.daily().games(0, now + 30 * DAY));
+    }
+
+    @Test
+    @DisplayName("Removes the last game again")
+    void remove() {
+        StatsHistory history = new StatsHistory();
+        history.record(EWinner.TIE, 5 * HOUR);
+        history.record(EWinner.PLAYER, 6 * HOUR);
+
+        history.remove(EWinner.PLAYER, 6 * HOUR);
+        assertEquals(1, history.recentGames());
+        assertEquals(0, history.hourly().games(0, 6 * HOUR));
+        assertEquals(1, history.hourly().games(1, 6 * HOUR));
+        assertThrows(IllegalArgumentException.class, () -> history.remove(EWinner.PLAYER, 6 * HOUR));
+    }
+
+    @Test
+    @DisplayName("Removing the game that filled the window brings back the game it pushed out")
+    void removeFromFullWindow() {
+        StatsHistory history = new StatsHistory();
+        history.record(EWinner.COMPUTER, 0);
+        for (int i = 1; i < StatsHistory.GAMES; i++) {
+            history.record(EWinner.TIE, 0);
+        }
+
+        history.record(EWinner.PLAYER, 0);
+        assertEquals(0, history.recent(EWinner.COMPUTER));
+        history.remove(EWinner.PLAYER, 0);
+        assertEquals(StatsHistory.GAMES, history.recentGames());
+        assertEquals(1, history.recent(EWinner.COMPUTER));
+        assertEquals(0, history.recent(EWinner.PLAYER));
+
+        // The window is full again, and in its old order
+        history.record(EWinner.PLAYER, 0);
+        assertEquals(0, history.recent(EWinner.COMPUTER));
+
+        // Only the last record is remembered
+        history.remove(EWinner.PLAYER, 0);
+        history.remove(EWinner.TIE, 0);
+        assertEquals(StatsHistory.GAMES - 1, history.recentGames());
+    }
+
+    @Test
+    @DisplayName("Survives a round trip through its file")
+    void persistence(@TempDir Path dir) throws IOException {
+        StatsHistory history = new StatsHistory();
+        for (int i = 0; i < 250; i++) {
+            history.record(EWinner.values()[i % 3], i * HOUR / 3);
+        }
+
+        Path file = dir.resolve("history.bin");
+        history.writeTo(file);
+        StatsHistory loaded = StatsHistory.readFrom(file);
+
+        long now = 249 * HOUR / 3;
+        assertEquals(history.recentGames(), loaded.recentGames());
+        assertEquals(history.recentWinRate(), loaded.recentWinRate());
+        for (int ago = 0; ago < StatsHistory.HOURS; ago++) {
+            for (EWinner winner : EWinner.values()) {
+                assertEquals(history.hourly().count(ago, winner, now), loaded.hourly().count(ago, winner, now));
+            }
+        }
+        assertEquals(history.daily().games(0, now), loaded.daily().games(0, now));
+
+        // The window continues where it left off
+        loaded.record(EWinner.PLAYER, now);
+        assertEquals(StatsHistory.GAMES, loaded.recentGames());
+        assertThrows(IllegalArgumentException.class, () -> StatsHistory.fromBytes(new byte[]{1, 2, 3}));
+        assertTrue(history.toBytes().length < 1024);
+    }
+}
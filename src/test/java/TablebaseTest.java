@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.BoardGeometry;
+import repository.ECharToken;
+import repository.PackedBoard;
+import repository.SearchStrategy;
+import repository.Tablebase;
+import repository.TablebaseGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TablebaseTest {
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(3, 3);
+
+    @Test
+    @DisplayName("The empty 3x3 board is a draw")
+    void emptyBoardIsDraw() {
+        Tablebase tablebase = TablebaseGenerator.generate(GEOMETRY, 1);
+
+        assertEquals(Tablebase.DRAW, tablebase.value(0, 0));
+        assertEquals(Tablebase.DRAW, tablebase.probe(new PackedBoard(3, 0, 0), ECharToken.PLAYER));
+    }
+
+    @Test
+    @DisplayName("Terminal and illegal positions are classified")
+    void terminalPositions() {
+        Tablebase tablebase = TablebaseGenerator.generate(GEOMETRY, 1);
+
+        // First mover completed the top row, second mover to move has lost
+        assertEquals(Tablebase.LOSS, tablebase.value(0b000_000_111, 0b000_011_000));
+        // First mover has a line but it is their turn again
+        assertEquals(Tablebase.ILLEGAL, tablebase.value(0b000_000_111, 0b100_011_000));
+        // More second mover tokens than first mover tokens
+        assertEquals(Tablebase.ILLEGAL, tablebase.value(0b000_000_001, 0b000_000_110));
+        // Two in a row with the line open, first mover to move
+        assertEquals(Tablebase.WIN, tablebase.value(0b000_000_011, 0b000_011_000));
+    }
+
+    @Test
+    @DisplayName("Agrees with the search on every legal position")
+    void agreesWithSearch() {
+        Tablebase tablebase = TablebaseGenerator.generate(GEOMETRY, 1);
+        SearchStrategy search = new SearchStrategy(1, Duration.ofSeconds(10), 1 << 16);
+        int checked = 0;
+
+        for (int index = 0; index < 19_683; index++) {
+            int first = 0;
+            int second = 0;
+            for (int cell = 0, rest = index; cell < 9; cell++, rest /= 3) {
+                if (rest % 3 == 1) {
+                    first |= 1 << cell;
+                } else if (rest % 3 == 2) {
+                    second |= 1 << cell;
+                }
+            }
+
+            int value = tablebase.value(first, second);
+            // Only unfinished games, the search keeps playing past a win
+            if (value == Tablebase.ILLEGAL || GEOMETRY.isWin(first) || GEOMETRY.isWin(second)
+                    || Integer.bitCount(first | second) == 9) {
+                continue;
+            }
+
+            // PLAYER owns the first mover's tokens, whoever is to move
+            ECharToken toMove = Integer.bitCount(first) == Integer.bitCount(second)
+                    ? ECharToken.PLAYER : ECharToken.COMPUTER;
+            SearchStrategy.Result result = search.analyse(new PackedBoard(3, first, second), toMove);
+            int expected = result.score() > 0 ? Tablebase.WIN : result.score() < 0 ? Tablebase.LOSS : Tablebase.DRAW;
+
+            assertEquals(expected, value, "first " + first + " second " + second);
+            checked++;
+        }
+
+        assertTrue(checked > 4000, "only checked " + checked);
+    }
+
+    @Test
+    @DisplayName("Parallel generation matches the single-threaded table")
+    void parallelMatches() {
+        Tablebase single = TablebaseGenerator.generate(GEOMETRY, 1);
+        Tablebase parallel = TablebaseGenerator.generate(GEOMETRY, 4);
+
+        for (int first = 0; first < 512; first++) {
+            for (int second = 0; second < 512; second++) {
+                if ((first & second) == 0) {
+                    assertEquals(single.value(first, second), parallel.value(first, second));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Round trips through a memory-mapped file")
+    void fileRoundTrip(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve(TablebaseGenerator.fileName(GEOMETRY));
+        Tablebase written = TablebaseGenerator.generate(GEOMETRY, 2, file);
+        Tablebase read = Tablebase.open(file);
+
+        assertEquals(GEOMETRY, read.geometry());
+        for (int first = 0; first < 512; first++) {
+            for (int second = 0; second < 512; second++) {
+                if ((first & second) == 0) {
+                    assertEquals(written.value(first, second), read.value(first, second));
+                }
+            }
+        }
+
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> Tablebase.open(file));
+    }
+}
@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.EWinner;
+import repository.MoveStrategies;
+import repository.MoveStrategy;
+import repository.Tournament;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TournamentTest {
+    private static final List<MoveStrategy> ENTRANTS = List.of(
+            MoveStrategies.get("random"), MoveStrategies.get("heuristic"), MoveStrategies.get("search"));
+
+    @Test
+    @DisplayName("Plays a full round robin, alternating the first mover")
+    void roundRobin() {
+        Tournament.Result result = Tournament.play(ENTRANTS, 1000, 2, 1);
+
+        assertEquals(3, result.pairings().size());
+        assertEquals(3000, result.games());
+        for (Tournament.Pairing pairing : result.pairings()) {
+            int opened = 0;
+            for (int game = 0; game < pairing.games().length; game++) {
+                assertNotEquals(EWinner.NONE, pairing.winner(game));
+                if (pairing.firstOpened(game)) {
+                    opened++;
+                }
+            }
+            assertEquals(500, opened);
+
+            long[] record = pairing.firstRecord();
+            assertEquals(1000, record[0] + record[1] + record[2]);
+        }
+    }
+
+    @Test
+    @DisplayName("Replays exactly from its seed whatever the number of threads")
+    void deterministic() {
+        Tournament.Result first = Tournament.play(ENTRANTS, 40_000, 1, 99);
+        Tournament.Result second = Tournament.play(ENTRANTS, 40_000, 3, 99);
+
+        for (int i = 0; i < first.pairings().size(); i++) {
+            assertArrayEquals(first.pairings().get(i).games(), second.pairings().get(i).games());
+        }
+    }
+
+    @Test
+    @DisplayName("Rates the perfect players above random play")
+    void ratings() {
+        Tournament.Result result = Tournament.play(ENTRANTS, 2000, 2, 5);
+        List<Tournament.Rating> ratings = result.ratings();
+
+        assertEquals(0, ratings.stream().mapToDouble(Tournament.Rating::elo).sum(), 1e-6);
+        assertTrue(ratings.get(1).elo() > ratings.get(0).elo() + ratings.get(1).margin() + ratings.get(0).margin());
+        assertTrue(ratings.get(2).elo() > ratings.get(0).elo());
+        for (Tournament.Rating rating : ratings) {
+            assertTrue(rating.margin() > 0 && Double.isFinite(rating.margin()));
+        }
+
+        // Neither perfect player ever loses
+        long[] record = result.pairings().get(2).firstRecord();
+        assertEquals(2000, record[1]);
+
+        // Scores count the games played only, not the virtual draws of the fit
+        double[] points = new double[ENTRANTS.size()];
+        for (Tournament.Pairing pairing : result.pairings()) {
+            long[] games = pairing.firstRecord();
+            points[pairing.first()] += games[0] + games[1] / 2.0;
+            points[pairing.second()] += games[2] + games[1] / 2.0;
+        }
+        for (int i = 0; i < ratings.size(); i++) {
+            assertEquals(points[i] / 4000, ratings.get(i).score(), 1e-12);
+        }
+    }
+
+    @Test
+    @DisplayName("Writes a summary report")
+    void report(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("tournament.txt");
+        Tournament.play(ENTRANTS, 100, 1, 3).writeReport(file);
+
+        String report = Files.readString(file);
+        assertTrue(report.contains("heuristic vs search"));
+        assertTrue(report.contains("Elo"));
+    }
+
+    @Test
+    @DisplayName("Rejects tournaments without two distinct entrants")
+    void rejectsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> Tournament.play(List.of(ENTRANTS.get(0)), 10, 1, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> Tournament.play(List.of(ENTRANTS.get(0), ENTRANTS.get(0)), 10, 1, 0));
+    }
+}
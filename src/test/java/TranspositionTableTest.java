@@ -0,0 +1,184 @@
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.BoardGeometry;
+import repository.ECharToken;
+import repository.Position;
+import repository.SearchStrategy;
+import repository.TranspositionTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+    private static final long KEYS = 0x5EED;
+
+    /**
+     * Entry point of the second process in {@link #sharedBetweenProcesses(Path)}: stores 1000 keys in the table in
+     * {@code args[0]}.
+     */
+    public static void main(String[] args) throws IOException {
+        TranspositionTable table = TranspositionTable.open(Path.of(args[0]), 1 << 12);
+        SplittableRandom random = new SplittableRandom(KEYS);
+        for (int i = 0; i < 1000; i++) {
+            table.store(random.nextLong(), i, 9, TranspositionTable.EXACT, i % 9);
+        }
+    }
+
+    @Test
+    @DisplayName("Stores and probes packed entries")
+    void storeProbe() {
+        TranspositionTable table = new TranspositionTable(16);
+        assertEquals(TranspositionTable.MISS, table.probe(42));
+
+        table.store(42, -17, 5, TranspositionTable.LOWER, 3);
+        long entry = table.probe(42);
+        assertEquals(-17, TranspositionTable.score(entry));
+        assertEquals(5, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.flag(entry));
+        assertEquals(3, TranspositionTable.move(entry));
+
+        table.store(42, 8, 6, TranspositionTable.EXACT, -1);
+        assertEquals(-1, TranspositionTable.move(table.probe(42)));
+        assertEquals(8, TranspositionTable.score(table.probe(42)));
+
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.probe(42));
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(TranspositionTable.MAX_ENTRIES + 1));
+    }
+
+    @Test
+    @DisplayName("Keeps colliding keys side by side in a bucket")
+    void buckets() {
+        // Four slots in a single bucket
+        TranspositionTable table = new TranspositionTable(4);
+        for (int key = 1; key <= 4; key++) {
+            table.store(key, key, key, TranspositionTable.EXACT, 0);
+        }
+        for (int key = 1; key <= 4; key++) {
+            assertEquals(key, TranspositionTable.score(table.probe(key)));
+        }
+
+        // The shallowest entry makes room
+        table.store(5, 5, 9, TranspositionTable.EXACT, 0);
+        assertEquals(TranspositionTable.MISS, table.probe(1));
+        assertEquals(5, TranspositionTable.score(table.probe(5)));
+    }
+
+    @Test
+    @DisplayName("Never returns a wrong entry under concurrent writers")
+    void concurrentWriters() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1 << 6);
+        AtomicInteger wrong = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    // Every key has one possible entry, derived from the key
+                    long key = random.nextInt(1000) + 1;
+                    table.store(key, (int) key, (int) key & 0xFF, TranspositionTable.EXACT, (int) key % 9);
+                    long probed = random.nextInt(1000) + 1;
+                    long entry = table.probe(probed);
+                    if (entry != TranspositionTable.MISS && TranspositionTable.score(entry) != probed) {
+                        wrong.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, wrong.get());
+    }
+
+    @Test
+    @DisplayName("A mapped table survives reopening and warms up a new search")
+    void persistsAcrossRestarts(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("search.tt");
+        Position empty = new Position(BoardGeometry.of(3, 3));
+
+        SearchStrategy cold = new SearchStrategy(1, Duration.ofSeconds(10), TranspositionTable.open(file, 1 << 16));
+        SearchStrategy.Result first = cold.analyse(empty, ECharToken.PLAYER);
+        assertTrue(first.complete());
+        assertTrue(first.nodes() > 1);
+
+        // A new mapping of the same file, as after a restart, keeps the size it was created with
+        TranspositionTable reopened = TranspositionTable.open(file, 1 << 10);
+        assertEquals(1 << 16, reopened.capacity());
+
+        SearchStrategy warm = new SearchStrategy(1, Duration.ofSeconds(10), reopened);
+        SearchStrategy.Result second = warm.analyse(empty, ECharToken.PLAYER);
+        assertEquals(1, second.nodes());
+        assertEquals(first.score(), second.score());
+        assertEquals(first.move(), second.move());
+    }
+
+    @Test
+    @DisplayName("Another process sees the entries stored by this one")
+    void sharedBetweenProcesses(@TempDir Path dir) throws IOException, InterruptedException {
+        Path file = dir.resolve("shared.tt");
+        TranspositionTable table = TranspositionTable.open(file, 1 << 12);
+
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process child = new ProcessBuilder(java, "--enable-preview", "-cp", System.getProperty("java.class.path"),
+                TranspositionTableTest.class.getName(), file.toString()).inheritIO().start();
+        assertEquals(0, child.waitFor());
+
+        SplittableRandom random = new SplittableRandom(KEYS);
+        int found = 0;
+        for (int i = 0; i < 1000; i++) {
+            long entry = table.probe(random.nextLong());
+            if (entry != TranspositionTable.MISS) {
+                assertEquals(i, TranspositionTable.score(entry));
+                found++;
+            }
+        }
+        // 1000 keys in 4096 slots, only bucket overflows are lost
+        assertTrue(found > 950, "found " + found);
+    }
+
+    @Test
+    @DisplayName("A table written with another key format is cleared when it is opened")
+    void clearsOtherKeyFormats(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("old.tt");
+        TranspositionTable table = TranspositionTable.open(file, 1 << 10);
+        table.store(42, 7, 3, TranspositionTable.EXACT, 4);
+        table.force();
+
+        // Marks the file as written by version 1, whose keys ignored the board geometry
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 1), 4);
+        }
+
+        TranspositionTable reopened = TranspositionTable.open(file, 1 << 12);
+        assertEquals(1 << 10, reopened.capacity());
+        assertEquals(TranspositionTable.MISS, reopened.probe(42));
+
+        // Cleared once, kept from then on
+        reopened.store(42, 7, 3, TranspositionTable.EXACT, 4);
+        assertNotEquals(TranspositionTable.MISS, TranspositionTable.open(file, 1 << 10).probe(42));
+    }
+
+    @Test
+    @DisplayName("Rejects files that aren't tables")
+    void rejectsOtherFiles(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("other.bin");
+        Files.write(file, new byte[128]);
+        assertThrows(IOException.class, () -> TranspositionTable.open(file, 16));
+    }
+}